@@ -0,0 +1,46 @@
+package com.cloudkitchen.rbac.audit;
+
+import java.time.LocalDateTime;
+
+/**
+ * One OTP lifecycle event, captured on the request thread (including client
+ * IP and User-Agent) and written later by {@link OtpAuditWriter}.
+ *
+ * @param kind       what happened
+ * @param phone      phone the OTP was sent to; events are coalesced per phone
+ * @param merchantId merchant scope, may be null
+ * @param otpCode    code that was sent ({@link Kind#SENT} only)
+ * @param otpType    OTP purpose ({@link Kind#SENT} only)
+ * @param status     initial row status ({@link Kind#SENT} only)
+ * @param attempts   verification attempts so far ({@link Kind#FAILED} only)
+ * @param expiresAt  OTP expiry ({@link Kind#SENT} only)
+ * @param ipAddress  client IP of the request that produced the event
+ * @param userAgent  User-Agent of the request that produced the event
+ * @param occurredAt when the event happened
+ */
+public record OtpAuditEvent(
+        Kind kind,
+        String phone,
+        Integer merchantId,
+        String otpCode,
+        String otpType,
+        String status,
+        int attempts,
+        LocalDateTime expiresAt,
+        String ipAddress,
+        String userAgent,
+        LocalDateTime occurredAt) {
+
+    public enum Kind {
+        /** A new OTP was issued: inserts a row. */
+        SENT,
+        /** A wrong code was entered: updates attempts and status of the open row. */
+        FAILED,
+        /** The OTP expired or was superseded: closes the open row. */
+        EXPIRED,
+        /** The OTP was verified: closes the open row, or inserts one if none is open. */
+        VERIFIED,
+        /** The SMS could not be delivered: closes the open row as send_failed. */
+        UNDELIVERED
+    }
+}
@@ -0,0 +1,306 @@
+package com.cloudkitchen.rbac.audit;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes {@link OtpAuditEvent}s to {@code otp_logs} with JDBC batches.
+ *
+ * Events for the same phone are coalesced before writing: a SENT followed by
+ * FAILED and VERIFIED in the same flush becomes a single INSERT carrying the
+ * final status, and several updates to an already written row collapse into
+ * one UPDATE. {@code OtpLog} uses IDENTITY keys, which stops Hibernate from
+ * batching inserts, so this goes through JDBC directly.
+ *
+ * Updates apply to the phone's newest open row (status {@code sent} or
+ * {@code invalid_attempt}).
+ */
+@Component
+public class OtpAuditWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(OtpAuditWriter.class);
+
+    private static final String STATUS_SENT = "sent";
+    private static final String STATUS_INVALID_ATTEMPT = "invalid_attempt";
+    private static final String STATUS_FAILED = "failed";
+    private static final String STATUS_EXPIRED = "expired";
+    private static final String STATUS_VERIFIED = "verified";
+    private static final String STATUS_SEND_FAILED = "send_failed";
+    private static final int MAX_ATTEMPTS = 3;
+
+    private static final String INSERT_SQL = "INSERT INTO otp_logs (merchant_id, phone, otp_code, otp_type, status, "
+            + "ip_address, user_agent, attempts_count, verified_at, expires_at, created_on) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_OPEN_ROW_SQL = "UPDATE otp_logs SET status = ?, "
+            + "attempts_count = COALESCE(?, attempts_count), verified_at = COALESCE(?, verified_at) "
+            + "WHERE otp_log_id = (SELECT MAX(o.otp_log_id) FROM otp_logs o "
+            + "WHERE o.phone = ? AND o.status IN ('" + STATUS_SENT + "', '" + STATUS_INVALID_ATTEMPT + "'))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    public OtpAuditWriter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                          @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Coalesce and write events, in the order they were recorded.
+     * Never throws; rows that cannot be written are logged and dropped.
+     */
+    public void write(List<OtpAuditEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        List<Row> inserts = new ArrayList<>();
+        List<Update> updates = new ArrayList<>();
+        coalesce(events, inserts, updates);
+
+        // Updates first: an update that survives coalescing always targets a row
+        // written by an earlier flush, never one inserted here
+        List<Row> fallbackInserts = new ArrayList<>();
+        runUpdates(updates, fallbackInserts);
+        inserts.addAll(fallbackInserts);
+        runInserts(inserts);
+        logger.debug("OTP audit flush: {} events -> {} inserts, {} updates", events.size(), inserts.size(),
+                updates.size());
+    }
+
+    private void coalesce(List<OtpAuditEvent> events, List<Row> inserts, List<Update> updates) {
+        Map<String, Object> pending = new LinkedHashMap<>();
+        for (OtpAuditEvent event : events) {
+            Object current = pending.get(event.phone());
+            if (event.kind() == OtpAuditEvent.Kind.SENT) {
+                if (current instanceof Row row) {
+                    inserts.add(row);
+                } else if (current instanceof Update update) {
+                    updates.add(update);
+                }
+                pending.put(event.phone(), Row.from(event));
+            } else if (current instanceof Row row && row.isOpen()) {
+                row.apply(event);
+            } else {
+                if (current instanceof Row row) {
+                    inserts.add(row);
+                    current = null;
+                }
+                Update update = current instanceof Update existing ? existing : new Update(event.phone());
+                update.apply(event);
+                pending.put(event.phone(), update);
+            }
+        }
+        for (Object op : pending.values()) {
+            if (op instanceof Row row) {
+                inserts.add(row);
+            } else {
+                updates.add((Update) op);
+            }
+        }
+    }
+
+    private void runUpdates(List<Update> updates, List<Row> fallbackInserts) {
+        for (int from = 0; from < updates.size(); from += batchSize) {
+            List<Update> chunk = updates.subList(from, Math.min(updates.size(), from + batchSize));
+            int[][] counts;
+            try {
+                counts = transactionTemplate.execute(status -> jdbcTemplate.batchUpdate(UPDATE_OPEN_ROW_SQL, chunk,
+                        chunk.size(), (ps, update) -> {
+                            ps.setString(1, update.status);
+                            setInteger(ps, 2, update.attempts);
+                            setTimestamp(ps, 3, update.verifiedAt);
+                            ps.setString(4, update.phone);
+                        }));
+            } catch (RuntimeException e) {
+                logger.error("OTP audit update batch failed, {} rows dropped: {}", chunk.size(), e.getMessage());
+                continue;
+            }
+            int[] rowCounts = counts != null && counts.length > 0 ? counts[0] : new int[0];
+            for (int i = 0; i < chunk.size(); i++) {
+                Update update = chunk.get(i);
+                if (update.fallback != null && i < rowCounts.length && rowCounts[i] == 0) {
+                    // Verified without an open row (e.g. it was written before a restart or
+                    // already closed): record the verification on its own, as before
+                    fallbackInserts.add(update.fallback);
+                }
+            }
+        }
+    }
+
+    private void runInserts(List<Row> rows) {
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<Row> chunk = rows.subList(from, Math.min(rows.size(), from + batchSize));
+            try {
+                transactionTemplate.executeWithoutResult(status -> insertBatch(chunk));
+            } catch (RuntimeException e) {
+                // One bad row (e.g. unknown merchant) fails the whole batch; retry one by one
+                logger.warn("OTP audit insert batch failed, retrying {} rows individually: {}", chunk.size(),
+                        e.getMessage());
+                for (Row row : chunk) {
+                    try {
+                        insertBatch(List.of(row));
+                    } catch (RuntimeException rowError) {
+                        logger.error("OTP audit logging failed for phone: {}, type: {}: {}", mask(row.phone),
+                                row.otpType, rowError.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private void insertBatch(List<Row> rows) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, row) -> {
+            setInteger(ps, 1, row.merchantId);
+            ps.setString(2, row.phone);
+            ps.setString(3, row.otpCode);
+            ps.setString(4, row.otpType);
+            ps.setString(5, row.status);
+            ps.setString(6, row.ipAddress);
+            ps.setString(7, row.userAgent);
+            ps.setInt(8, row.attempts);
+            setTimestamp(ps, 9, row.verifiedAt);
+            setTimestamp(ps, 10, row.expiresAt);
+            setTimestamp(ps, 11, row.createdOn);
+        });
+    }
+
+    private static void setInteger(PreparedStatement ps, int index, Integer value)
+            throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.INTEGER);
+        } else {
+            ps.setInt(index, value);
+        }
+    }
+
+    private static void setTimestamp(PreparedStatement ps, int index, LocalDateTime value)
+            throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.TIMESTAMP);
+        } else {
+            ps.setTimestamp(index, Timestamp.valueOf(value));
+        }
+    }
+
+    private static String mask(String phone) {
+        if (phone == null || phone.length() < 4) return "****";
+        return "****" + phone.substring(phone.length() - 4);
+    }
+
+    private static String statusForAttempts(int attempts) {
+        return attempts >= MAX_ATTEMPTS ? STATUS_FAILED : STATUS_INVALID_ATTEMPT;
+    }
+
+    /** A row to insert, with every later event for the same OTP folded in. */
+    private static final class Row {
+        private Integer merchantId;
+        private String phone;
+        private String otpCode;
+        private String otpType;
+        private String status;
+        private String ipAddress;
+        private String userAgent;
+        private int attempts;
+        private LocalDateTime verifiedAt;
+        private LocalDateTime expiresAt;
+        private LocalDateTime createdOn;
+
+        static Row from(OtpAuditEvent event) {
+            Row row = new Row();
+            row.merchantId = event.merchantId();
+            row.phone = event.phone();
+            row.otpCode = event.otpCode();
+            row.otpType = event.otpType();
+            row.status = event.status();
+            row.ipAddress = event.ipAddress();
+            row.userAgent = event.userAgent();
+            row.expiresAt = event.expiresAt();
+            row.createdOn = event.occurredAt();
+            return row;
+        }
+
+        /** Verification row recorded when no open row exists. */
+        static Row verifiedFallback(OtpAuditEvent event) {
+            Row row = new Row();
+            row.merchantId = event.merchantId();
+            row.phone = event.phone();
+            row.otpCode = "0000"; // 4 chars to satisfy column constraint
+            row.otpType = "login";
+            row.status = STATUS_VERIFIED;
+            row.ipAddress = event.ipAddress();
+            row.userAgent = event.userAgent();
+            row.verifiedAt = event.occurredAt();
+            row.expiresAt = event.occurredAt().plusMinutes(1); // Short expiry for verification log
+            row.createdOn = event.occurredAt();
+            return row;
+        }
+
+        boolean isOpen() {
+            return STATUS_SENT.equals(status) || STATUS_INVALID_ATTEMPT.equals(status);
+        }
+
+        void apply(OtpAuditEvent event) {
+            switch (event.kind()) {
+                case FAILED -> {
+                    attempts = event.attempts();
+                    status = statusForAttempts(attempts);
+                }
+                case EXPIRED -> status = STATUS_EXPIRED;
+                case UNDELIVERED -> status = STATUS_SEND_FAILED;
+                case VERIFIED -> {
+                    status = STATUS_VERIFIED;
+                    verifiedAt = event.occurredAt();
+                }
+                default -> { }
+            }
+        }
+    }
+
+    /** Net change to a phone's open row written by an earlier flush. */
+    private static final class Update {
+        private final String phone;
+        private String status;
+        private Integer attempts;
+        private LocalDateTime verifiedAt;
+        private Row fallback;
+
+        Update(String phone) {
+            this.phone = phone;
+        }
+
+        void apply(OtpAuditEvent event) {
+            switch (event.kind()) {
+                case FAILED -> {
+                    attempts = event.attempts();
+                    status = statusForAttempts(attempts);
+                }
+                case EXPIRED -> status = STATUS_EXPIRED;
+                case UNDELIVERED -> status = STATUS_SEND_FAILED;
+                case VERIFIED -> {
+                    status = STATUS_VERIFIED;
+                    verifiedAt = event.occurredAt();
+                    fallback = Row.verifiedFallback(event);
+                }
+                default -> { }
+            }
+        }
+    }
+}
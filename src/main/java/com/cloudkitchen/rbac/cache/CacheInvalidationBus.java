@@ -0,0 +1,28 @@
+package com.cloudkitchen.rbac.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Transport for cache invalidations between application nodes.
+ *
+ * Delivery is best-effort: a node that misses a message keeps serving the
+ * stale L1 entry until its TTL expires, so TTLs remain the upper bound on
+ * staleness and the bus only shortens it.
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * Broadcast to every other node. Must not throw.
+     */
+    void publish(CacheInvalidationMessage message);
+
+    /**
+     * Register the handler for messages sent by other nodes.
+     */
+    void subscribe(Consumer<CacheInvalidationMessage> listener);
+
+    /**
+     * Identifier of this node, stamped on outgoing messages.
+     */
+    String nodeId();
+}
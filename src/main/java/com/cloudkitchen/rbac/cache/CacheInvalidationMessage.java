@@ -0,0 +1,16 @@
+package com.cloudkitchen.rbac.cache;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Invalidation broadcast between nodes. Receivers drop the listed entries
+ * from their L1 only; the sender has already evicted the shared tier.
+ *
+ * @param origin    node id of the sender, used to ignore our own broadcasts
+ * @param evictions keys to evict, grouped by cache name
+ * @param clears    caches to clear entirely
+ */
+public record CacheInvalidationMessage(String origin, Map<String, List<String>> evictions,
+                                       List<String> clears) {
+}
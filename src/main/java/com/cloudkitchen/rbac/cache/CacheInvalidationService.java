@@ -0,0 +1,100 @@
+package com.cloudkitchen.rbac.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single entry point for evicting cache entries cluster-wide.
+ *
+ * Evictions are applied to both tiers on this node and then broadcast over
+ * the {@link CacheInvalidationBus}; peers drop the same keys from their L1.
+ */
+@Component
+public class CacheInvalidationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationService.class);
+
+    private final CacheManager cacheManager;
+    private final CacheInvalidationBus bus;
+
+    public CacheInvalidationService(CacheManager cacheManager, CacheInvalidationBus bus) {
+        this.cacheManager = cacheManager;
+        this.bus = bus;
+        bus.subscribe(this::applyRemote);
+    }
+
+    /**
+     * Evict keys from a single cache on every node.
+     */
+    public void evict(String cacheName, Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        evict(Map.of(cacheName, keys));
+    }
+
+    /**
+     * Evict keys from several caches on every node with a single broadcast.
+     */
+    public void evict(Map<String, ? extends Collection<String>> keysByCache) {
+        Map<String, List<String>> evictions = new LinkedHashMap<>();
+        keysByCache.forEach((cacheName, keys) -> {
+            if (keys.isEmpty()) {
+                return;
+            }
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                keys.forEach(cache::evict);
+            }
+            evictions.put(cacheName, new ArrayList<>(keys));
+        });
+        if (!evictions.isEmpty()) {
+            bus.publish(new CacheInvalidationMessage(bus.nodeId(), evictions, List.of()));
+        }
+    }
+
+    /**
+     * Clear whole caches on every node. Used when a change fans out to more
+     * keys than it is worth enumerating.
+     */
+    public void clear(Collection<String> cacheNames) {
+        for (String cacheName : cacheNames) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        bus.publish(new CacheInvalidationMessage(bus.nodeId(), Map.of(), new ArrayList<>(cacheNames)));
+    }
+
+    private void applyRemote(CacheInvalidationMessage message) {
+        if (message.evictions() != null) {
+            message.evictions().forEach((cacheName, keys) -> keys.forEach(key -> evictLocal(cacheName, key)));
+        }
+        if (message.clears() != null) {
+            message.clears().forEach(this::clearLocal);
+        }
+        logger.debug("Applied cache invalidation from node {}", message.origin());
+    }
+
+    private void evictLocal(String cacheName, String key) {
+        if (cacheManager instanceof TwoLevelCacheManager twoLevel) {
+            twoLevel.evictLocal(cacheName, key);
+        }
+    }
+
+    private void clearLocal(String cacheName) {
+        if (cacheManager instanceof TwoLevelCacheManager twoLevel) {
+            twoLevel.clearLocal(cacheName);
+        }
+    }
+}
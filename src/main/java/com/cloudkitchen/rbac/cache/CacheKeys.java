@@ -0,0 +1,28 @@
+package com.cloudkitchen.rbac.cache;
+
+/**
+ * Builds cache keys exactly as the SpEL {@code key} expressions on the
+ * repositories render them, so invalidation can target individual entries.
+ * SpEL concatenation renders a {@code null} operand as {@code "null"}.
+ */
+public final class CacheKeys {
+
+    private CacheKeys() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /** Key of {@link CacheNames#USER_ROLES} and {@link CacheNames#USER_PERMISSIONS}. */
+    public static String userScope(Integer userId, Integer merchantId) {
+        return userId + "_" + merchantId;
+    }
+
+    /** Key of {@code UserRepository.findLoginUserData(phone, merchantId)}. */
+    public static String phoneLogin(String phone, Integer merchantId) {
+        return phone + "_" + merchantId;
+    }
+
+    /** Key of {@code UserRepository.findAdminLoginUserData(username)}. */
+    public static String adminLogin(String username) {
+        return username + "_admin_0";
+    }
+}
@@ -0,0 +1,43 @@
+package com.cloudkitchen.rbac.cache;
+
+import java.util.List;
+
+/**
+ * Names of the application caches referenced from {@code @Cacheable} declarations.
+ *
+ * Every name listed in {@link #ALL} is created eagerly by {@link TwoLevelCacheManager}
+ * so that its metrics are registered at startup rather than on first use.
+ */
+public final class CacheNames {
+
+    private CacheNames() {
+        throw new UnsupportedOperationException("Utility class");
+    }
+
+    /** Login projection keyed by {@code phone_merchantId} or {@code username_admin_0}. */
+    public static final String LOGIN_USER_DATA = "loginUserData";
+
+    /** Role names keyed by {@code userId_merchantId}. */
+    public static final String USER_ROLES = "userRoles";
+
+    /** Permission names keyed by {@code userId_merchantId}. */
+    public static final String USER_PERMISSIONS = "userPermissions";
+
+    /** Role ids keyed by {@code userId_merchantId}; expanded through the permission graph. */
+    public static final String USER_ROLE_IDS = "userRoleIds";
+
+    /** Token revocation epoch keyed by {@code userId}. */
+    public static final String TOKEN_EPOCH = "tokenEpoch";
+
+    /** Merchant entities keyed by {@code email_<email>} or {@code phone_<phone>}. */
+    public static final String MERCHANT_DATA = "merchantData";
+
+    /**
+     * Not a cache: name broadcast on the invalidation bus to make peers rebuild
+     * their in-memory permission graph.
+     */
+    public static final String PERMISSION_GRAPH = "permissionGraph";
+
+    public static final List<String> ALL = List.of(
+            LOGIN_USER_DATA, USER_ROLES, USER_PERMISSIONS, USER_ROLE_IDS, TOKEN_EPOCH, MERCHANT_DATA);
+}
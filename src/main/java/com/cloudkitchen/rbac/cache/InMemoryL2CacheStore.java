@@ -0,0 +1,72 @@
+package com.cloudkitchen.rbac.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+
+/**
+ * In-process stand-in for the shared L2 store.
+ *
+ * Values are kept in serialized form so that this store fails for the same
+ * values a Redis-backed store would and hands out copies rather than shared
+ * instances. Intended for single-node runs and for exercising the two-tier
+ * path without a Redis server.
+ */
+public class InMemoryL2CacheStore implements L2CacheStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryL2CacheStore.class);
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final SerializingConverter serializer = new SerializingConverter();
+    private final DeserializingConverter deserializer = new DeserializingConverter();
+
+    @Override
+    public Object get(String cacheName, Object key) {
+        String storeKey = storeKey(cacheName, key);
+        Entry entry = entries.get(storeKey);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.isExpired()) {
+            entries.remove(storeKey, entry);
+            return null;
+        }
+        return deserializer.convert(entry.payload());
+    }
+
+    @Override
+    public void put(String cacheName, Object key, Object value, Duration ttl) {
+        try {
+            long expiresAt = System.currentTimeMillis() + ttl.toMillis();
+            entries.put(storeKey(cacheName, key), new Entry(serializer.convert(value), expiresAt));
+        } catch (RuntimeException e) {
+            logger.warn("Skipping L2 put for cache '{}': {}", cacheName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void evict(String cacheName, Object key) {
+        entries.remove(storeKey(cacheName, key));
+    }
+
+    @Override
+    public void clear(String cacheName) {
+        String prefix = cacheName + ":";
+        entries.keySet().removeIf(k -> k.startsWith(prefix));
+    }
+
+    private static String storeKey(String cacheName, Object key) {
+        return cacheName + ":" + key;
+    }
+
+    private record Entry(byte[] payload, long expiresAt) {
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.cloudkitchen.rbac.cache;
+
+import java.time.Duration;
+
+/**
+ * Shared second-level store behind the in-process caches.
+ *
+ * Implementations must be safe to call from request threads and must never
+ * propagate infrastructure failures: a store that cannot be reached behaves
+ * like a miss so that callers fall back to the database.
+ *
+ * Values handed to {@link #put} are already in their stored form (Spring's
+ * {@code NullValue} included) and must be {@link java.io.Serializable}.
+ */
+public interface L2CacheStore {
+
+    /**
+     * @return the stored value, or {@code null} on a miss or store failure
+     */
+    Object get(String cacheName, Object key);
+
+    void put(String cacheName, Object key, Object value, Duration ttl);
+
+    void evict(String cacheName, Object key);
+
+    void clear(String cacheName);
+}
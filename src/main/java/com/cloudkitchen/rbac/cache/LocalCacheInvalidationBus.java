@@ -0,0 +1,27 @@
+package com.cloudkitchen.rbac.cache;
+
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Single-node bus: there are no peers to notify, so publishing is a no-op.
+ */
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+
+    private final String nodeId = UUID.randomUUID().toString();
+
+    @Override
+    public void publish(CacheInvalidationMessage message) {
+        // No other nodes to notify
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidationMessage> listener) {
+        // Nothing is ever received
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+}
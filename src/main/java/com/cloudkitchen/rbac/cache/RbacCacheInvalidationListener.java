@@ -0,0 +1,128 @@
+package com.cloudkitchen.rbac.cache;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cloudkitchen.rbac.config.CacheProperties;
+import com.cloudkitchen.rbac.repository.RolePermissionRepository;
+import com.cloudkitchen.rbac.repository.UserRoleRepository;
+
+/**
+ * Maps committed RBAC changes to the exact cache entries they affect:
+ * <ul>
+ *   <li>user-role change: that user's {@code userId_merchantId} role and permission
+ *       entries plus their login entries</li>
+ *   <li>role or role-permission change: the same entries for every assignment of the role</li>
+ *   <li>permission change: every role granting it, then as above</li>
+ * </ul>
+ * When a role change fans out to more assignments than
+ * {@code app.cache.invalidation.fan-out-limit}, the affected caches are
+ * cleared instead of enumerating keys.
+ */
+@Component
+public class RbacCacheInvalidationListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(RbacCacheInvalidationListener.class);
+
+    private static final List<String> USER_SCOPED_CACHES = List.of(
+            CacheNames.USER_ROLES, CacheNames.USER_PERMISSIONS, CacheNames.USER_ROLE_IDS,
+            CacheNames.LOGIN_USER_DATA);
+
+    private final UserRoleRepository userRoles;
+    private final RolePermissionRepository rolePermissions;
+    private final CacheInvalidationService invalidationService;
+    private final CacheProperties properties;
+    private final TransactionTemplate readTransaction;
+
+    public RbacCacheInvalidationListener(UserRoleRepository userRoles,
+                                         RolePermissionRepository rolePermissions,
+                                         CacheInvalidationService invalidationService,
+                                         CacheProperties properties,
+                                         PlatformTransactionManager transactionManager) {
+        this.userRoles = userRoles;
+        this.rolePermissions = rolePermissions;
+        this.invalidationService = invalidationService;
+        this.properties = properties;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    @EventListener
+    public void onRbacChanged(RbacChangedEvent event) {
+        Set<UserCacheScope> scopes;
+        if (event.userIds().isEmpty() && event.roleIds().isEmpty() && event.permissionIds().isEmpty()) {
+            // Scopes only (e.g. a user saving their own login data): nothing to look up
+            scopes = event.userScopes();
+        } else {
+            // Published after commit: run lookups in a fresh transaction rather than
+            // the one that just completed.
+            scopes = readTransaction.execute(status -> resolveScopes(event));
+        }
+        if (scopes == null) {
+            return;
+        }
+
+        Map<String, Set<String>> keys = new LinkedHashMap<>();
+        USER_SCOPED_CACHES.forEach(cacheName -> keys.put(cacheName, new LinkedHashSet<>()));
+        for (UserCacheScope scope : scopes) {
+            String userScope = CacheKeys.userScope(scope.userId(), scope.scopeMerchantId());
+            keys.get(CacheNames.USER_ROLES).add(userScope);
+            keys.get(CacheNames.USER_PERMISSIONS).add(userScope);
+            keys.get(CacheNames.USER_ROLE_IDS).add(userScope);
+
+            Set<String> loginKeys = keys.get(CacheNames.LOGIN_USER_DATA);
+            if (scope.phone() != null) {
+                loginKeys.add(CacheKeys.phoneLogin(scope.phone(), scope.userMerchantId()));
+                if (scope.scopeMerchantId() != null) {
+                    loginKeys.add(CacheKeys.phoneLogin(scope.phone(), scope.scopeMerchantId()));
+                }
+            }
+            if (scope.username() != null) {
+                loginKeys.add(CacheKeys.adminLogin(scope.username()));
+            }
+        }
+        invalidationService.evict(keys);
+        logger.debug("Evicted cache entries for {} user scope(s) after RBAC change", scopes.size());
+    }
+
+    /**
+     * @return the scopes to evict, or {@code null} when the caches were cleared instead
+     */
+    private Set<UserCacheScope> resolveScopes(RbacChangedEvent event) {
+        Set<UserCacheScope> scopes = new HashSet<>(event.userScopes());
+        if (!event.userIds().isEmpty()) {
+            // Login identifiers were not loaded when these changes were recorded
+            scopes.addAll(userRoles.findCacheScopesByUserIds(event.userIds()));
+        }
+
+        Set<Integer> roleIds = new HashSet<>(event.roleIds());
+        if (!event.permissionIds().isEmpty()) {
+            roleIds.addAll(rolePermissions.findRoleIdsByPermissionIds(event.permissionIds()));
+        }
+        if (!roleIds.isEmpty()) {
+            long assignments = userRoles.countByRoleIds(roleIds);
+            int limit = properties.getInvalidation().getFanOutLimit();
+            if (assignments > limit) {
+                logger.info("RBAC change on roles {} affects {} assignments (limit {}); clearing user caches",
+                        roleIds, assignments, limit);
+                invalidationService.clear(USER_SCOPED_CACHES);
+                return null;
+            }
+            scopes.addAll(userRoles.findCacheScopesByRoleIds(roleIds));
+        }
+        return scopes;
+    }
+}
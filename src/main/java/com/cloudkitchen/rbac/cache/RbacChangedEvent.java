@@ -0,0 +1,20 @@
+package com.cloudkitchen.rbac.cache;
+
+import java.util.Set;
+
+/**
+ * Published once per committed transaction that wrote to {@code user_roles},
+ * {@code role_permissions}, {@code roles}, {@code permissions} or {@code users}.
+ *
+ * Changes are coalesced per transaction, so seeding twenty permissions onto a
+ * role yields a single event carrying that role id once.
+ *
+ * @param userScopes    assignments added or removed directly, and users whose login data changed
+ * @param userIds       users whose assignments changed but whose login identity
+ *                      was not loaded when the change was recorded
+ * @param roleIds       roles whose definition or permission set changed
+ * @param permissionIds permissions that were created, renamed or removed
+ */
+public record RbacChangedEvent(Set<UserCacheScope> userScopes, Set<Integer> userIds,
+                               Set<Integer> roleIds, Set<Integer> permissionIds) {
+}
@@ -0,0 +1,119 @@
+package com.cloudkitchen.rbac.cache;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.cloudkitchen.rbac.domain.entity.Merchant;
+import com.cloudkitchen.rbac.domain.entity.Permission;
+import com.cloudkitchen.rbac.domain.entity.Role;
+import com.cloudkitchen.rbac.domain.entity.RolePermission;
+import com.cloudkitchen.rbac.domain.entity.User;
+import com.cloudkitchen.rbac.domain.entity.UserRole;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * JPA listener on the RBAC entities and on {@link User}, whose password,
+ * status and identifiers are part of the cached login data. Records every insert, update and delete
+ * in a per-transaction change set and publishes a single
+ * {@link RbacChangedEvent} once the transaction commits, so rolled-back
+ * writes never evict anything and no write path can forget to invalidate.
+ *
+ * Instantiated by Hibernate through Spring's bean container.
+ */
+@Component
+public class RbacEntityListener {
+
+    private static final Object CHANGE_SET_KEY = new Object();
+
+    private final ApplicationEventPublisher publisher;
+
+    public RbacEntityListener(ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(Object entity) {
+        ChangeSet changes = currentChangeSet();
+        switch (entity) {
+            case UserRole userRole -> changes.addUserRole(userRole);
+            case User user -> changes.addUser(user);
+            case RolePermission rolePermission -> changes.roleIds.add(rolePermission.getRole().getRoleId());
+            case Role role -> changes.roleIds.add(role.getRoleId());
+            case Permission permission -> changes.permissionIds.add(permission.getPermissionId());
+            default -> {
+                return;
+            }
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publisher.publishEvent(changes.toEvent());
+        }
+    }
+
+    private ChangeSet currentChangeSet() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new ChangeSet();
+        }
+        ChangeSet changes = (ChangeSet) TransactionSynchronizationManager.getResource(CHANGE_SET_KEY);
+        if (changes == null) {
+            ChangeSet created = new ChangeSet();
+            TransactionSynchronizationManager.bindResource(CHANGE_SET_KEY, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CHANGE_SET_KEY);
+                    if (status == STATUS_COMMITTED) {
+                        publisher.publishEvent(created.toEvent());
+                    }
+                }
+            });
+            changes = created;
+        }
+        return changes;
+    }
+
+    private static final class ChangeSet {
+        private final Set<UserCacheScope> userScopes = new HashSet<>();
+        private final Set<Integer> userIds = new HashSet<>();
+        private final Set<Integer> roleIds = new HashSet<>();
+        private final Set<Integer> permissionIds = new HashSet<>();
+
+        void addUserRole(UserRole userRole) {
+            User user = userRole.getUser();
+            Integer scopeMerchantId = merchantId(userRole.getMerchant());
+            // Only read login identifiers from an already-loaded user; touching a
+            // lazy proxy here would issue a query in the middle of a flush.
+            if (Hibernate.isInitialized(user)) {
+                userScopes.add(new UserCacheScope(user.getUserId(), scopeMerchantId, user.getPhone(),
+                        user.getUsername(), merchantId(user.getMerchant())));
+            } else {
+                userScopes.add(new UserCacheScope(user.getUserId(), scopeMerchantId, null, null, null));
+                userIds.add(user.getUserId());
+            }
+        }
+
+        void addUser(User user) {
+            userScopes.add(new UserCacheScope(user.getUserId(), null, user.getPhone(), user.getUsername(),
+                    merchantId(user.getMerchant())));
+        }
+
+        RbacChangedEvent toEvent() {
+            return new RbacChangedEvent(Set.copyOf(userScopes), Set.copyOf(userIds),
+                    Set.copyOf(roleIds), Set.copyOf(permissionIds));
+        }
+
+        private static Integer merchantId(Merchant merchant) {
+            return merchant != null ? merchant.getMerchantId() : null;
+        }
+    }
+}
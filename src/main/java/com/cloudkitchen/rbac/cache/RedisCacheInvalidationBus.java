@@ -0,0 +1,68 @@
+package com.cloudkitchen.rbac.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Broadcasts invalidations over a Redis pub/sub channel as JSON.
+ * Messages stamped with this node's id are ignored on receipt.
+ */
+public class RedisCacheInvalidationBus implements CacheInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisCacheInvalidationBus.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final StringRedisTemplate redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+
+    public RedisCacheInvalidationBus(StringRedisTemplate redisTemplate,
+                                     RedisMessageListenerContainer listenerContainer,
+                                     ObjectMapper objectMapper, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+    }
+
+    @Override
+    public void publish(CacheInvalidationMessage message) {
+        try {
+            redisTemplate.convertAndSend(channel, objectMapper.writeValueAsString(message));
+        } catch (JsonProcessingException | RuntimeException e) {
+            logger.warn("Failed to broadcast cache invalidation on '{}': {}", channel, e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidationMessage> listener) {
+        listenerContainer.addMessageListener((message, pattern) -> {
+            try {
+                String body = new String(message.getBody(), StandardCharsets.UTF_8);
+                CacheInvalidationMessage received = objectMapper.readValue(body, CacheInvalidationMessage.class);
+                if (!nodeId.equals(received.origin())) {
+                    listener.accept(received);
+                }
+            } catch (Exception e) {
+                logger.warn("Ignoring malformed cache invalidation message: {}", e.getMessage());
+            }
+        }, new ChannelTopic(channel));
+        logger.info("Subscribed to cache invalidation channel '{}' as node {}", channel, nodeId);
+    }
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+}
@@ -0,0 +1,99 @@
+package com.cloudkitchen.rbac.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.JdkSerializationRedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+/**
+ * Redis-backed L2 store shared by all application nodes.
+ *
+ * Keys are laid out as {@code <prefix><cacheName>:<key>} and always carry a
+ * TTL, so a node that misses an eviction can serve a stale value for at most
+ * one TTL. Redis errors are logged and reported as misses.
+ */
+public class RedisL2CacheStore implements L2CacheStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisL2CacheStore.class);
+    private static final int CLEAR_BATCH_SIZE = 500;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final String keyPrefix;
+
+    public RedisL2CacheStore(RedisConnectionFactory connectionFactory, String keyPrefix) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(StringRedisSerializer.UTF_8);
+        template.setValueSerializer(new JdkSerializationRedisSerializer(getClass().getClassLoader()));
+        template.afterPropertiesSet();
+        this.redisTemplate = template;
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public Object get(String cacheName, Object key) {
+        try {
+            return redisTemplate.opsForValue().get(storeKey(cacheName, key));
+        } catch (RuntimeException e) {
+            logger.warn("L2 cache read failed for cache '{}': {}", cacheName, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String cacheName, Object key, Object value, Duration ttl) {
+        try {
+            redisTemplate.opsForValue().set(storeKey(cacheName, key), value, ttl);
+        } catch (RuntimeException e) {
+            logger.warn("L2 cache write failed for cache '{}': {}", cacheName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void evict(String cacheName, Object key) {
+        try {
+            redisTemplate.delete(storeKey(cacheName, key));
+        } catch (RuntimeException e) {
+            logger.warn("L2 cache evict failed for cache '{}': {}", cacheName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void clear(String cacheName) {
+        String pattern = keyPrefix + cacheName + ":*";
+        try {
+            redisTemplate.execute((RedisCallback<Void>) connection -> {
+                ScanOptions options = ScanOptions.scanOptions().match(pattern).count(CLEAR_BATCH_SIZE).build();
+                List<byte[]> batch = new ArrayList<>(CLEAR_BATCH_SIZE);
+                try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+                    while (cursor.hasNext()) {
+                        batch.add(cursor.next());
+                        if (batch.size() == CLEAR_BATCH_SIZE) {
+                            connection.keyCommands().del(batch.toArray(new byte[0][]));
+                            batch.clear();
+                        }
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    connection.keyCommands().del(batch.toArray(new byte[0][]));
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            logger.warn("L2 cache clear failed for pattern '{}': {}", pattern, e.getMessage());
+        }
+    }
+
+    private String storeKey(String cacheName, Object key) {
+        return keyPrefix + cacheName + ":" + key;
+    }
+}
@@ -0,0 +1,190 @@
+package com.cloudkitchen.rbac.cache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+
+/**
+ * Spring {@link org.springframework.cache.Cache} backed by a bounded Caffeine
+ * cache (L1) and an optional shared {@link L2CacheStore}.
+ *
+ * Reads go L1 first, then L2; an L2 hit is promoted into L1. Writes and
+ * evictions are applied to both tiers. When null values are not cached, a
+ * {@code null} result is simply not stored so negative lookups always reach
+ * the database.
+ */
+public class TwoLevelCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final Cache<Object, Object> local;
+    private final L2CacheStore remote;
+    private final Duration remoteTtl;
+
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+
+    /**
+     * @param remote shared store, or {@code null} to run with L1 only
+     */
+    public TwoLevelCache(String name, Cache<Object, Object> local, L2CacheStore remote,
+                         Duration remoteTtl, boolean allowNullValues) {
+        super(allowNullValues);
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.remoteTtl = remoteTtl;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Cache<Object, Object> getNativeCache() {
+        return local;
+    }
+
+    public boolean hasRemoteTier() {
+        return remote != null;
+    }
+
+    public long getRemoteHitCount() {
+        return remoteHits.sum();
+    }
+
+    public long getRemoteMissCount() {
+        return remoteMisses.sum();
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        Object value = local.getIfPresent(key);
+        if (value != null) {
+            return value;
+        }
+        value = remoteGet(key);
+        if (value != null) {
+            local.put(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        Object stored = local.get(key, k -> {
+            Object remoteValue = remoteGet(k);
+            if (remoteValue != null) {
+                return remoteValue;
+            }
+            T loaded;
+            try {
+                loaded = valueLoader.call();
+            } catch (Exception e) {
+                throw new ValueRetrievalException(k, valueLoader, e);
+            }
+            if (loaded == null && !isAllowNullValues()) {
+                return null;
+            }
+            Object storeValue = toStoreValue(loaded);
+            remotePut(k, storeValue);
+            return storeValue;
+        });
+        return (T) fromStoreValue(stored);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null && !isAllowNullValues()) {
+            evict(key);
+            return;
+        }
+        Object storeValue = toStoreValue(value);
+        local.put(key, storeValue);
+        remotePut(key, storeValue);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        if (value == null && !isAllowNullValues()) {
+            return get(key);
+        }
+        Object storeValue = toStoreValue(value);
+        Object existing = local.asMap().putIfAbsent(key, storeValue);
+        if (existing == null) {
+            remotePut(key, storeValue);
+        }
+        return toValueWrapper(existing);
+    }
+
+    @Override
+    public void evict(Object key) {
+        local.invalidate(key);
+        if (remote != null) {
+            remote.evict(name, key);
+        }
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = local.asMap().remove(key) != null;
+        if (remote != null) {
+            remote.evict(name, key);
+        }
+        return present;
+    }
+
+    /**
+     * Drop the entry from this node's L1 only. Used when another node has
+     * already evicted the shared tier and broadcast the change.
+     */
+    public void evictLocal(Object key) {
+        local.invalidate(key);
+    }
+
+    /**
+     * Drop every entry from this node's L1 only.
+     */
+    public void clearLocal() {
+        local.invalidateAll();
+    }
+
+    @Override
+    public void clear() {
+        local.invalidateAll();
+        if (remote != null) {
+            remote.clear(name);
+        }
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean notEmpty = local.estimatedSize() > 0;
+        clear();
+        return notEmpty;
+    }
+
+    private Object remoteGet(Object key) {
+        if (remote == null) {
+            return null;
+        }
+        Object value = remote.get(name, key);
+        if (value != null) {
+            remoteHits.increment();
+        } else {
+            remoteMisses.increment();
+        }
+        return value;
+    }
+
+    private void remotePut(Object key, Object storeValue) {
+        if (remote != null) {
+            remote.put(name, key, storeValue, remoteTtl);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.cloudkitchen.rbac.cache;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+
+import com.cloudkitchen.rbac.config.CacheProperties;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * {@link CacheManager} producing {@link TwoLevelCache} instances sized from
+ * {@link CacheProperties}. Known caches ({@link CacheNames#ALL}) are created
+ * eagerly; any other name is created on first use with the default spec.
+ */
+public final class TwoLevelCacheManager implements CacheManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCacheManager.class);
+
+    private final CacheProperties properties;
+    private final L2CacheStore remote;
+    private final ConcurrentMap<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * @param remote shared store, or {@code null} when no L2 is configured
+     */
+    public TwoLevelCacheManager(CacheProperties properties, L2CacheStore remote) {
+        this.properties = properties;
+        this.remote = remote;
+        CacheNames.ALL.forEach(this::getCache);
+    }
+
+    @Override
+    public TwoLevelCache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    public Collection<TwoLevelCache> getCaches() {
+        return Collections.unmodifiableCollection(caches.values());
+    }
+
+    /**
+     * Evict a key from this node's L1 only; no-op for unknown caches.
+     */
+    public void evictLocal(String cacheName, Object key) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.evictLocal(key);
+        }
+    }
+
+    /**
+     * Clear a cache's L1 on this node only; no-op for unknown caches.
+     */
+    public void clearLocal(String cacheName) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.clearLocal();
+        }
+    }
+
+    private TwoLevelCache createCache(String name) {
+        CacheProperties.Spec spec = properties.specFor(name);
+        com.github.benmanes.caffeine.cache.Cache<Object, Object> local = Caffeine.newBuilder()
+                .maximumSize(spec.getMaximumSize())
+                .expireAfterWrite(spec.getTtl())
+                .recordStats()
+                .build();
+        L2CacheStore cacheRemote = spec.isL2Enabled() ? remote : null;
+        logger.info("Cache '{}' initialized: maxSize={}, ttl={}, l2={}",
+                name, spec.getMaximumSize(), spec.getTtl(), cacheRemote != null);
+        return new TwoLevelCache(name, local, cacheRemote, spec.getTtl(), spec.isCacheNullValues());
+    }
+}
@@ -0,0 +1,16 @@
+package com.cloudkitchen.rbac.cache;
+
+/**
+ * Everything needed to address the cached entries of one role assignment:
+ * the {@code userId_merchantId} scope of the role/permission caches and the
+ * login identifiers of the user holding it.
+ *
+ * @param userId          user holding the assignment
+ * @param scopeMerchantId merchant the assignment is scoped to ({@code null} for global roles)
+ * @param phone           user's phone, used by customer login keys
+ * @param username        user's username, used by admin/merchant login keys
+ * @param userMerchantId  merchant the user belongs to ({@code null} for platform users)
+ */
+public record UserCacheScope(Integer userId, Integer scopeMerchantId, String phone,
+                             String username, Integer userMerchantId) {
+}
@@ -1,76 +1,107 @@
 package com.cloudkitchen.rbac.config;
 
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.lang.NonNull;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
-import org.springframework.web.servlet.HandlerInterceptor;
-import org.springframework.lang.NonNull;
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
+import com.cloudkitchen.rbac.ratelimit.LocalRateLimitBackend;
+import com.cloudkitchen.rbac.ratelimit.RateLimitBackend;
+import com.cloudkitchen.rbac.ratelimit.RateLimitInterceptor;
+import com.cloudkitchen.rbac.ratelimit.RedisRateLimitBackend;
+
+import io.github.bucket4j.distributed.ExpirationAfterWriteStrategy;
+import io.github.bucket4j.redis.lettuce.cas.LettuceBasedProxyManager;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.codec.ByteArrayCodec;
+import io.lettuce.core.codec.RedisCodec;
+import io.lettuce.core.codec.StringCodec;
+
+/**
+ * Registers the token-bucket rate limiter for the paths covered by
+ * {@code app.rate-limit.policies}.
+ *
+ * With {@code app.rate-limit.backend=redis} buckets are shared across nodes
+ * through Bucket4j's Lettuce proxy manager ({@code app.redis.enabled=true}
+ * is required); otherwise each node keeps its own buckets.
+ */
 @Configuration
-public class ApiRateLimitConfig implements WebMvcConfigurer {
-    
-    @NonNull
-    private final RateLimitInterceptor rateLimitInterceptor = new RateLimitInterceptor();
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class ApiRateLimitConfig implements WebMvcConfigurer, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiRateLimitConfig.class);
+
+    private final RateLimitProperties properties;
+    private final ObjectProvider<LettuceConnectionFactory> redisConnectionFactory;
+    private StatefulRedisConnection<String, byte[]> redisConnection;
+
+    public ApiRateLimitConfig(RateLimitProperties properties,
+                              ObjectProvider<LettuceConnectionFactory> redisConnectionFactory) {
+        this.properties = properties;
+        this.redisConnectionFactory = redisConnectionFactory;
+    }
 
     @Override
     public void addInterceptors(@NonNull InterceptorRegistry registry) {
-        registry.addInterceptor(rateLimitInterceptor)
-                .addPathPatterns("/api/auth/**");
+        if (!properties.isEnabled() || properties.getPolicies().isEmpty()) {
+            logger.warn("API rate limiting is DISABLED");
+            return;
+        }
+        RateLimitInterceptor interceptor = new RateLimitInterceptor(properties.getPolicies(), rateLimitBackend());
+        registry.addInterceptor(interceptor).addPathPatterns(interceptor.pathPatterns());
+        logger.info("API rate limiting enabled: policies={}, backend={}",
+                properties.getPolicies().keySet(), properties.getBackend());
     }
 
-    public static class RateLimitInterceptor implements HandlerInterceptor {
-        private final ConcurrentHashMap<String, RequestWindow> requestWindows = new ConcurrentHashMap<>();
-        private final int maxRequests = 10;
-        private final long windowSizeMs = 60000;
-        private volatile long lastCleanup = System.currentTimeMillis();
-        private final long cleanupIntervalMs = 300000; // 5 minutes
-
-        @Override
-        public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull Object handler) throws Exception {
-            String clientId = getClientId(request);
-            long currentTime = System.currentTimeMillis();
-            
-            // Periodic cleanup of expired windows
-            if (currentTime - lastCleanup > cleanupIntervalMs) {
-                cleanupExpiredWindows(currentTime);
-                lastCleanup = currentTime;
-            }
-            
-            RequestWindow window = requestWindows.computeIfAbsent(clientId, k -> new RequestWindow());
-            
-            if (currentTime - window.startTime > windowSizeMs) {
-                window.startTime = currentTime;
-                window.count.set(0);
-            }
-            
-            if (window.count.incrementAndGet() > maxRequests) {
-                response.setStatus(429);
-                response.setContentType("application/json");
-                response.getWriter().write("{\"error\":\"Too many requests\"}");
-                return false;
-            }
-            
-            return true;
+    @Override
+    public void destroy() {
+        if (redisConnection != null) {
+            redisConnection.close();
         }
+    }
 
-        private String getClientId(HttpServletRequest request) {
-            String xForwardedFor = request.getHeader("X-Forwarded-For");
-            return (xForwardedFor != null && !xForwardedFor.isEmpty()) ? 
-                   xForwardedFor.split(",")[0].trim() : request.getRemoteAddr();
+    private RateLimitBackend rateLimitBackend() {
+        LocalRateLimitBackend local = new LocalRateLimitBackend(properties.getLocalMaximumBuckets(), longestRefill());
+        if (!"redis".equalsIgnoreCase(properties.getBackend())) {
+            return local;
+        }
+        LettuceConnectionFactory factory = redisConnectionFactory.getIfAvailable();
+        if (factory == null) {
+            throw new IllegalStateException("app.rate-limit.backend=redis requires app.redis.enabled=true");
         }
-        
-        private void cleanupExpiredWindows(long currentTime) {
-            requestWindows.entrySet().removeIf(entry -> 
-                currentTime - entry.getValue().startTime > windowSizeMs * 2);
+        if (!(factory.getNativeClient() instanceof RedisClient client)) {
+            throw new IllegalStateException("app.rate-limit.backend=redis requires a standalone Redis connection");
         }
+        redisConnection = client.connect(RedisCodec.of(StringCodec.UTF8, ByteArrayCodec.INSTANCE));
+        LettuceBasedProxyManager<String> proxyManager = LettuceBasedProxyManager.builderFor(redisConnection)
+                .withExpirationStrategy(
+                        ExpirationAfterWriteStrategy.basedOnTimeForRefillingBucketUpToMax(Duration.ofSeconds(10)))
+                .build();
+        return new RedisRateLimitBackend(proxyManager, properties.getKeyPrefix(), local);
+    }
 
-        private static class RequestWindow {
-            volatile long startTime = System.currentTimeMillis();
-            final AtomicInteger count = new AtomicInteger(0);
+    /**
+     * Time for the slowest policy to refill from empty; an idle local bucket
+     * older than this would be full again, so it can be dropped.
+     */
+    private Duration longestRefill() {
+        Duration longest = Duration.ofMinutes(1);
+        for (RateLimitProperties.Policy policy : properties.getPolicies().values()) {
+            long periods = Math.max(1, (policy.getCapacity() + policy.getRefillTokens() - 1) / policy.getRefillTokens());
+            Duration refill = policy.getRefillPeriod().multipliedBy(periods);
+            if (refill.compareTo(longest) > 0) {
+                longest = refill;
+            }
         }
+        return longest;
     }
-}
\ No newline at end of file
+}
@@ -5,37 +5,88 @@ import java.util.concurrent.ThreadPoolExecutor;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+/**
+ * Executors for background SMS and S3 work, and for streaming export
+ * responses, which Spring MVC writes off the request thread. Each export holds
+ * a database connection for its whole download, so they are capped too.
+ *
+ * With {@code spring.threads.virtual.enabled=true} (which also moves Tomcat,
+ * the default {@code @Async} executor and scheduling onto virtual threads)
+ * each task gets its own virtual thread and {@code max-concurrency} becomes a
+ * concurrency limit: submitters wait once that many tasks are running, so the
+ * downstream service sees the same load as with the pools. Otherwise these
+ * are bounded platform-thread pools that run overflow on the caller.
+ */
 @Configuration
 @EnableAsync
+@EnableScheduling
 public class AsyncConfig {
     private static final Logger log = LoggerFactory.getLogger(AsyncConfig.class);
 
+    private static final long TERMINATION_TIMEOUT_MILLIS = 60_000;
+
+    private final boolean virtualThreads;
+
+    public AsyncConfig(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
     @Bean(name = "smsExecutor")
-    public Executor smsExecutor() {
-        log.info("Initializing SMS async executor");
-        return buildExecutor("sms-async-", 5, 15, 100);
+    public Executor smsExecutor(@Value("${app.async.sms.max-concurrency:15}") int maxConcurrency) {
+        log.info("Initializing SMS async executor (virtualThreads={}, maxConcurrency={})", virtualThreads, maxConcurrency);
+        return buildExecutor("sms-async-", 5, maxConcurrency, 100);
     }
 
     @Bean(name = "s3Executor")
-    public Executor s3Executor() {
-        log.info("Initializing S3 async executor");
-        return buildExecutor("s3-async-", 3, 10, 50);
+    public Executor s3Executor(@Value("${app.async.s3.max-concurrency:10}") int maxConcurrency) {
+        log.info("Initializing S3 async executor (virtualThreads={}, maxConcurrency={})", virtualThreads, maxConcurrency);
+        return buildExecutor("s3-async-", 3, maxConcurrency, 50);
+    }
+
+    @Bean(name = "exportExecutor")
+    public AsyncTaskExecutor exportExecutor(@Value("${app.async.export.max-concurrency:4}") int maxConcurrency) {
+        log.info("Initializing export async executor (virtualThreads={}, maxConcurrency={})", virtualThreads, maxConcurrency);
+        return buildExecutor("export-async-", 1, maxConcurrency, 20);
+    }
+
+    @Bean
+    public WebMvcConfigurer exportAsyncSupportConfigurer(@Qualifier("exportExecutor") AsyncTaskExecutor exportExecutor) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+                configurer.setTaskExecutor(exportExecutor);
+            }
+        };
     }
 
-    private ThreadPoolTaskExecutor buildExecutor(String prefix, int corePoolSize, int maxPoolSize, int queueCapacity) {
+    private AsyncTaskExecutor buildExecutor(String prefix, int corePoolSize, int maxConcurrency, int queueCapacity) {
+        if (virtualThreads) {
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(prefix);
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(maxConcurrency);
+            executor.setTaskTerminationTimeout(TERMINATION_TIMEOUT_MILLIS);
+            return executor;
+        }
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(corePoolSize);
-        executor.setMaxPoolSize(maxPoolSize);
+        executor.setCorePoolSize(Math.min(corePoolSize, maxConcurrency));
+        executor.setMaxPoolSize(maxConcurrency);
         executor.setQueueCapacity(queueCapacity);
         executor.setThreadNamePrefix(prefix);
         executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
         executor.setWaitForTasksToCompleteOnShutdown(true);
-        executor.setAwaitTerminationSeconds(60);
+        executor.setAwaitTerminationMillis(TERMINATION_TIMEOUT_MILLIS);
         executor.initialize();
         return executor;
     }
@@ -0,0 +1,124 @@
+package com.cloudkitchen.rbac.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import com.cloudkitchen.rbac.cache.CacheInvalidationBus;
+import com.cloudkitchen.rbac.cache.InMemoryL2CacheStore;
+import com.cloudkitchen.rbac.cache.L2CacheStore;
+import com.cloudkitchen.rbac.cache.LocalCacheInvalidationBus;
+import com.cloudkitchen.rbac.cache.RedisCacheInvalidationBus;
+import com.cloudkitchen.rbac.cache.RedisL2CacheStore;
+import com.cloudkitchen.rbac.cache.TwoLevelCache;
+import com.cloudkitchen.rbac.cache.TwoLevelCacheManager;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Activates the {@code @Cacheable} declarations on the repositories.
+ *
+ * Every cache is a bounded Caffeine L1 with size and TTL limits; with
+ * {@code app.cache.l2.type=redis} a shared Redis tier sits behind it
+ * ({@code app.redis.enabled=true} is required), and {@code in-memory}
+ * provides a process-local stand-in for the same code path.
+ *
+ * Evictions triggered by RBAC writes reach other nodes through the
+ * {@link CacheInvalidationBus} selected by {@code app.cache.invalidation.bus}.
+ */
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheConfig.class);
+
+    private final CacheProperties properties;
+
+    public CacheConfig(CacheProperties properties) {
+        this.properties = properties;
+    }
+
+    @Bean
+    public CacheManager cacheManager(ObjectProvider<RedisConnectionFactory> redisConnectionFactory) {
+        if (!properties.isEnabled()) {
+            logger.warn("Application caching is DISABLED (app.cache.enabled=false)");
+            return new NoOpCacheManager();
+        }
+        return new TwoLevelCacheManager(properties, l2CacheStore(redisConnectionFactory));
+    }
+
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(ObjectProvider<StringRedisTemplate> redisTemplate,
+                                                     ObjectProvider<RedisMessageListenerContainer> listenerContainer,
+                                                     ObjectMapper objectMapper) {
+        CacheProperties.Invalidation invalidation = properties.getInvalidation();
+        if ("redis".equalsIgnoreCase(invalidation.getBus())) {
+            StringRedisTemplate template = redisTemplate.getIfAvailable();
+            RedisMessageListenerContainer container = listenerContainer.getIfAvailable();
+            if (template == null || container == null) {
+                throw new IllegalStateException(
+                        "app.cache.invalidation.bus=redis requires app.redis.enabled=true");
+            }
+            logger.info("Cache invalidation bus: Redis channel '{}'", invalidation.getChannel());
+            return new RedisCacheInvalidationBus(template, container, objectMapper, invalidation.getChannel());
+        }
+        logger.info("Cache invalidation bus: local (single node)");
+        return new LocalCacheInvalidationBus();
+    }
+
+    @Bean
+    public MeterBinder twoLevelCacheMetrics(CacheManager cacheManager) {
+        return registry -> {
+            if (!(cacheManager instanceof TwoLevelCacheManager twoLevel)) {
+                return;
+            }
+            for (TwoLevelCache cache : twoLevel.getCaches()) {
+                CaffeineCacheMetrics.monitor(registry, cache.getNativeCache(), cache.getName(),
+                        Tags.of("tier", "l1"));
+                if (cache.hasRemoteTier()) {
+                    FunctionCounter.builder("cache.l2.gets", cache, TwoLevelCache::getRemoteHitCount)
+                            .tag("cache", cache.getName()).tag("result", "hit")
+                            .description("Shared cache tier lookups")
+                            .register(registry);
+                    FunctionCounter.builder("cache.l2.gets", cache, TwoLevelCache::getRemoteMissCount)
+                            .tag("cache", cache.getName()).tag("result", "miss")
+                            .description("Shared cache tier lookups")
+                            .register(registry);
+                }
+            }
+        };
+    }
+
+    private L2CacheStore l2CacheStore(ObjectProvider<RedisConnectionFactory> redisConnectionFactory) {
+        String type = properties.getL2().getType();
+        if ("redis".equalsIgnoreCase(type)) {
+            RedisConnectionFactory factory = redisConnectionFactory.getIfAvailable();
+            if (factory == null) {
+                throw new IllegalStateException(
+                        "app.cache.l2.type=redis requires app.redis.enabled=true");
+            }
+            logger.info("L2 cache tier: Redis (prefix '{}')", properties.getL2().getKeyPrefix());
+            return new RedisL2CacheStore(factory, properties.getL2().getKeyPrefix());
+        }
+        if ("in-memory".equalsIgnoreCase(type)) {
+            logger.info("L2 cache tier: in-memory stand-in");
+            return new InMemoryL2CacheStore();
+        }
+        logger.info("L2 cache tier disabled; caches are local to this node");
+        return null;
+    }
+}
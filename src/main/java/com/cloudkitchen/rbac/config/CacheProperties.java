@@ -0,0 +1,209 @@
+package com.cloudkitchen.rbac.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the two-tier application cache.
+ *
+ * Each cache gets a bounded in-process tier (L1). When {@code l2.type} is
+ * {@code redis} or {@code in-memory}, caches with {@code l2-enabled=true}
+ * are also backed by the shared store (L2).
+ *
+ * Per-cache overrides use bracket notation to keep the cache name intact:
+ * {@code app.cache.caches[loginUserData].ttl=5m}
+ */
+@ConfigurationProperties(prefix = "app.cache")
+public class CacheProperties {
+
+    /**
+     * Whether caching is enabled at all. When false every lookup hits the database.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Spec applied to caches without an explicit entry in {@link #caches}.
+     */
+    private Spec defaults = new Spec();
+
+    private Map<String, Spec> caches = new LinkedHashMap<>();
+
+    private L2 l2 = new L2();
+
+    private Invalidation invalidation = new Invalidation();
+
+    public Spec specFor(String cacheName) {
+        return caches.getOrDefault(cacheName, defaults);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Spec getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Spec defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Spec> getCaches() {
+        return caches;
+    }
+
+    public void setCaches(Map<String, Spec> caches) {
+        this.caches = caches;
+    }
+
+    public L2 getL2() {
+        return l2;
+    }
+
+    public void setL2(L2 l2) {
+        this.l2 = l2;
+    }
+
+    public Invalidation getInvalidation() {
+        return invalidation;
+    }
+
+    public void setInvalidation(Invalidation invalidation) {
+        this.invalidation = invalidation;
+    }
+
+    public static class Spec {
+
+        /**
+         * Maximum number of L1 entries before size-based eviction kicks in.
+         */
+        private long maximumSize = 10_000;
+
+        /**
+         * Time-to-live after write, applied to both tiers.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+
+        /**
+         * Whether this cache is backed by the shared L2 store. Only enable for
+         * caches whose values are Serializable and safe to share across nodes.
+         */
+        private boolean l2Enabled = true;
+
+        /**
+         * Whether null results (e.g. empty Optional lookups) are cached.
+         */
+        private boolean cacheNullValues = false;
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public boolean isL2Enabled() {
+            return l2Enabled;
+        }
+
+        public void setL2Enabled(boolean l2Enabled) {
+            this.l2Enabled = l2Enabled;
+        }
+
+        public boolean isCacheNullValues() {
+            return cacheNullValues;
+        }
+
+        public void setCacheNullValues(boolean cacheNullValues) {
+            this.cacheNullValues = cacheNullValues;
+        }
+    }
+
+    public static class L2 {
+
+        /**
+         * Shared store type: none, redis or in-memory.
+         */
+        private String type = "none";
+
+        /**
+         * Prefix for every key written to the shared store.
+         */
+        private String keyPrefix = "rbac:cache:";
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public String getKeyPrefix() {
+            return keyPrefix;
+        }
+
+        public void setKeyPrefix(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+        }
+    }
+
+    public static class Invalidation {
+
+        /**
+         * How evictions reach other nodes: local (single node) or redis (pub/sub).
+         */
+        private String bus = "local";
+
+        /**
+         * Pub/sub channel used by the redis bus.
+         */
+        private String channel = "rbac:cache:invalidation";
+
+        /**
+         * Role changes affecting more assignments than this clear the user-scoped
+         * caches instead of evicting keys one by one.
+         */
+        private int fanOutLimit = 5_000;
+
+        public String getBus() {
+            return bus;
+        }
+
+        public void setBus(String bus) {
+            this.bus = bus;
+        }
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+
+        public int getFanOutLimit() {
+            return fanOutLimit;
+        }
+
+        public void setFanOutLimit(int fanOutLimit) {
+            this.fanOutLimit = fanOutLimit;
+        }
+    }
+}
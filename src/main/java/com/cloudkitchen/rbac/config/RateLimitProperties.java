@@ -0,0 +1,162 @@
+package com.cloudkitchen.rbac.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for the token-bucket rate limiter.
+ *
+ * Each policy names the request paths (Spring path patterns) it covers, an
+ * optional set of HTTP methods, its bucket capacity and refill rate, and
+ * whether buckets are keyed by client IP or by authenticated user:
+ * {@code app.rate-limit.policies.login.capacity=10}
+ *
+ * With {@code backend=redis} bucket state lives in Redis so that all nodes
+ * share one budget per key ({@code app.redis.enabled=true} is required).
+ */
+@ConfigurationProperties(prefix = "app.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * Whether rate limiting is applied at all.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Where bucket state is kept: local (per node) or redis (shared).
+     */
+    private String backend = "local";
+
+    /**
+     * Redis key prefix for distributed buckets.
+     */
+    private String keyPrefix = "rbac:rl:";
+
+    /**
+     * Upper bound on buckets held by the local backend; idle buckets are
+     * evicted first.
+     */
+    private long localMaximumBuckets = 100_000;
+
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public String getBackend() {
+        return backend;
+    }
+
+    public void setBackend(String backend) {
+        this.backend = backend;
+    }
+
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    public void setKeyPrefix(String keyPrefix) {
+        this.keyPrefix = keyPrefix;
+    }
+
+    public long getLocalMaximumBuckets() {
+        return localMaximumBuckets;
+    }
+
+    public void setLocalMaximumBuckets(long localMaximumBuckets) {
+        this.localMaximumBuckets = localMaximumBuckets;
+    }
+
+    public Map<String, Policy> getPolicies() {
+        return policies;
+    }
+
+    public void setPolicies(Map<String, Policy> policies) {
+        this.policies = policies;
+    }
+
+    public static class Policy {
+
+        private List<String> paths = new ArrayList<>();
+
+        /**
+         * HTTP methods the policy applies to; empty means all.
+         */
+        private List<String> methods = new ArrayList<>();
+
+        /**
+         * Maximum burst size.
+         */
+        private long capacity = 10;
+
+        /**
+         * Tokens added per refill period; defaults to the capacity.
+         */
+        private Long refillTokens;
+
+        private Duration refillPeriod = Duration.ofMinutes(1);
+
+        /**
+         * Bucket key: ip or user (falls back to ip for anonymous requests).
+         */
+        private String keyBy = "ip";
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public List<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(List<String> methods) {
+            this.methods = methods;
+        }
+
+        public long getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(long capacity) {
+            this.capacity = capacity;
+        }
+
+        public long getRefillTokens() {
+            return refillTokens != null ? refillTokens : capacity;
+        }
+
+        public void setRefillTokens(Long refillTokens) {
+            this.refillTokens = refillTokens;
+        }
+
+        public Duration getRefillPeriod() {
+            return refillPeriod;
+        }
+
+        public void setRefillPeriod(Duration refillPeriod) {
+            this.refillPeriod = refillPeriod;
+        }
+
+        public String getKeyBy() {
+            return keyBy;
+        }
+
+        public void setKeyBy(String keyBy) {
+            this.keyBy = keyBy;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.cloudkitchen.rbac.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Redis connectivity for the features that can share state across nodes.
+ *
+ * Spring Boot's Redis auto-configuration stays excluded so single-node
+ * deployments never open a Redis connection. Setting {@code app.redis.enabled=true}
+ * creates the connection factory from the standard {@code spring.data.redis.*}
+ * properties.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.redis", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(RedisProperties.class)
+public class RedisConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisConfig.class);
+
+    @Bean
+    public LettuceConnectionFactory redisConnectionFactory(RedisProperties properties) {
+        RedisStandaloneConfiguration standalone = new RedisStandaloneConfiguration(
+                properties.getHost(), properties.getPort());
+        standalone.setDatabase(properties.getDatabase());
+        if (properties.getUsername() != null) {
+            standalone.setUsername(properties.getUsername());
+        }
+        if (properties.getPassword() != null) {
+            standalone.setPassword(RedisPassword.of(properties.getPassword()));
+        }
+
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder client = LettuceClientConfiguration.builder();
+        if (properties.getTimeout() != null) {
+            client.commandTimeout(properties.getTimeout());
+        }
+        if (properties.getSsl().isEnabled()) {
+            client.useSsl();
+        }
+
+        logger.info("Redis connection configured for {}:{} (database {})",
+                properties.getHost(), properties.getPort(), properties.getDatabase());
+        return new LettuceConnectionFactory(standalone, client.build());
+    }
+
+    @Bean
+    public StringRedisTemplate stringRedisTemplate(LettuceConnectionFactory redisConnectionFactory) {
+        return new StringRedisTemplate(redisConnectionFactory);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(LettuceConnectionFactory redisConnectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        return container;
+    }
+}
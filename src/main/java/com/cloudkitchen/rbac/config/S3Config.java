@@ -14,8 +14,8 @@ import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
 import software.amazon.awssdk.core.retry.RetryPolicy;
 import software.amazon.awssdk.regions.Region;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3AsyncClientBuilder;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 @Configuration
@@ -49,13 +49,13 @@ public class S3Config {
     }
     
     @Bean
-    public S3Client s3Client() {
+    public S3AsyncClient s3AsyncClient() {
         AwsBasicCredentials credentials = AwsBasicCredentials.create(
             properties.getAccessKey(),
             properties.getSecretKey()
         );
 
-        S3ClientBuilder builder = S3Client.builder()
+        S3AsyncClientBuilder builder = S3AsyncClient.builder()
             .region(Region.of(properties.getRegion()))
             .credentialsProvider(StaticCredentialsProvider.create(credentials))
             .overrideConfiguration(ClientOverrideConfiguration.builder()
@@ -69,9 +69,8 @@ public class S3Config {
             logger.info("S3 endpoint override: {}", properties.getEndpoint());
         }
 
-        S3Client client = builder.build();
-        logger.info("S3Client initialized for region: {} (errors will be handled on first use)", properties.getRegion());
-
-        return client;
+        logger.info("S3AsyncClient initialized for region: {}, max in-flight requests: {}",
+            properties.getRegion(), properties.getMaxInFlightRequests());
+        return builder.build();
     }
 }
@@ -1,6 +1,9 @@
 package com.cloudkitchen.rbac.config;
 
+import java.time.Duration;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 import org.springframework.validation.annotation.Validated;
 import jakarta.validation.constraints.NotBlank;
 
@@ -22,6 +25,19 @@ public class S3Properties {
 
     private String endpoint;
 
+    // Concurrent requests through the async client (folder provisioning)
+    private int maxInFlightRequests = 50;
+
+    // Streaming uploads: part size, parts of direct memory shared by all uploads, wait for free memory
+    private DataSize uploadPartSize = DataSize.ofMegabytes(5);
+    private int uploadBuffers = 8;
+    private Duration uploadBufferWait = Duration.ofSeconds(5);
+
+    // Presigned GET URLs: signature lifetime, and how long a signed URL is reused (must be shorter)
+    private Duration presignedUrlDuration = Duration.ofHours(24);
+    private Duration presignedUrlCacheTtl = Duration.ofHours(12);
+    private long presignedUrlCacheMaximumSize = 10_000;
+
     public String getAccessKey() {
         return accessKey;
     }
@@ -61,4 +77,60 @@ public class S3Properties {
     public void setEndpoint(String endpoint) {
         this.endpoint = endpoint;
     }
+
+    public int getMaxInFlightRequests() {
+        return maxInFlightRequests;
+    }
+
+    public void setMaxInFlightRequests(int maxInFlightRequests) {
+        this.maxInFlightRequests = maxInFlightRequests;
+    }
+
+    public DataSize getUploadPartSize() {
+        return uploadPartSize;
+    }
+
+    public void setUploadPartSize(DataSize uploadPartSize) {
+        this.uploadPartSize = uploadPartSize;
+    }
+
+    public int getUploadBuffers() {
+        return uploadBuffers;
+    }
+
+    public void setUploadBuffers(int uploadBuffers) {
+        this.uploadBuffers = uploadBuffers;
+    }
+
+    public Duration getUploadBufferWait() {
+        return uploadBufferWait;
+    }
+
+    public void setUploadBufferWait(Duration uploadBufferWait) {
+        this.uploadBufferWait = uploadBufferWait;
+    }
+
+    public Duration getPresignedUrlDuration() {
+        return presignedUrlDuration;
+    }
+
+    public void setPresignedUrlDuration(Duration presignedUrlDuration) {
+        this.presignedUrlDuration = presignedUrlDuration;
+    }
+
+    public Duration getPresignedUrlCacheTtl() {
+        return presignedUrlCacheTtl;
+    }
+
+    public void setPresignedUrlCacheTtl(Duration presignedUrlCacheTtl) {
+        this.presignedUrlCacheTtl = presignedUrlCacheTtl;
+    }
+
+    public long getPresignedUrlCacheMaximumSize() {
+        return presignedUrlCacheMaximumSize;
+    }
+
+    public void setPresignedUrlCacheMaximumSize(long presignedUrlCacheMaximumSize) {
+        this.presignedUrlCacheMaximumSize = presignedUrlCacheMaximumSize;
+    }
 }
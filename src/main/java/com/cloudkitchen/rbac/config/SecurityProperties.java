@@ -1,5 +1,7 @@
 package com.cloudkitchen.rbac.config;
 
+import java.time.Duration;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.context.properties.ConfigurationProperties;
@@ -37,6 +39,11 @@ public class SecurityProperties {
      */
     private boolean hashOtp = false;
 
+    /**
+     * HMAC key for hashed OTPs; random per process if unset
+     */
+    private String otpHashKey;
+
     /**
      * Maximum login attempts before account lockout
      * Default: 5
@@ -49,6 +56,22 @@ public class SecurityProperties {
      */
     private int lockoutDurationMinutes = 30;
 
+    /**
+     * How often buffered last-login updates are written to users
+     * Default: 2s
+     */
+    private Duration lastLoginFlushInterval = Duration.ofSeconds(2);
+
+    /**
+     * Where revoked token ids are kept
+     */
+    private final TokenBlacklist tokenBlacklist = new TokenBlacklist();
+
+    /**
+     * Pool that runs BCrypt off the request threads
+     */
+    private final PasswordHashing passwordHashing = new PasswordHashing();
+
     @PostConstruct
     public void init() {
         if ("dev".equalsIgnoreCase(environment) && !hashOtp) {
@@ -97,6 +120,14 @@ public class SecurityProperties {
         this.hashOtp = hashOtp;
     }
 
+    public String getOtpHashKey() {
+        return otpHashKey;
+    }
+
+    public void setOtpHashKey(String otpHashKey) {
+        this.otpHashKey = otpHashKey;
+    }
+
     public int getMaxLoginAttempts() {
         return maxLoginAttempts;
     }
@@ -113,6 +144,22 @@ public class SecurityProperties {
         this.lockoutDurationMinutes = lockoutDurationMinutes;
     }
 
+    public Duration getLastLoginFlushInterval() {
+        return lastLoginFlushInterval;
+    }
+
+    public void setLastLoginFlushInterval(Duration lastLoginFlushInterval) {
+        this.lastLoginFlushInterval = lastLoginFlushInterval;
+    }
+
+    public TokenBlacklist getTokenBlacklist() {
+        return tokenBlacklist;
+    }
+
+    public PasswordHashing getPasswordHashing() {
+        return passwordHashing;
+    }
+
     /**
      * Check if application is running in development mode
      */
@@ -126,4 +173,149 @@ public class SecurityProperties {
     public boolean isProductionMode() {
         return "prod".equalsIgnoreCase(environment);
     }
+
+    /**
+     * Token revocation store settings.
+     * 'memory' keeps revoked ids on this node only; 'redis' shares them across
+     * nodes and fronts Redis with a local Bloom filter.
+     */
+    public static class TokenBlacklist {
+
+        private String store = "memory";
+        private String keyPrefix = "rbac:revoked:";
+        private String channel = "rbac:token-blacklist";
+        private long expectedInsertions = 100_000;
+        private double falsePositiveRate = 0.01;
+        private Duration rebuildInterval = Duration.ofMinutes(5);
+
+        public String getStore() {
+            return store;
+        }
+
+        public void setStore(String store) {
+            this.store = store;
+        }
+
+        public String getKeyPrefix() {
+            return keyPrefix;
+        }
+
+        public void setKeyPrefix(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+        }
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+
+        public long getExpectedInsertions() {
+            return expectedInsertions;
+        }
+
+        public void setExpectedInsertions(long expectedInsertions) {
+            this.expectedInsertions = expectedInsertions;
+        }
+
+        public double getFalsePositiveRate() {
+            return falsePositiveRate;
+        }
+
+        public void setFalsePositiveRate(double falsePositiveRate) {
+            this.falsePositiveRate = falsePositiveRate;
+        }
+
+        public Duration getRebuildInterval() {
+            return rebuildInterval;
+        }
+
+        public void setRebuildInterval(Duration rebuildInterval) {
+            this.rebuildInterval = rebuildInterval;
+        }
+    }
+
+    /**
+     * Password hashing settings.
+     * New hashes use 'algorithm' (bcrypt, pbkdf2 or argon2); older hashes are
+     * still accepted and rewritten on the next successful login.
+     * 'threads' of 0 means one per available processor; requests that find
+     * the queue full, or wait longer than 'maxWait', are rejected with 503.
+     * Successful checks are remembered for 'verifiedCacheTtl' (0 disables).
+     */
+    public static class PasswordHashing {
+
+        private String algorithm = "bcrypt";
+        private int bcryptStrength = 12;
+        private int threads = 0;
+        private int queueCapacity = 64;
+        private Duration maxWait = Duration.ofSeconds(2);
+        private Duration verifiedCacheTtl = Duration.ofSeconds(30);
+        private long verifiedCacheMaximumSize = 10_000;
+
+        public String getAlgorithm() {
+            return algorithm;
+        }
+
+        public void setAlgorithm(String algorithm) {
+            this.algorithm = algorithm;
+        }
+
+        public int getBcryptStrength() {
+            return bcryptStrength;
+        }
+
+        public void setBcryptStrength(int bcryptStrength) {
+            this.bcryptStrength = bcryptStrength;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        public Duration getVerifiedCacheTtl() {
+            return verifiedCacheTtl;
+        }
+
+        public void setVerifiedCacheTtl(Duration verifiedCacheTtl) {
+            this.verifiedCacheTtl = verifiedCacheTtl;
+        }
+
+        public long getVerifiedCacheMaximumSize() {
+            return verifiedCacheMaximumSize;
+        }
+
+        public void setVerifiedCacheMaximumSize(long verifiedCacheMaximumSize) {
+            this.verifiedCacheMaximumSize = verifiedCacheMaximumSize;
+        }
+
+        /**
+         * Effective pool size.
+         */
+        public int resolveThreads() {
+            return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        }
+    }
 }
@@ -0,0 +1,26 @@
+package com.cloudkitchen.rbac.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.cloudkitchen.rbac.sms.SmsProvider;
+import com.cloudkitchen.rbac.sms.StubSmsProvider;
+
+@Configuration
+@EnableConfigurationProperties(SmsProperties.class)
+public class SmsConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(SmsConfig.class);
+
+    @Bean
+    @ConditionalOnProperty(name = "app.sms.provider", havingValue = "stub", matchIfMissing = true)
+    public SmsProvider stubSmsProvider(SmsProperties properties) {
+        SmsProperties.Stub stub = properties.getStub();
+        logger.info("Using stub SMS provider (latency={}, failureRate={})", stub.getLatency(), stub.getFailureRate());
+        return new StubSmsProvider(stub);
+    }
+}
@@ -0,0 +1,143 @@
+package com.cloudkitchen.rbac.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Outbound SMS pipeline: provider selection, outbox size, retry and circuit
+ * breaker settings.
+ */
+@ConfigurationProperties(prefix = "app.sms")
+public class SmsProperties {
+
+    /**
+     * SMS gateway: stub (logs messages, for local use and testing)
+     */
+    private String provider = "stub";
+
+    /**
+     * Messages that may wait in the outbox; OTP requests beyond this get 503
+     */
+    private int outboxCapacity = 10_000;
+
+    /**
+     * Messages handed to the provider in one call
+     */
+    private int batchSize = 50;
+
+    private final Retry retry = new Retry();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+    private final Stub stub = new Stub();
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public void setProvider(String provider) {
+        this.provider = provider;
+    }
+
+    public int getOutboxCapacity() {
+        return outboxCapacity;
+    }
+
+    public void setOutboxCapacity(int outboxCapacity) {
+        this.outboxCapacity = outboxCapacity;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Retry getRetry() {
+        return retry;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public Stub getStub() {
+        return stub;
+    }
+
+    public static class Retry {
+
+        private int maxAttempts = 5;
+        private Duration initialBackoff = Duration.ofMillis(500);
+        private Duration maxBackoff = Duration.ofSeconds(30);
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+    }
+
+    public static class CircuitBreaker {
+
+        private int failureThreshold = 5;
+        private Duration openDuration = Duration.ofSeconds(30);
+
+        public int getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        public void setFailureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        public Duration getOpenDuration() {
+            return openDuration;
+        }
+
+        public void setOpenDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+        }
+    }
+
+    public static class Stub {
+
+        private Duration latency = Duration.ZERO;
+        private double failureRate = 0.0;
+
+        public Duration getLatency() {
+            return latency;
+        }
+
+        public void setLatency(Duration latency) {
+            this.latency = latency;
+        }
+
+        public double getFailureRate() {
+            return failureRate;
+        }
+
+        public void setFailureRate(double failureRate) {
+            this.failureRate = failureRate;
+        }
+    }
+}
@@ -71,4 +71,10 @@ public final class AppConstants {
         public static final String WHITESPACE_PATTERN = "^\\s+|\\s+$";
         public static final String EMPTY_OR_WHITESPACE_PATTERN = "^\\s*$";
     }
+
+    // Bulk Export
+    public static class Export {
+        // Rows per JDBC round trip, also the number of rows mapped and written per chunk
+        public static final String FETCH_SIZE = "500";
+    }
 }
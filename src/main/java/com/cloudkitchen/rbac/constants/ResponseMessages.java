@@ -86,9 +86,14 @@ public final class ResponseMessages {
         public static final String ACCESS_DENIED_VIEW = "Access denied. Customers can only view their own profile.";
         public static final String ACCESS_DENIED_LIST = "Access denied. Only merchants and admins can view customer lists.";
         public static final String ACCESS_DENIED_MERCHANT_CUSTOMERS = "Access denied. Customers cannot view other customers. Merchants can only view their own customers.";
+        public static final String ACCESS_DENIED_IMPORT = "Access denied. Merchants can only import their own customers.";
         public static final String UPDATE_FAILED = "Failed to update customer";
         public static final String RETRIEVE_FAILED = "Failed to retrieve customers";
         public static final String PROFILE_INCOMPLETE = "Please complete your profile";
+        public static final String IMPORT_SUCCESS = "Customer import completed";
+        public static final String IMPORT_ABORTED = "Customer import stopped before the end of the upload";
+        public static final String IMPORT_MERCHANT_REQUIRED = "merchantId is required";
+        public static final String IMPORT_READ_FAILED = "Failed to read import data";
     }
     
     // User Messages
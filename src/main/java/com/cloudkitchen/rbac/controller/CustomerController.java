@@ -1,15 +1,22 @@
 package com.cloudkitchen.rbac.controller;
+
+import java.io.InputStream;
+
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.cloudkitchen.rbac.dto.customer.CustomerUpdateRequest;
 import com.cloudkitchen.rbac.service.CustomerService;
@@ -65,6 +72,8 @@ public class CustomerController {
 
     /**
      * List customers with pagination, optional status filter, and search.
+     * Passing {@code cursor} (empty for the first page) switches to cursor
+     * pagination, which ignores {@code page}.
      */
     @GetMapping
     public ResponseEntity<Object> getAllCustomers(
@@ -72,8 +81,10 @@ public class CustomerController {
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
             Authentication authentication) {
-        return customerService.getAllCustomersResponse(page, size, status, search, authentication);
+        return customerService.getAllCustomersResponse(page, size, status, search, cursor, includeTotal, authentication);
     }
 
     /**
@@ -95,15 +106,44 @@ public class CustomerController {
     }
     
     /**
-     * List customers for a given merchant with pagination.
+     * List customers for a given merchant with pagination, or with cursor
+     * pagination when {@code cursor} is passed.
      */
     @GetMapping("/merchant/{merchantId}")
     public ResponseEntity<Object> getCustomersByMerchantId(
             @PathVariable Integer merchantId,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            Authentication authentication) {
+        return customerService.getCustomersByMerchantIdResponse(merchantId, page, size, cursor, includeTotal, authentication);
+    }
+
+    /**
+     * Download active customers as NDJSON (default) or CSV. Admins may pass
+     * {@code merchantId} to export one merchant; merchants get their own.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportCustomers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) Integer merchantId,
+            Authentication authentication) {
+        return customerService.exportCustomersResponse(format, merchantId, authentication);
+    }
+
+    /**
+     * Bulk-create customers from an NDJSON or CSV request body (chosen by
+     * Content-Type). Admins pass {@code merchantId}; merchants import into
+     * their own account. Returns per-row counts and errors.
+     */
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<Object> importCustomers(
+            @RequestParam(required = false) Integer merchantId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body,
             Authentication authentication) {
-        return customerService.getCustomersByMerchantIdResponse(merchantId, page, size, authentication);
+        return customerService.importCustomersResponse(merchantId, contentType, body, authentication);
     }
 
     /**
@@ -83,6 +83,8 @@ public class MerchantController {
 
     /**
      * List merchants with pagination, sorting, and optional filters.
+     * Passing {@code cursor} (empty for the first page) switches to cursor
+     * pagination, which ignores {@code page}.
      */
     @GetMapping
     public ResponseEntity<Map<String, Object>> getAllMerchants(
@@ -92,8 +94,10 @@ public class MerchantController {
             @RequestParam(defaultValue = "asc") String sortDirection,
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
             Authentication authentication) {
-        return merchantService.getAllMerchantsResponse(page, size, sortBy, sortDirection, status, search, authentication);
+        return merchantService.getAllMerchantsResponse(page, size, sortBy, sortDirection, status, search, cursor, includeTotal, authentication);
     }
 
     /**
@@ -9,6 +9,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.cloudkitchen.rbac.service.UserService;
 
@@ -38,6 +39,8 @@ public class UserController {
 
     /**
      * List users with pagination, optional filters, and search.
+     * Passing {@code cursor} (empty for the first page) switches to cursor
+     * pagination, which ignores {@code page}.
      */
     @GetMapping
     public ResponseEntity<Map<String, Object>> getAllUsers(
@@ -47,8 +50,21 @@ public class UserController {
             @RequestParam(defaultValue = "asc") String sortDirection,
             @RequestParam(required = false) String role,
             @RequestParam(required = false) String search,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
             Authentication authentication) {
-        return userService.getAllUsersResponse(page, size, sortBy, sortDirection, role, search, authentication);
+        return userService.getAllUsersResponse(page, size, sortBy, sortDirection, role, search, cursor, includeTotal, authentication);
+    }
+
+    /**
+     * Download all users, optionally filtered by role, as NDJSON (default) or CSV.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) String role,
+            Authentication authentication) {
+        return userService.exportUsersResponse(format, role, authentication);
     }
 
     /**
@@ -1,9 +1,11 @@
 package com.cloudkitchen.rbac.domain.entity;
 
+import com.cloudkitchen.rbac.cache.RbacEntityListener;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(RbacEntityListener.class)
 @Table(name = "roles")
 public class Role {
 
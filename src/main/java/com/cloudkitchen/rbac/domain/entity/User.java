@@ -4,8 +4,11 @@ import java.time.LocalDateTime;
 
 import org.hibernate.annotations.Check;
 
+import com.cloudkitchen.rbac.cache.RbacEntityListener;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -17,6 +20,7 @@ import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
 
 @Entity
+@EntityListeners(RbacEntityListener.class)
 @Table(name = "users",
     indexes = {
         @Index(name = "idx_users_merchant_id", columnList = "merchant_id"),
@@ -28,7 +32,6 @@ import jakarta.persistence.UniqueConstraint;
         @Index(name = "idx_users_merchant_phone", columnList = "merchant_id, phone"),
         @Index(name = "idx_users_merchant_email", columnList = "merchant_id, email"),
         @Index(name = "idx_users_is_guest", columnList = "is_guest"),
-        @Index(name = "idx_users_otp_expires", columnList = "otp_expires_at"),
         @Index(name = "idx_users_phone_verified", columnList = "phone_verified")
     },
     uniqueConstraints = {
@@ -113,20 +116,9 @@ public class User {
     @Column(name = "email_verified_at")
     private LocalDateTime emailVerifiedAt;
     
-    @Column(name = "otp_code", length = 4)
-    private String otpCode;
-
-    @Column(name = "otp_expires_at")
-    private LocalDateTime otpExpiresAt;
-
-    @Column(name = "otp_attempts")
-    private Integer otpAttempts = 0;
-
+    // OTP challenges live in OtpStore; only the (rarely set) block is kept here
     @Column(name = "otp_blocked_until")
     private LocalDateTime otpBlockedUntil;
-    
-    @Column(name = "otp_used")
-    private Boolean otpUsed = false;
 
     // Guest user
     @Column(name = "is_guest")
@@ -135,6 +127,11 @@ public class User {
     @Column(name = "guest_converted_at")
     private LocalDateTime guestConvertedAt;
 
+    // Revocation epoch: tokens carrying an older value are rejected.
+    // Only changed through UserRepository.incrementTokenEpoch so entity saves cannot roll it back.
+    @Column(name = "token_epoch", nullable = false, updatable = false, columnDefinition = "INTEGER DEFAULT 0")
+    private Integer tokenEpoch = 0;
+
     // Track last login method used (not a preference/restriction)
     @Column(name = "preferred_login_method", length = 20)
     @Check(constraints = "preferred_login_method IN ('password', 'otp', 'both')")
@@ -228,20 +225,8 @@ public class User {
     public LocalDateTime getEmailVerifiedAt() { return emailVerifiedAt; }
     public void setEmailVerifiedAt(LocalDateTime emailVerifiedAt) { this.emailVerifiedAt = emailVerifiedAt; }
 
-    public String getOtpCode() { return otpCode; }
-    public void setOtpCode(String otpCode) { this.otpCode = otpCode; }
-
-    public LocalDateTime getOtpExpiresAt() { return otpExpiresAt; }
-    public void setOtpExpiresAt(LocalDateTime otpExpiresAt) { this.otpExpiresAt = otpExpiresAt; }
-
-    public Integer getOtpAttempts() { return otpAttempts; }
-    public void setOtpAttempts(Integer otpAttempts) { this.otpAttempts = otpAttempts; }
-
     public LocalDateTime getOtpBlockedUntil() { return otpBlockedUntil; }
     public void setOtpBlockedUntil(LocalDateTime otpBlockedUntil) { this.otpBlockedUntil = otpBlockedUntil; }
-    
-    public Boolean getOtpUsed() { return otpUsed; }
-    public void setOtpUsed(Boolean otpUsed) { this.otpUsed = otpUsed; }
 
     public Boolean getGuest() { return guest; }
     public void setGuest(Boolean guest) { this.guest = guest; }
@@ -249,6 +234,9 @@ public class User {
     public LocalDateTime getGuestConvertedAt() { return guestConvertedAt; }
     public void setGuestConvertedAt(LocalDateTime guestConvertedAt) { this.guestConvertedAt = guestConvertedAt; }
 
+    public Integer getTokenEpoch() { return tokenEpoch; }
+    public void setTokenEpoch(Integer tokenEpoch) { this.tokenEpoch = tokenEpoch; }
+
     public String getPreferredLoginMethod() { return preferredLoginMethod; }
     public void setPreferredLoginMethod(String preferredLoginMethod) { this.preferredLoginMethod = preferredLoginMethod; }
 
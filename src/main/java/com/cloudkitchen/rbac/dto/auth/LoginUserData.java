@@ -1,29 +1,42 @@
 package com.cloudkitchen.rbac.dto.auth;
 
-public class LoginUserData {
+import java.io.Serializable;
+
+/**
+ * Everything a password login needs, read in one query by
+ * {@code UserRepository.findLoginUserData}/{@code findAdminLoginUserData}.
+ * {@code roleIds} holds the ids of the roles in the login's merchant scope as
+ * a comma-separated list; names and permissions come from the permission graph.
+ */
+public class LoginUserData implements Serializable {
+    private static final long serialVersionUID = 2L;
+
     private Integer userId;
     private String phone;
     private String passwordHash;
     private String userType;
     private Integer merchantId;
     private Integer customerId;
-    private String roles;
-    private String permissions;
+    private String firstName;
+    private String customerFirstName;
     private Boolean active;
+    private String roleIds;
 
     public LoginUserData() {}
 
-    public LoginUserData(Integer userId, String phone, String passwordHash, String userType, 
-                        Integer merchantId, Integer customerId, String roles, String permissions, Boolean active) {
+    public LoginUserData(Integer userId, String phone, String passwordHash, String userType,
+                        Integer merchantId, Integer customerId, String firstName, String customerFirstName,
+                        Boolean active, String roleIds) {
         this.userId = userId;
         this.phone = phone;
         this.passwordHash = passwordHash;
         this.userType = userType;
         this.merchantId = merchantId;
         this.customerId = customerId;
-        this.roles = roles;
-        this.permissions = permissions;
+        this.firstName = firstName;
+        this.customerFirstName = customerFirstName;
         this.active = active;
+        this.roleIds = roleIds;
     }
 
     // Getters and setters
@@ -45,12 +58,15 @@ public class LoginUserData {
     public Integer getCustomerId() { return customerId; }
     public void setCustomerId(Integer customerId) { this.customerId = customerId; }
 
-    public String getRoles() { return roles; }
-    public void setRoles(String roles) { this.roles = roles; }
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
 
-    public String getPermissions() { return permissions; }
-    public void setPermissions(String permissions) { this.permissions = permissions; }
+    public String getCustomerFirstName() { return customerFirstName; }
+    public void setCustomerFirstName(String customerFirstName) { this.customerFirstName = customerFirstName; }
 
     public Boolean getActive() { return active; }
     public void setActive(Boolean active) { this.active = active; }
-}
\ No newline at end of file
+
+    public String getRoleIds() { return roleIds; }
+    public void setRoleIds(String roleIds) { this.roleIds = roleIds; }
+}
@@ -0,0 +1,80 @@
+package com.cloudkitchen.rbac.dto.common;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Keyset pagination response wrapper for list endpoints. Pass
+ * {@code nextCursor} back as {@code cursor} to read the next page.
+ * {@code totalElements} is only present when requested, and is a lower bound
+ * when {@code totalElementsCapped} is true.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPageResponse<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+    private Long totalElements;
+    private Boolean totalElementsCapped;
+
+    public CursorPageResponse() {
+    }
+
+    public CursorPageResponse(List<T> content, int size, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = nextCursor != null;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<T> getContent() {
+        return content;
+    }
+
+    public void setContent(List<T> content) {
+        this.content = content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public Long getTotalElements() {
+        return totalElements;
+    }
+
+    public void setTotalElements(Long totalElements) {
+        this.totalElements = totalElements;
+    }
+
+    public Boolean getTotalElementsCapped() {
+        return totalElementsCapped;
+    }
+
+    public void setTotalElementsCapped(Boolean totalElementsCapped) {
+        this.totalElementsCapped = totalElementsCapped;
+    }
+}
@@ -0,0 +1,56 @@
+package com.cloudkitchen.rbac.dto.common;
+
+import java.util.Locale;
+
+import org.springframework.http.MediaType;
+
+/**
+ * Formats for bulk export downloads and bulk import uploads.
+ */
+public enum ExportFormat {
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+    CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    ExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code format} is not a supported format
+     */
+    public static ExportFormat from(String format) {
+        if (format == null || format.trim().isEmpty()) {
+            return NDJSON;
+        }
+        for (ExportFormat value : values()) {
+            if (value.extension.equals(format.trim().toLowerCase(Locale.ROOT))) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Invalid format. Valid formats are: ndjson, csv");
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code contentType} is not a supported format
+     */
+    public static ExportFormat from(MediaType contentType) {
+        for (ExportFormat value : values()) {
+            if (value.mediaType.isCompatibleWith(contentType)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported content type. Use application/x-ndjson or text/csv");
+    }
+}
@@ -0,0 +1,51 @@
+package com.cloudkitchen.rbac.dto.common;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Base64;
+
+/**
+ * Position after the last row of a keyset page: the sort the page was read
+ * with, that row's sort value and its id. Clients only see it as an opaque
+ * URL-safe string and pass it back unchanged to get the next page.
+ */
+public record PageCursor(String sortBy, String sortDirection, String sortValue, Integer id) {
+
+    private static final int VERSION = 1;
+
+    public String encode() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(VERSION);
+            out.writeUTF(sortBy);
+            out.writeUTF(sortDirection);
+            out.writeUTF(sortValue);
+            out.writeInt(id);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode page cursor", e);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code cursor} was not produced by {@link #encode()}
+     */
+    public static PageCursor decode(String cursor) {
+        try (DataInputStream in = new DataInputStream(
+                new ByteArrayInputStream(Base64.getUrlDecoder().decode(cursor)))) {
+            if (in.readByte() != VERSION) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            PageCursor decoded = new PageCursor(in.readUTF(), in.readUTF(), in.readUTF(), in.readInt());
+            if (in.read() != -1) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return decoded;
+        } catch (IOException | IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -8,6 +8,8 @@ public class PageRequest {
     private int size = 20;
     private String sortBy;
     private String sortDirection = "asc"; // asc or desc
+    private String cursor; // keyset mode when set; "" requests the first page
+    private boolean includeTotal;
 
     public PageRequest() {
     }
@@ -58,6 +60,29 @@ public class PageRequest {
         }
     }
 
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public boolean isIncludeTotal() {
+        return includeTotal;
+    }
+
+    public void setIncludeTotal(boolean includeTotal) {
+        this.includeTotal = includeTotal;
+    }
+
+    /**
+     * Whether the caller asked for cursor (keyset) pagination instead of page numbers.
+     */
+    public boolean isKeyset() {
+        return cursor != null;
+    }
+
     public int getOffset() {
         return page * size;
     }
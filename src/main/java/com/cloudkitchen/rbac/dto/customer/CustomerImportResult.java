@@ -0,0 +1,88 @@
+package com.cloudkitchen.rbac.dto.customer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a bulk customer import. Rows are committed a chunk at a time, so
+ * {@code imported} customers exist even when other rows failed. Only the
+ * first {@link #MAX_ERRORS} row errors are listed; {@code failed} counts all.
+ * If the upload broke off part way, {@code aborted} is set and the counts
+ * cover the records read before that point.
+ */
+public class CustomerImportResult {
+    public static final int MAX_ERRORS = 100;
+
+    private long received;
+    private long imported;
+    private long duplicates;
+    private long failed;
+    private List<RowError> errors = new ArrayList<>();
+    private boolean aborted;
+    private String abortReason;
+
+    /**
+     * A rejected row and the reason, by its line number in the upload.
+     */
+    public static class RowError {
+        private long line;
+        private String message;
+
+        public RowError() {
+        }
+
+        public RowError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() { return line; }
+        public void setLine(long line) { this.line = line; }
+
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+
+    public void addReceived(long count) { received += count; }
+
+    public void addImported(long count) { imported += count; }
+
+    public void addDuplicate() { duplicates++; }
+
+    public void addError(long line, String message) {
+        failed++;
+        if (errors.size() < MAX_ERRORS) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    /**
+     * Record that the rest of the upload, from {@code line} on, was not read.
+     */
+    public void abort(long line, String reason) {
+        aborted = true;
+        abortReason = "Import aborted at line " + line + ": " + reason;
+    }
+
+    // Getters and Setters
+    public long getReceived() { return received; }
+    public void setReceived(long received) { this.received = received; }
+
+    public long getImported() { return imported; }
+    public void setImported(long imported) { this.imported = imported; }
+
+    public long getDuplicates() { return duplicates; }
+    public void setDuplicates(long duplicates) { this.duplicates = duplicates; }
+
+    public long getFailed() { return failed; }
+    public void setFailed(long failed) { this.failed = failed; }
+
+    public List<RowError> getErrors() { return errors; }
+    public void setErrors(List<RowError> errors) { this.errors = errors; }
+
+    public boolean isAborted() { return aborted; }
+    public void setAborted(boolean aborted) { this.aborted = aborted; }
+
+    public String getAbortReason() { return abortReason; }
+    public void setAbortReason(String abortReason) { this.abortReason = abortReason; }
+}
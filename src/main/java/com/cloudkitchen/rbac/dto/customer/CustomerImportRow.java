@@ -0,0 +1,45 @@
+package com.cloudkitchen.rbac.dto.customer;
+
+/**
+ * One customer record of a bulk import: an NDJSON line or a CSV row, with
+ * CSV columns matched to these fields by name.
+ */
+public class CustomerImportRow {
+    private String phone;
+    private String firstName;
+    private String lastName;
+    private String email;
+    private String address;
+    private String city;
+    private String state;
+    private String country;
+    private String pincode;
+
+    // Getters and Setters
+    public String getPhone() { return phone; }
+    public void setPhone(String phone) { this.phone = phone; }
+
+    public String getFirstName() { return firstName; }
+    public void setFirstName(String firstName) { this.firstName = firstName; }
+
+    public String getLastName() { return lastName; }
+    public void setLastName(String lastName) { this.lastName = lastName; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public String getAddress() { return address; }
+    public void setAddress(String address) { this.address = address; }
+
+    public String getCity() { return city; }
+    public void setCity(String city) { this.city = city; }
+
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+
+    public String getCountry() { return country; }
+    public void setCountry(String country) { this.country = country; }
+
+    public String getPincode() { return pincode; }
+    public void setPincode(String pincode) { this.pincode = pincode; }
+}
@@ -0,0 +1,47 @@
+package com.cloudkitchen.rbac.ratelimit;
+
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.local.LocalBucketBuilder;
+
+/**
+ * Node-local buckets. Bucket4j's default local buckets update their state
+ * with a lock-free compare-and-swap, so concurrent requests for one key never
+ * block each other.
+ *
+ * Buckets live in a bounded Caffeine cache and are dropped once idle for
+ * longer than the slowest policy takes to refill; by then a new bucket would
+ * start full anyway. Eviction runs on the common pool, not the request thread.
+ */
+public class LocalRateLimitBackend implements RateLimitBackend {
+
+    private final Cache<String, Bucket> buckets;
+
+    public LocalRateLimitBackend(long maximumBuckets, Duration idleTimeout) {
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumBuckets)
+                .expireAfterAccess(idleTimeout)
+                .executor(ForkJoinPool.commonPool())
+                .build();
+    }
+
+    @Override
+    public ConsumptionProbe tryConsume(String key, BucketConfiguration configuration) {
+        Bucket bucket = buckets.get(key, k -> {
+            LocalBucketBuilder builder = Bucket.builder();
+            for (Bandwidth limit : configuration.getBandwidths()) {
+                builder.addLimit(limit);
+            }
+            return builder.build();
+        });
+        return bucket.tryConsumeAndReturnRemaining(1);
+    }
+}
@@ -0,0 +1,16 @@
+package com.cloudkitchen.rbac.ratelimit;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+
+/**
+ * Storage for token-bucket state.
+ */
+public interface RateLimitBackend {
+
+    /**
+     * Try to take one token from the bucket identified by {@code key}, creating
+     * it from {@code configuration} on first use.
+     */
+    ConsumptionProbe tryConsume(String key, BucketConfiguration configuration);
+}
@@ -0,0 +1,134 @@
+package com.cloudkitchen.rbac.ratelimit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.lang.NonNull;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import com.cloudkitchen.rbac.config.RateLimitProperties;
+import com.cloudkitchen.rbac.exception.BusinessExceptions.RateLimitExceededException;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Applies the first matching {@link RateLimitProperties.Policy} to a request.
+ * Rejected requests get a {@code Retry-After} header and are answered with 429
+ * by the security exception handler.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final List<CompiledPolicy> policies;
+    private final RateLimitBackend backend;
+
+    public RateLimitInterceptor(Map<String, RateLimitProperties.Policy> policies, RateLimitBackend backend) {
+        this.policies = new ArrayList<>();
+        policies.forEach((name, policy) -> this.policies.add(new CompiledPolicy(name, policy)));
+        this.backend = backend;
+    }
+
+    /**
+     * Every path pattern covered by some policy, for interceptor registration.
+     */
+    public List<String> pathPatterns() {
+        return policies.stream()
+                .flatMap(policy -> policy.patterns.stream())
+                .map(PathPattern::getPatternString)
+                .distinct()
+                .toList();
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) {
+        CompiledPolicy policy = match(request);
+        if (policy == null) {
+            return true;
+        }
+        ConsumptionProbe probe = backend.tryConsume(policy.name + ":" + clientKey(request, policy),
+                policy.configuration);
+        response.setHeader("X-RateLimit-Remaining", String.valueOf(probe.getRemainingTokens()));
+        if (!probe.isConsumed()) {
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(probe.getNanosToWaitForRefill() + 999_999_999L));
+            response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+            throw new RateLimitExceededException(
+                    "Too many requests. Please try again in " + retryAfterSeconds + " seconds.");
+        }
+        return true;
+    }
+
+    private CompiledPolicy match(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+        String method = request.getMethod();
+        for (CompiledPolicy policy : policies) {
+            if (policy.matches(method, path)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(HttpServletRequest request, CompiledPolicy policy) {
+        if (policy.keyByUser) {
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            if (authentication != null && authentication.isAuthenticated()
+                    && !(authentication instanceof AnonymousAuthenticationToken)) {
+                return "u:" + authentication.getName();
+            }
+        }
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        String ip = (xForwardedFor != null && !xForwardedFor.isEmpty())
+                ? xForwardedFor.split(",")[0].trim() : request.getRemoteAddr();
+        return "ip:" + ip;
+    }
+
+    private static final class CompiledPolicy {
+        private final String name;
+        private final List<PathPattern> patterns;
+        private final Set<String> methods;
+        private final boolean keyByUser;
+        private final BucketConfiguration configuration;
+
+        private CompiledPolicy(String name, RateLimitProperties.Policy policy) {
+            this.name = name;
+            this.patterns = policy.getPaths().stream().map(PathPatternParser.defaultInstance::parse).toList();
+            this.methods = policy.getMethods().stream()
+                    .map(method -> method.toUpperCase(Locale.ROOT))
+                    .collect(Collectors.toUnmodifiableSet());
+            this.keyByUser = "user".equalsIgnoreCase(policy.getKeyBy());
+            this.configuration = BucketConfiguration.builder()
+                    .addLimit(Bandwidth.builder()
+                            .capacity(policy.getCapacity())
+                            .refillGreedy(policy.getRefillTokens(), policy.getRefillPeriod())
+                            .build())
+                    .build();
+        }
+
+        private boolean matches(String method, PathContainer path) {
+            if (!methods.isEmpty() && !methods.contains(method)) {
+                return false;
+            }
+            for (PathPattern pattern : patterns) {
+                if (pattern.matches(path)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.cloudkitchen.rbac.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+
+/**
+ * Buckets shared by all nodes through a Bucket4j {@link ProxyManager}. State
+ * is updated in Redis with compare-and-swap, and keys expire once a bucket
+ * would be full again.
+ *
+ * If Redis cannot be reached the request is limited by a node-local bucket
+ * instead, so an outage degrades to per-node limits rather than no limits.
+ */
+public class RedisRateLimitBackend implements RateLimitBackend {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisRateLimitBackend.class);
+
+    private final ProxyManager<String> proxyManager;
+    private final String keyPrefix;
+    private final RateLimitBackend fallback;
+
+    public RedisRateLimitBackend(ProxyManager<String> proxyManager, String keyPrefix, RateLimitBackend fallback) {
+        this.proxyManager = proxyManager;
+        this.keyPrefix = keyPrefix;
+        this.fallback = fallback;
+    }
+
+    @Override
+    public ConsumptionProbe tryConsume(String key, BucketConfiguration configuration) {
+        try {
+            return proxyManager.builder()
+                    .build(keyPrefix + key, () -> configuration)
+                    .tryConsumeAndReturnRemaining(1);
+        } catch (RuntimeException e) {
+            logger.warn("Distributed rate limit unavailable, using local bucket for {}: {}", key, e.getMessage());
+            return fallback.tryConsume(key, configuration);
+        }
+    }
+}
@@ -1,19 +1,27 @@
 package com.cloudkitchen.rbac.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.cloudkitchen.rbac.constants.AppConstants;
 import com.cloudkitchen.rbac.domain.entity.Customer;
 
+import jakarta.persistence.QueryHint;
+
 @Repository
-public interface CustomerRepository extends JpaRepository<Customer, Integer> {
+public interface CustomerRepository extends JpaRepository<Customer, Integer>, JpaSpecificationExecutor<Customer> {
     
     Optional<Customer> findByPhoneAndMerchant_MerchantId(String phone, Integer merchantId);
     
@@ -30,23 +38,48 @@ public interface CustomerRepository extends JpaRepository<Customer, Integer> {
     @Query("SELECT c FROM Customer c LEFT JOIN FETCH c.merchant WHERE c.deletedAt IS NULL")
     Page<Customer> findByDeletedAtIsNull(Pageable pageable);
 
+    // Bulk import dedup: phones already held by the merchant's customers (soft-deleted ones
+    // included, since they keep the phone) or users, for a whole chunk in one query
+    @Query(value = "SELECT phone FROM customers WHERE merchant_id = :merchantId AND phone IN (:phones) " +
+                   "UNION SELECT phone FROM users WHERE merchant_id = :merchantId AND phone IN (:phones)",
+           nativeQuery = true)
+    List<String> findRegisteredPhones(@Param("merchantId") Integer merchantId, @Param("phones") Collection<String> phones);
+
+    // Export reads: the fetch size lets PostgreSQL stream through a cursor (inside a transaction)
+    // and read-only entities skip dirty-checking snapshots
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = AppConstants.Export.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT c FROM Customer c LEFT JOIN FETCH c.merchant WHERE c.deletedAt IS NULL ORDER BY c.customerId")
+    Stream<Customer> streamByDeletedAtIsNull();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = AppConstants.Export.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT c FROM Customer c LEFT JOIN FETCH c.merchant WHERE c.merchant.merchantId = :merchantId " +
+           "AND c.deletedAt IS NULL ORDER BY c.customerId")
+    Stream<Customer> streamByMerchant_MerchantIdAndDeletedAtIsNull(@Param("merchantId") Integer merchantId);
+
     @Query("SELECT c FROM Customer c LEFT JOIN FETCH c.merchant WHERE c.isActive = :isActive AND c.deletedAt IS NULL")
     Page<Customer> findByIsActiveAndDeletedAtIsNull(@Param("isActive") Boolean isActive, Pageable pageable);
     
+    // Patterns come from SearchPattern; each predicate is served by a pg_trgm index (V10)
     @Query("SELECT c FROM Customer c LEFT JOIN FETCH c.merchant WHERE c.deletedAt IS NULL AND " +
-           "(LOWER(c.firstName) LIKE LOWER(:search) OR " +
-           "LOWER(c.lastName) LIKE LOWER(:search) OR " +
-           "c.phone LIKE :search OR " +
-           "LOWER(c.email) LIKE LOWER(:search))")
-    Page<Customer> findBySearchAndDeletedAtIsNull(@Param("search") String search, Pageable pageable);
+           "(LOWER(c.firstName) LIKE :search ESCAPE '\\' OR " +
+           "LOWER(c.lastName) LIKE :search ESCAPE '\\' OR " +
+           "c.phone LIKE :phone ESCAPE '\\' OR " +
+           "LOWER(c.email) LIKE :search ESCAPE '\\')")
+    Page<Customer> findBySearchAndDeletedAtIsNull(@Param("search") String search, @Param("phone") String phone,
+                                                  Pageable pageable);
 
     @Query("SELECT c FROM Customer c LEFT JOIN FETCH c.merchant WHERE c.merchant.merchantId = :merchantId AND c.deletedAt IS NULL AND " +
-           "(LOWER(c.firstName) LIKE LOWER(:search) OR " +
-           "LOWER(c.lastName) LIKE LOWER(:search) OR " +
-           "c.phone LIKE :search OR " +
-           "LOWER(c.email) LIKE LOWER(:search))")
+           "(LOWER(c.firstName) LIKE :search ESCAPE '\\' OR " +
+           "LOWER(c.lastName) LIKE :search ESCAPE '\\' OR " +
+           "c.phone LIKE :phone ESCAPE '\\' OR " +
+           "LOWER(c.email) LIKE :search ESCAPE '\\')")
     Page<Customer> findByMerchantIdAndSearchAndDeletedAtIsNull(@Param("merchantId") Integer merchantId,
                                                               @Param("search") String search,
+                                                              @Param("phone") String phone,
                                                               Pageable pageable);
 
     // Additional methods for service implementation
@@ -1,20 +1,22 @@
 package com.cloudkitchen.rbac.repository;
 
+import com.cloudkitchen.rbac.cache.CacheNames;
 import com.cloudkitchen.rbac.domain.entity.Merchant;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import java.util.List;
 import java.util.Optional;
 
-public interface MerchantRepository extends JpaRepository<Merchant, Integer> {
-    @Cacheable(value = "merchantData", key = "'email_' + #email")
+public interface MerchantRepository extends JpaRepository<Merchant, Integer>, JpaSpecificationExecutor<Merchant> {
+    @Cacheable(value = CacheNames.MERCHANT_DATA, key = "'email_' + #email")
     Optional<Merchant> findByEmail(String email);
 
-    @Cacheable(value = "merchantData", key = "'phone_' + #phone")
+    @Cacheable(value = CacheNames.MERCHANT_DATA, key = "'phone_' + #phone")
     Optional<Merchant> findByPhone(String phone);
 
     boolean existsByEmail(String email);
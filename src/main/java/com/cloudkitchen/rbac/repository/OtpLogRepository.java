@@ -5,11 +5,16 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 public interface OtpLogRepository extends JpaRepository<OtpLog, Integer> {
-    @Query("SELECT COUNT(o) FROM OtpLog o WHERE o.phone = :phone AND o.createdOn > :after")
-    int countByPhoneAndCreatedOnAfter(@Param("phone") String phone, @Param("after") LocalDateTime after);
+    /**
+     * Phone, OTP type and creation time of every OTP logged since {@code after},
+     * oldest first. Used once at startup to seed the OTP rate limiter.
+     */
+    @Query("SELECT o.phone, o.otpType, o.createdOn FROM OtpLog o WHERE o.createdOn > :after ORDER BY o.createdOn")
+    List<Object[]> findRequestTimesSince(@Param("after") LocalDateTime after);
     
     Optional<OtpLog> findTopByPhoneAndStatusOrderByCreatedOnDesc(String phone, String status);
     
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -20,4 +21,10 @@ public interface RolePermissionRepository extends JpaRepository<RolePermission,
     boolean existsByRoleIdAndPermissionId(@Param("roleId") Integer roleId, @Param("permissionId") Integer permissionId);
     
     boolean existsByRoleAndPermission(com.cloudkitchen.rbac.domain.entity.Role role, com.cloudkitchen.rbac.domain.entity.Permission permission);
+
+    @Query("SELECT rp.role.roleId, rp.permission.permissionId FROM RolePermission rp")
+    List<Object[]> findAllRolePermissionIds();
+
+    @Query("SELECT DISTINCT rp.role.roleId FROM RolePermission rp WHERE rp.permission.permissionId IN :permissionIds")
+    List<Integer> findRoleIdsByPermissionIds(@Param("permissionIds") Collection<Integer> permissionIds);
 }
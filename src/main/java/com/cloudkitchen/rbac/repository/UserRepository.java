@@ -1,60 +1,59 @@
 package com.cloudkitchen.rbac.repository;
 
+import com.cloudkitchen.rbac.cache.CacheNames;
+import com.cloudkitchen.rbac.constants.AppConstants;
 import com.cloudkitchen.rbac.domain.entity.User;
 import com.cloudkitchen.rbac.domain.entity.Merchant;
 import com.cloudkitchen.rbac.dto.auth.LoginUserData;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
-import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface UserRepository extends JpaRepository<User, Integer> {
+public interface UserRepository extends JpaRepository<User, Integer>, JpaSpecificationExecutor<User> {
     
-    // OPTIMIZED LOGIN QUERY - Single query with all login data
-    @Cacheable(value = "loginUserData", key = "#phone + '_' + #merchantId", unless = "#result == null")
-    @Query(value = "SELECT u.user_id, u.phone, u.password_hash, u.user_type, " +
-           "CASE WHEN u.merchant_id IS NOT NULL THEN u.merchant_id ELSE :merchantId END, " +
-           "c.customer_id, " +
-           "COALESCE(STRING_AGG(DISTINCT r.role_name, ','), u.user_type) as roles, " +
-           "COALESCE(STRING_AGG(DISTINCT p.permission_name, ','), '') as permissions, " +
-           "u.active " +
-           "FROM users u " +
-           "LEFT JOIN user_roles ur ON u.user_id = ur.user_id " +
-           "LEFT JOIN roles r ON ur.role_id = r.role_id " +
-           "LEFT JOIN role_permissions rp ON r.role_id = rp.role_id " +
-           "LEFT JOIN permissions p ON rp.permission_id = p.permission_id " +
-           "LEFT JOIN customers c ON u.user_id = c.user_id AND (:merchantId IS NULL OR c.merchant_id = :merchantId) " +
-           "WHERE u.phone = :phone AND " +
-           "(:merchantId = 0 AND (u.merchant_id IS NULL OR u.user_type IN ('merchant', 'super_admin')) OR " +
-           ":merchantId > 0 AND u.merchant_id = :merchantId) " +
-           "GROUP BY u.user_id, u.phone, u.password_hash, u.user_type, u.merchant_id, c.customer_id, u.active",
-           nativeQuery = true)
+    // OPTIMIZED LOGIN QUERY - Single query with all customer login data (merchantId > 0)
+    @Cacheable(value = CacheNames.LOGIN_USER_DATA, key = "#phone + '_' + #merchantId", unless = "#result == null")
+    @Query("SELECT new com.cloudkitchen.rbac.dto.auth.LoginUserData(u.userId, u.phone, u.passwordHash, u.userType, " +
+           "m.merchantId, c.customerId, u.firstName, " +
+           "CASE WHEN c.deletedAt IS NULL THEN c.firstName ELSE NULL END, u.active, " +
+           "LISTAGG(CAST(ur.role.roleId AS String), ',')) " +
+           "FROM User u JOIN u.merchant m " +
+           "LEFT JOIN Customer c ON c.user = u AND c.merchant = m " +
+           "LEFT JOIN UserRole ur ON ur.user = u AND ur.merchant = m " +
+           "WHERE u.phone = :phone AND m.merchantId = :merchantId " +
+           "GROUP BY u.userId, u.phone, u.passwordHash, u.userType, m.merchantId, c.customerId, u.firstName, " +
+           "c.deletedAt, c.firstName, u.active")
     Optional<LoginUserData> findLoginUserData(@Param("phone") String phone, @Param("merchantId") Integer merchantId);
     
-    // OPTIMIZED USERNAME LOGIN QUERY
-    @Cacheable(value = "loginUserData", key = "#username + '_admin_0'", unless = "#result == null")
-    @Query(value = "SELECT u.user_id, u.phone, u.password_hash, u.user_type, " +
-           "CASE WHEN u.merchant_id IS NOT NULL THEN u.merchant_id ELSE 0 END, " +
-           "CAST(null AS INTEGER), " +
-           "COALESCE(STRING_AGG(DISTINCT r.role_name, ','), u.user_type) as roles, " +
-           "COALESCE(STRING_AGG(DISTINCT p.permission_name, ','), '') as permissions, " +
-           "u.active " +
-           "FROM users u " +
-           "LEFT JOIN user_roles ur ON u.user_id = ur.user_id " +
-           "LEFT JOIN roles r ON ur.role_id = r.role_id " +
-           "LEFT JOIN role_permissions rp ON r.role_id = rp.role_id " +
-           "LEFT JOIN permissions p ON rp.permission_id = p.permission_id " +
-           "WHERE u.username = :username AND u.user_type IN ('merchant', 'super_admin') " +
-           "GROUP BY u.user_id, u.phone, u.password_hash, u.user_type, u.merchant_id, u.active",
-           nativeQuery = true)
+    // OPTIMIZED USERNAME LOGIN QUERY (merchantId = 0); roles are those scoped to the user's own merchant
+    @Cacheable(value = CacheNames.LOGIN_USER_DATA, key = "#username + '_admin_0'", unless = "#result == null")
+    @Query("SELECT new com.cloudkitchen.rbac.dto.auth.LoginUserData(u.userId, u.phone, u.passwordHash, u.userType, " +
+           "m.merchantId, CAST(NULL AS Integer), u.firstName, CAST(NULL AS String), u.active, " +
+           "LISTAGG(CAST(ur.role.roleId AS String), ',')) " +
+           "FROM User u LEFT JOIN u.merchant m " +
+           "LEFT JOIN UserRole ur ON ur.user = u AND " +
+           "((m.merchantId IS NULL AND ur.merchant IS NULL) OR ur.merchant = m) " +
+           "WHERE u.username = :username AND u.userType IN ('merchant', 'super_admin') " +
+           "GROUP BY u.userId, u.phone, u.passwordHash, u.userType, m.merchantId, u.firstName, u.active")
     Optional<LoginUserData> findAdminLoginUserData(@Param("username") String username);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.passwordHash = :passwordHash WHERE u.userId = :userId")
+    int updatePasswordHash(@Param("userId") Integer userId, @Param("passwordHash") String passwordHash);
+
     Optional<User> findByPhone(String phone);
     Optional<User> findByPhoneAndMerchantIsNull(String phone);
     Optional<User> findByPhoneAndMerchant_MerchantId(String phone, Integer merchantId);
@@ -77,27 +76,26 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     boolean existsByEmailAndMerchant_MerchantId(String email, Integer merchantId);
     boolean existsByEmailAndMerchantIsNull(String email);
     
+    @Query("SELECT u.tokenEpoch FROM User u WHERE u.userId = :userId")
+    Integer findTokenEpoch(@Param("userId") Integer userId);
+
     @Modifying
     @Transactional
-    @Query("UPDATE User u SET u.otpCode = :otpCode, u.otpExpiresAt = :expiresAt, u.otpAttempts = 0, u.otpUsed = false WHERE u.phone = :phone AND (u.merchant.merchantId = :merchantId OR (:merchantId IS NULL AND u.merchant IS NULL))")
-    int updateOtpByPhone(@Param("phone") String phone, @Param("otpCode") String otpCode, @Param("expiresAt") LocalDateTime expiresAt, @Param("merchantId") Integer merchantId);
-    
-    @Modifying
-    @Transactional
-    @Query("UPDATE User u SET u.otpAttempts = :attempts WHERE u.phone = :phone AND (u.merchant.merchantId = :merchantId OR (:merchantId IS NULL AND u.merchant IS NULL))")
-    int updateOtpAttempts(@Param("phone") String phone, @Param("attempts") Integer attempts, @Param("merchantId") Integer merchantId);
-    
+    @Query("UPDATE User u SET u.tokenEpoch = u.tokenEpoch + 1 WHERE u.userId = :userId")
+    int incrementTokenEpoch(@Param("userId") Integer userId);
+
     List<User> findByUserType(String userType);
     Page<User> findByUserType(String userType, Pageable pageable);
     List<User> findByUserTypeAndMerchant_MerchantId(String userType, Integer merchantId);
     Page<User> findByUserTypeAndMerchant_MerchantId(String userType, Integer merchantId, Pageable pageable);
     
+    // Patterns come from SearchPattern; each predicate is served by a pg_trgm index (V10)
     @Query("SELECT u FROM User u WHERE u.userType = 'customer' AND " +
-           "(LOWER(u.firstName) LIKE LOWER(:search) OR " +
-           "LOWER(u.lastName) LIKE LOWER(:search) OR " +
-           "LOWER(u.email) LIKE LOWER(:search) OR " +
-           "u.phone LIKE :search)")
-    Page<User> findCustomersBySearch(@Param("search") String search, Pageable pageable);
+           "(LOWER(u.firstName) LIKE :search ESCAPE '\\' OR " +
+           "LOWER(u.lastName) LIKE :search ESCAPE '\\' OR " +
+           "LOWER(u.email) LIKE :search ESCAPE '\\' OR " +
+           "u.phone LIKE :phone ESCAPE '\\')")
+    Page<User> findCustomersBySearch(@Param("search") String search, @Param("phone") String phone, Pageable pageable);
     
     @Query("SELECT u FROM User u WHERE u.userType = 'customer' AND u.merchant.merchantId = :merchantId AND " +
            "(LOWER(u.firstName) LIKE LOWER(:search) OR " +
@@ -111,13 +109,25 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     void deleteByMerchant(Merchant merchant);
 
     // User Management API methods
+    @Query("SELECT u FROM User u WHERE (:role IS NULL OR u.userType = :role)")
+    Page<User> findAllUsersWithFilters(@Param("role") String role, Pageable pageable);
+
+    // Export read, streamed through a cursor like CustomerRepository.streamByDeletedAtIsNull
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = AppConstants.Export.FETCH_SIZE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")})
+    @Query("SELECT u FROM User u LEFT JOIN FETCH u.merchant WHERE (:role IS NULL OR u.userType = :role) ORDER BY u.userId")
+    Stream<User> streamAllUsersWithFilters(@Param("role") String role);
+
+    // Separate from the unfiltered listing so the plan never carries a ":search IS NULL" branch
+    // that would keep PostgreSQL from using the trigram indexes
     @Query("SELECT u FROM User u WHERE " +
            "(:role IS NULL OR u.userType = :role) AND " +
-           "(:search IS NULL OR :search = '' OR " +
-           "LOWER(CAST(u.firstName AS string)) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(CAST(u.lastName AS string)) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(CAST(u.email AS string)) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "LOWER(CAST(u.username AS string)) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
-           "CAST(u.phone AS string) LIKE CONCAT('%', :search, '%'))")
-    Page<User> findAllUsersWithFilters(@Param("role") String role, @Param("search") String search, Pageable pageable);
+           "(LOWER(u.firstName) LIKE :search ESCAPE '\\' OR " +
+           "LOWER(u.lastName) LIKE :search ESCAPE '\\' OR " +
+           "LOWER(u.email) LIKE :search ESCAPE '\\' OR " +
+           "LOWER(u.username) LIKE :search ESCAPE '\\' OR " +
+           "u.phone LIKE :phone ESCAPE '\\')")
+    Page<User> findAllUsersWithFilters(@Param("role") String role, @Param("search") String search,
+                                       @Param("phone") String phone, Pageable pageable);
 }
@@ -1,20 +1,24 @@
 package com.cloudkitchen.rbac.repository;
 
+import com.cloudkitchen.rbac.cache.CacheNames;
+import com.cloudkitchen.rbac.cache.UserCacheScope;
 import com.cloudkitchen.rbac.domain.entity.UserRole;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
+import java.util.Collection;
 import java.util.List;
 
 public interface UserRoleRepository extends JpaRepository<UserRole, Integer> {
-    @org.springframework.cache.annotation.Cacheable(value = "userRoles", key = "#userId + '_' + #merchantId")
+    @org.springframework.cache.annotation.Cacheable(value = CacheNames.USER_ROLES, key = "#userId + '_' + #merchantId")
     @Query("SELECT ur.role.roleName FROM UserRole ur " +
            "WHERE ur.user.userId = :userId AND " +
            "((:merchantId IS NULL AND ur.merchant IS NULL) OR ur.merchant.merchantId = :merchantId)")
     List<String> findRoleNames(Integer userId, Integer merchantId);
     
-    @org.springframework.cache.annotation.Cacheable(value = "userPermissions", key = "#userId + '_' + #merchantId")
+    @org.springframework.cache.annotation.Cacheable(value = CacheNames.USER_PERMISSIONS, key = "#userId + '_' + #merchantId")
     @Query("SELECT DISTINCT p.permissionName FROM UserRole ur " +
            "JOIN ur.role r JOIN RolePermission rp ON r.roleId = rp.role.roleId " +
            "JOIN rp.permission p " +
@@ -22,6 +26,12 @@ public interface UserRoleRepository extends JpaRepository<UserRole, Integer> {
            "((:merchantId IS NULL AND ur.merchant IS NULL) OR ur.merchant.merchantId = :merchantId)")
     List<String> findPermissionNames(Integer userId, Integer merchantId);
     
+    @org.springframework.cache.annotation.Cacheable(value = CacheNames.USER_ROLE_IDS, key = "#userId + '_' + #merchantId")
+    @Query("SELECT ur.role.roleId FROM UserRole ur " +
+           "WHERE ur.user.userId = :userId AND " +
+           "((:merchantId IS NULL AND ur.merchant IS NULL) OR ur.merchant.merchantId = :merchantId)")
+    List<Integer> findRoleIds(Integer userId, Integer merchantId);
+
     boolean existsByUserAndRoleAndMerchant(com.cloudkitchen.rbac.domain.entity.User user, 
                                           com.cloudkitchen.rbac.domain.entity.Role role, 
                                           com.cloudkitchen.rbac.domain.entity.Merchant merchant);
@@ -31,4 +41,17 @@ public interface UserRoleRepository extends JpaRepository<UserRole, Integer> {
     void deleteByUser(com.cloudkitchen.rbac.domain.entity.User user);
     
     boolean existsByUser_UserIdAndMerchant_MerchantId(Integer userId, Integer merchantId);
+
+    @Query("SELECT new com.cloudkitchen.rbac.cache.UserCacheScope(u.userId, m.merchantId, u.phone, u.username, um.merchantId) " +
+           "FROM UserRole ur JOIN ur.user u LEFT JOIN ur.merchant m LEFT JOIN u.merchant um " +
+           "WHERE u.userId IN :userIds")
+    List<UserCacheScope> findCacheScopesByUserIds(@Param("userIds") Collection<Integer> userIds);
+
+    @Query("SELECT new com.cloudkitchen.rbac.cache.UserCacheScope(u.userId, m.merchantId, u.phone, u.username, um.merchantId) " +
+           "FROM UserRole ur JOIN ur.user u LEFT JOIN ur.merchant m LEFT JOIN u.merchant um " +
+           "WHERE ur.role.roleId IN :roleIds")
+    List<UserCacheScope> findCacheScopesByRoleIds(@Param("roleIds") Collection<Integer> roleIds);
+
+    @Query("SELECT COUNT(ur) FROM UserRole ur WHERE ur.role.roleId IN :roleIds")
+    long countByRoleIds(@Param("roleIds") Collection<Integer> roleIds);
 }
@@ -0,0 +1,99 @@
+package com.cloudkitchen.rbac.security;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Interns authority strings (permission names and {@code ROLE_*} names) to
+ * small, stable ordinals so they can be held in an {@link AuthoritySet}.
+ *
+ * Ordinals are assigned on first sight and never reused. Only contents of
+ * tokens we signed are interned, so the table stays as small as the set of
+ * roles and permissions that exist.
+ */
+@Component
+public class AuthorityRegistry {
+
+    private static final String ROLE_PREFIX = "ROLE_";
+
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    /** Raw role name as found in tokens (e.g. {@code super_admin}) → ordinal of {@code ROLE_SUPER_ADMIN}. */
+    private final Map<String, Integer> roleOrdinals = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[64];
+    private int size;
+
+    /**
+     * Ordinal of an authority, interning it if unseen.
+     */
+    public int ordinal(String authority) {
+        Integer ordinal = ordinals.get(authority);
+        return ordinal != null ? ordinal : register(authority);
+    }
+
+    /**
+     * Ordinal of a known authority, or {@code -1} if it was never interned
+     * (in which case no authentication can hold it). Never allocates.
+     */
+    public int find(String authority) {
+        Integer ordinal = ordinals.get(authority);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * Ordinal of the {@code ROLE_*} authority for a role name as stored in tokens.
+     */
+    public int roleOrdinal(String roleName) {
+        Integer ordinal = roleOrdinals.get(roleName);
+        if (ordinal == null) {
+            ordinal = ordinal(ROLE_PREFIX + roleName.toUpperCase(Locale.ROOT));
+            roleOrdinals.putIfAbsent(roleName, ordinal);
+        }
+        return ordinal;
+    }
+
+    public String name(int ordinal) {
+        return names[ordinal];
+    }
+
+    /**
+     * Build the authority set for the roles and permissions carried by a token.
+     */
+    public AuthoritySet toAuthoritySet(Collection<String> roles, Collection<String> permissions) {
+        AuthoritySet.Builder builder = AuthoritySet.builder();
+        if (permissions != null) {
+            for (String permission : permissions) {
+                builder.add(ordinal(permission));
+            }
+        }
+        if (roles != null) {
+            for (String role : roles) {
+                builder.add(roleOrdinal(role));
+            }
+        }
+        return builder.build();
+    }
+
+    private synchronized int register(String authority) {
+        Integer existing = ordinals.get(authority);
+        if (existing != null) {
+            return existing;
+        }
+        int ordinal = size;
+        String[] current = names;
+        if (ordinal == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        } else {
+            current = current.clone();
+        }
+        current[ordinal] = authority;
+        names = current;
+        size = ordinal + 1;
+        ordinals.put(authority, ordinal);
+        return ordinal;
+    }
+}
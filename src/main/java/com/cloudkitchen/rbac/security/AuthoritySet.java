@@ -0,0 +1,81 @@
+package com.cloudkitchen.rbac.security;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable bitset of authority ordinals assigned by {@link AuthorityRegistry}.
+ * Membership checks are a single array read and bit test.
+ */
+public final class AuthoritySet implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final AuthoritySet EMPTY = new AuthoritySet(new long[0]);
+
+    private final long[] words;
+
+    private AuthoritySet(long[] words) {
+        this.words = words;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean contains(int ordinal) {
+        if (ordinal < 0) {
+            return false;
+        }
+        int word = ordinal >>> 6;
+        return word < words.length && (words[word] & (1L << ordinal)) != 0;
+    }
+
+    public int size() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public void forEach(IntConsumer action) {
+        for (int w = 0; w < words.length; w++) {
+            for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+                action.accept((w << 6) + Long.numberOfTrailingZeros(bits));
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof AuthoritySet other && Arrays.equals(words, other.words));
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    public static final class Builder {
+        private long[] words = new long[1];
+
+        public Builder add(int ordinal) {
+            int word = ordinal >>> 6;
+            if (word >= words.length) {
+                words = Arrays.copyOf(words, word + 1);
+            }
+            words[word] |= 1L << ordinal;
+            return this;
+        }
+
+        public AuthoritySet build() {
+            int length = words.length;
+            while (length > 0 && words[length - 1] == 0) {
+                length--;
+            }
+            return length == 0 ? EMPTY : new AuthoritySet(Arrays.copyOf(words, length));
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.cloudkitchen.rbac.security;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.cloudkitchen.rbac.exception.BusinessExceptions.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Runs a CPU-heavy {@link PasswordEncoder} (BCrypt) on a dedicated pool sized
+ * to the machine instead of on request threads.
+ *
+ * With hundreds of Tomcat workers a login burst could otherwise keep every
+ * core busy hashing and starve unrelated endpoints. Here at most
+ * {@code threads} hashes run at once, {@code queueCapacity} more may wait,
+ * and anything beyond that, or anything that waited longer than
+ * {@code maxWait} for a thread, is shed with {@link ServiceUnavailableException}
+ * (503). {@code maxWait} bounds queueing only: once a hash has started the
+ * caller waits for it, so no CPU is spent on a result nobody reads.
+ *
+ * Metrics: {@code auth.password.hash.queue} (time spent waiting for a
+ * thread), {@code auth.password.hash} (hashing time, tagged by operation),
+ * {@code auth.password.hash.rejected} and {@code auth.password.hash.queued}.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long maxWaitNanos;
+    private final Timer queueTimer;
+    private final Timer matchesTimer;
+    private final Timer encodeTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity, Duration maxWait,
+                                  MeterRegistry registry) {
+        this.delegate = delegate;
+        this.maxWaitNanos = maxWait.toNanos();
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        MeterRegistry meters = registry != null ? registry : new SimpleMeterRegistry();
+        this.queueTimer = Timer.builder("auth.password.hash.queue")
+                .description("Time password hashing requests wait for a hashing thread")
+                .register(meters);
+        this.matchesTimer = Timer.builder("auth.password.hash")
+                .tag("operation", "matches")
+                .description("Password hashing time")
+                .register(meters);
+        this.encodeTimer = Timer.builder("auth.password.hash")
+                .tag("operation", "encode")
+                .description("Password hashing time")
+                .register(meters);
+        this.rejected = Counter.builder("auth.password.hash.rejected")
+                .description("Password hashing requests shed because the hashing pool was saturated")
+                .register(meters);
+        Gauge.builder("auth.password.hash.queued", executor, pool -> pool.getQueue().size())
+                .description("Password hashing requests waiting for a hashing thread")
+                .register(meters);
+        logger.info("Password hashing pool: threads={}, queueCapacity={}, maxWait={}", threads, queueCapacity,
+                maxWait);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Timer timer, Callable<T> task) {
+        long enqueuedAt = System.nanoTime();
+        // Claimed by whichever comes first: the task starting, or the caller giving up on the queue
+        AtomicBoolean claimed = new AtomicBoolean();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    throw busy();
+                }
+                long startedAt = System.nanoTime();
+                long waited = startedAt - enqueuedAt;
+                queueTimer.record(waited, TimeUnit.NANOSECONDS);
+                if (waited > maxWaitNanos) {
+                    // Past the queue deadline: shed as the caller's timeout would. Never return null,
+                    // callers unbox the result
+                    throw busy();
+                }
+                try {
+                    return task.call();
+                } finally {
+                    timer.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw busy();
+        }
+        try {
+            try {
+                return future.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                if (claimed.compareAndSet(false, true)) {
+                    // Still queued; it will not run
+                    future.cancel(false);
+                    rejected.increment();
+                    throw busy();
+                }
+                // The task has started; wait for its outcome rather than waste the hash
+                return future.get();
+            }
+        } catch (InterruptedException e) {
+            claimed.set(true);
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw busy();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ServiceUnavailableException shed) {
+                rejected.increment();
+                throw shed;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private ServiceUnavailableException busy() {
+        return new ServiceUnavailableException("Authentication is busy. Please try again shortly.");
+    }
+}
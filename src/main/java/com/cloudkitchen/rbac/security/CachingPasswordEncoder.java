@@ -0,0 +1,95 @@
+package com.cloudkitchen.rbac.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Remembers successful {@link #matches} results for a short time so that a
+ * client logging in repeatedly within seconds does not pay for a full
+ * password hash each time.
+ *
+ * Entries are keyed by the stored hash and hold an HMAC-SHA256 of the raw
+ * password under a random key generated at startup; the raw password is
+ * never kept. A changed password has a new stored hash and therefore misses.
+ * Only successful checks are cached, so wrong guesses always pay full price.
+ * Closing it closes the wrapped encoder, so a hashing pool behind it is shut
+ * down with the application context.
+ */
+public class CachingPasswordEncoder implements PasswordEncoder, AutoCloseable {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final PasswordEncoder delegate;
+    private final Cache<String, byte[]> verified;
+    private final SecretKeySpec key;
+
+    public CachingPasswordEncoder(PasswordEncoder delegate, Duration ttl, long maximumSize) {
+        this.delegate = delegate;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        this.key = new SecretKeySpec(secret, HMAC_ALGORITHM);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return delegate.encode(rawPassword);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        if (rawPassword == null || encodedPassword == null) {
+            return delegate.matches(rawPassword, encodedPassword);
+        }
+        byte[] mac = mac(rawPassword);
+        byte[] cached = verified.getIfPresent(encodedPassword);
+        if (cached != null && MessageDigest.isEqual(cached, mac)) {
+            return true;
+        }
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        if (matches) {
+            verified.put(encodedPassword, mac);
+        }
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    @Override
+    public void close() {
+        if (delegate instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to close password encoder", e);
+            }
+        }
+    }
+
+    private byte[] mac(CharSequence rawPassword) {
+        try {
+            Mac hmac = Mac.getInstance(HMAC_ALGORITHM);
+            hmac.init(key);
+            return hmac.doFinal(rawPassword.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
+    }
+}
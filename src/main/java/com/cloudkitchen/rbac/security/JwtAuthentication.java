@@ -0,0 +1,107 @@
+package com.cloudkitchen.rbac.security;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Authentication established from a verified JWT.
+ *
+ * Authorities are held as an {@link AuthoritySet} so that
+ * {@link #hasAuthority(int)} is a bit test. The {@link GrantedAuthority}
+ * collection required by Spring Security is only materialized if something
+ * asks for it.
+ */
+public final class JwtAuthentication extends AbstractAuthenticationToken {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Integer userId;
+    private final String principal;
+    private final Integer merchantId;
+    private final AuthoritySet authoritySet;
+    private final transient AuthorityRegistry registry;
+    private transient volatile Collection<GrantedAuthority> grantedAuthorities;
+
+    public JwtAuthentication(Integer userId, Integer merchantId, AuthoritySet authoritySet,
+                             AuthorityRegistry registry) {
+        super(AuthorityUtils.NO_AUTHORITIES);
+        this.userId = userId;
+        this.principal = String.valueOf(userId);
+        this.merchantId = merchantId;
+        this.authoritySet = authoritySet;
+        this.registry = registry;
+        setAuthenticated(true);
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public Integer getMerchantId() {
+        return merchantId;
+    }
+
+    public AuthoritySet getAuthoritySet() {
+        return authoritySet;
+    }
+
+    public boolean hasAuthority(int ordinal) {
+        return authoritySet.contains(ordinal);
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return principal;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    @Override
+    public String getName() {
+        return principal;
+    }
+
+    @Override
+    public Collection<GrantedAuthority> getAuthorities() {
+        Collection<GrantedAuthority> authorities = grantedAuthorities;
+        if (authorities == null) {
+            List<GrantedAuthority> list = new ArrayList<>(authoritySet.size());
+            if (registry != null) {
+                authoritySet.forEach(ordinal -> list.add(new SimpleGrantedAuthority(registry.name(ordinal))));
+            }
+            authorities = Collections.unmodifiableList(list);
+            grantedAuthorities = authorities;
+        }
+        return authorities;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof JwtAuthentication other)) {
+            return false;
+        }
+        return Objects.equals(userId, other.userId)
+                && Objects.equals(merchantId, other.merchantId)
+                && authoritySet.equals(other.authoritySet)
+                && Objects.equals(getDetails(), other.getDetails());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, merchantId, authoritySet);
+    }
+}
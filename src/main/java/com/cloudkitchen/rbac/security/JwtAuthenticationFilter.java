@@ -1,10 +1,7 @@
 package com.cloudkitchen.rbac.security;
 
-import io.jsonwebtoken.Claims;
 import org.springframework.lang.NonNull;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.slf4j.Logger;
@@ -17,9 +14,6 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.List;
-import java.util.Collections;
-import java.util.stream.Collectors;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -27,10 +21,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
     private final JwtTokenProvider jwtTokenProvider;
     private final ValidationService validationService;
+    private final AuthorityRegistry authorityRegistry;
 
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, ValidationService validationService) {
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, ValidationService validationService,
+                                   AuthorityRegistry authorityRegistry) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.validationService = validationService;
+        this.authorityRegistry = authorityRegistry;
     }
 
     @Override
@@ -52,32 +49,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 // Validate token format first to prevent injection attacks
                 validationService.validateTokenFormat(token);
                 
-                Claims claims = jwtTokenProvider.parse(token);
-                String userId = claims.getSubject();
-                
-                // Extract roles and permissions for authorities
-                List<String> roles = extractStringList(claims, "roles");
-                List<String> permissions = extractStringList(claims, "permissions");
-
-                List<SimpleGrantedAuthority> authorities = permissions != null ?
-                    permissions.stream().map(SimpleGrantedAuthority::new).collect(Collectors.toList()) :
-                    Collections.emptyList();
-
-                // Add role-based authorities with ROLE_ prefix for Spring Security
-                if (roles != null) {
-                    authorities.addAll(roles.stream()
-                        .map(role -> new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()))
-                        .collect(Collectors.toList()));
-                }
-
-                if (userId != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    // Extract merchantId from claims
-                    Integer merchantId = extractInteger(claims, "merchantId");
-
-                    UsernamePasswordAuthenticationToken auth =
-                            new UsernamePasswordAuthenticationToken(
-                                    userId, null, authorities);
-                    auth.setDetails(new JwtAuthenticationDetails(request, merchantId));
+                VerifiedToken verified = jwtTokenProvider.verify(token);
+
+                if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                    // Roles and permissions were interned into a bitset when the token was
+                    // first verified; GrantedAuthority objects are only built on demand
+                    JwtAuthentication auth = new JwtAuthentication(
+                            verified.userId(), verified.merchantId(), verified.authorities(), authorityRegistry);
+                    auth.setDetails(new JwtAuthenticationDetails(request, verified.merchantId()));
                     SecurityContextHolder.getContext().setAuthentication(auth);
                 }
             } catch (IllegalArgumentException e) {
@@ -95,30 +74,4 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
-
-    private List<String> extractStringList(Claims claims, String key) {
-        Object value = claims.get(key);
-        if (value instanceof List<?>) {
-            List<?> list = (List<?>) value;
-            return list.stream()
-                    .filter(item -> item instanceof String)
-                    .map(String.class::cast)
-                    .collect(Collectors.toList());
-        }
-        return Collections.emptyList();
-    }
-
-    private Integer extractInteger(Claims claims, String key) {
-        Object value = claims.get(key);
-        if (value == null) {
-            return null;
-        }
-        if (value instanceof Integer) {
-            return (Integer) value;
-        }
-        if (value instanceof Number) {
-            return ((Number) value).intValue();
-        }
-        return null;
-    }
 }
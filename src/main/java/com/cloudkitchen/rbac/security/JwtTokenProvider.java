@@ -9,17 +9,20 @@ import org.springframework.stereotype.Component;
 import jakarta.annotation.PostConstruct;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.UUID;
 
 import com.cloudkitchen.rbac.service.TokenBlacklistService;
+import com.cloudkitchen.rbac.service.TokenEpochService;
 
 @Component
 public class JwtTokenProvider {
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
     private static final String TOKEN_TYPE_ACCESS = "access";
     private static final String TOKEN_TYPE_REFRESH = "refresh";
+    private static final String CLAIM_TOKEN_EPOCH = "tep";
 
     @Value("${app.jwt.secret}")
     private String secret;
@@ -34,11 +37,19 @@ public class JwtTokenProvider {
     private String issuer;
 
     private SecretKey key;
+    private JwtParser parser;
 
     private final TokenBlacklistService tokenBlacklistService;
+    private final VerifiedTokenCache verifiedTokens;
+    private final AuthorityRegistry authorityRegistry;
+    private final TokenEpochService tokenEpochService;
 
-    public JwtTokenProvider(TokenBlacklistService tokenBlacklistService) {
+    public JwtTokenProvider(TokenBlacklistService tokenBlacklistService, VerifiedTokenCache verifiedTokens,
+                            AuthorityRegistry authorityRegistry, TokenEpochService tokenEpochService) {
         this.tokenBlacklistService = tokenBlacklistService;
+        this.verifiedTokens = verifiedTokens;
+        this.authorityRegistry = authorityRegistry;
+        this.tokenEpochService = tokenEpochService;
     }
 
     @PostConstruct
@@ -52,6 +63,12 @@ public class JwtTokenProvider {
         }
         try {
             this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+            // JwtParser is immutable and thread-safe; build it once
+            this.parser = Jwts.parser()
+                    .verifyWith(key)
+                    .requireIssuer(issuer)
+                    .clockSkewSeconds(60)
+                    .build();
             logger.info("JWT token provider initialized with HS256 algorithm");
         } catch (IllegalArgumentException e) {
             logger.error("Failed to initialize JWT signing key", e);
@@ -59,7 +76,8 @@ public class JwtTokenProvider {
         }
     }
 
-    public String createAccessToken(Integer userId, Integer merchantId, List<String> roles, List<String> permissions) {
+    public String createAccessToken(Integer userId, Integer merchantId, List<String> roles, List<String> permissions,
+                                    int tokenEpoch) {
         if (userId == null) {
             throw new IllegalArgumentException("User ID cannot be null");
         }
@@ -76,6 +94,7 @@ public class JwtTokenProvider {
                 .audience().add("cloud-kitchen-app").and()
                 .claim("type", TOKEN_TYPE_ACCESS)
                 .claim("merchantId", merchantId)
+                .claim(CLAIM_TOKEN_EPOCH, tokenEpoch)
                 .claim("roles", roles != null ? roles : List.of())
                 .claim("permissions", permissions != null ? permissions : List.of())
                 .issuedAt(now)
@@ -85,7 +104,7 @@ public class JwtTokenProvider {
                 .compact();
     }
 
-    public String createRefreshToken(Integer userId, Integer merchantId) {
+    public String createRefreshToken(Integer userId, Integer merchantId, int tokenEpoch) {
         if (userId == null) {
             throw new IllegalArgumentException("User ID cannot be null");
         }
@@ -102,6 +121,7 @@ public class JwtTokenProvider {
                 .audience().add("cloud-kitchen-app").and()
                 .claim("type", TOKEN_TYPE_REFRESH)
                 .claim("merchantId", merchantId)
+                .claim(CLAIM_TOKEN_EPOCH, tokenEpoch)
                 .issuedAt(now)
                 .notBefore(now)
                 .expiration(expiry)
@@ -109,49 +129,37 @@ public class JwtTokenProvider {
                 .compact();
     }
 
+    /**
+     * Verify a token and return its claims. Prefer {@link #verify(String)},
+     * which is served from the verified-token cache.
+     */
     public Claims parse(String token) {
-        if (isTokenBlacklisted(token)) {
+        Claims claims = parseClaims(token);
+        if (tokenBlacklistService.isBlacklisted(claims.getId())) {
             throw new JwtException("Token has been revoked");
         }
+        return claims;
+    }
 
-        try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(key)
-                    .requireIssuer(issuer)
-                    .clockSkewSeconds(60)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-
-            // Validate token type for access tokens
-            String tokenType = claims.get("type", String.class);
-            if (tokenType == null) {
-                throw new JwtException("Token type not specified");
-            }
-
-            return claims;
-        } catch (ExpiredJwtException e) {
-            logger.warn("JWT token expired");
-            throw e;
-        } catch (UnsupportedJwtException e) {
-            logger.warn("Unsupported JWT token");
-            throw e;
-        } catch (MalformedJwtException e) {
-            logger.warn("Malformed JWT token");
-            throw e;
-        } catch (SecurityException e) {
-            logger.warn("Invalid JWT signature");
-            throw e;
-        } catch (IllegalArgumentException e) {
-            logger.warn("JWT token compact of handler are invalid");
-            throw e;
+    /**
+     * Verify a token and return its principal data. The signature is only
+     * checked the first time a given token is seen; the revocation checks
+     * (per-token blacklist and per-user epoch) run on every call.
+     */
+    public VerifiedToken verify(String token) {
+        VerifiedToken verified = resolve(token);
+        if (tokenBlacklistService.isBlacklisted(verified.jti())) {
+            throw new JwtException("Token has been revoked");
         }
+        if (verified.epoch() < tokenEpochService.currentEpoch(verified.userId())) {
+            throw new JwtException("Token has been revoked");
+        }
+        return verified;
     }
 
     public boolean validateToken(String token) {
         try {
-            Claims claims = parse(token);
-            return !isTokenExpired(claims) && !isTokenBlacklisted(token);
+            return !verify(token).isExpired(System.currentTimeMillis());
         } catch (JwtException | IllegalArgumentException e) {
             logger.debug("Token validation failed");
             return false;
@@ -160,9 +168,8 @@ public class JwtTokenProvider {
 
     public boolean validateAccessToken(String token) {
         try {
-            Claims claims = parse(token);
-            String tokenType = claims.get("type", String.class);
-            return TOKEN_TYPE_ACCESS.equals(tokenType) && !isTokenExpired(claims) && !isTokenBlacklisted(token);
+            VerifiedToken verified = verify(token);
+            return TOKEN_TYPE_ACCESS.equals(verified.type()) && !verified.isExpired(System.currentTimeMillis());
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
@@ -170,9 +177,8 @@ public class JwtTokenProvider {
 
     public boolean validateRefreshToken(String token) {
         try {
-            Claims claims = parse(token);
-            String tokenType = claims.get("type", String.class);
-            return TOKEN_TYPE_REFRESH.equals(tokenType) && !isTokenExpired(claims) && !isTokenBlacklisted(token);
+            VerifiedToken verified = verify(token);
+            return TOKEN_TYPE_REFRESH.equals(verified.type()) && !verified.isExpired(System.currentTimeMillis());
         } catch (JwtException | IllegalArgumentException e) {
             return false;
         }
@@ -180,15 +186,7 @@ public class JwtTokenProvider {
 
     public Integer getUserIdFromToken(String token) {
         try {
-            Claims claims = parse(token);
-            String subject = claims.getSubject();
-            if (subject == null || subject.trim().isEmpty()) {
-                throw new IllegalArgumentException("Token subject is null or empty");
-            }
-            return Integer.valueOf(subject);
-        } catch (NumberFormatException e) {
-            logger.warn("Invalid user ID format in token");
-            throw new IllegalArgumentException("Invalid user ID format in token", e);
+            return verify(token).userId();
         } catch (JwtException | IllegalArgumentException e) {
             logger.warn("Failed to extract user ID from token");
             throw new IllegalArgumentException("Invalid token", e);
@@ -197,18 +195,7 @@ public class JwtTokenProvider {
 
     public Integer getMerchantId(String token) {
         try {
-            Claims claims = parse(token);
-            Object merchantIdObj = claims.get("merchantId");
-            if (merchantIdObj == null) {
-                return null;
-            }
-            if (merchantIdObj instanceof Integer integer) {
-                return integer;
-            }
-            if (merchantIdObj instanceof Number number) {
-                return number.intValue();
-            }
-            throw new IllegalArgumentException("Invalid merchantId type in token");
+            return verify(token).merchantId();
         } catch (JwtException | IllegalArgumentException e) {
             logger.warn("Failed to extract merchant ID from token");
             throw new IllegalArgumentException("Invalid token", e);
@@ -217,16 +204,16 @@ public class JwtTokenProvider {
 
     public void blacklistToken(String token) {
         try {
-            Claims claims = parse(token);
-            String jti = claims.getId();
+            VerifiedToken verified = verify(token);
+            String jti = verified.jti();
             if (jti != null) {
-                long expiryTime = claims.getExpiration().getTime();
-                long ttlMillis = expiryTime - System.currentTimeMillis();
+                long ttlMillis = verified.expiresAt() - System.currentTimeMillis();
                 if (ttlMillis > 0) {
                     tokenBlacklistService.blacklist(jti, ttlMillis);
                     logger.info("Token blacklisted: {}", jti);
                 }
             }
+            verifiedTokens.invalidate(token);
         } catch (Exception e) {
             logger.warn("Failed to blacklist token: {}", e.getMessage());
         }
@@ -234,21 +221,93 @@ public class JwtTokenProvider {
 
     public boolean isTokenBlacklisted(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(key)
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            String jti = claims.getId();
-            return tokenBlacklistService.isBlacklisted(jti);
+            return tokenBlacklistService.isBlacklisted(resolve(token).jti());
         } catch (Exception e) {
             return false;
         }
     }
 
-    private boolean isTokenExpired(Claims claims) {
+    private VerifiedToken resolve(String token) {
+        VerifiedToken verified = verifiedTokens.get(token);
+        if (verified == null) {
+            verified = toVerifiedToken(parseClaims(token));
+            verifiedTokens.put(token, verified);
+        }
+        return verified;
+    }
+
+    private Claims parseClaims(String token) {
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+
+            // Validate token type for access tokens
+            String tokenType = claims.get("type", String.class);
+            if (tokenType == null) {
+                throw new JwtException("Token type not specified");
+            }
+
+            return claims;
+        } catch (ExpiredJwtException e) {
+            logger.warn("JWT token expired");
+            throw e;
+        } catch (UnsupportedJwtException e) {
+            logger.warn("Unsupported JWT token");
+            throw e;
+        } catch (MalformedJwtException e) {
+            logger.warn("Malformed JWT token");
+            throw e;
+        } catch (SecurityException e) {
+            logger.warn("Invalid JWT signature");
+            throw e;
+        } catch (IllegalArgumentException e) {
+            logger.warn("JWT token compact of handler are invalid");
+            throw e;
+        }
+    }
+
+    private VerifiedToken toVerifiedToken(Claims claims) {
+        String subject = claims.getSubject();
+        if (subject == null || subject.trim().isEmpty()) {
+            throw new MalformedJwtException("Token subject is null or empty");
+        }
+        Integer userId;
+        try {
+            userId = Integer.valueOf(subject);
+        } catch (NumberFormatException e) {
+            logger.warn("Invalid user ID format in token");
+            throw new MalformedJwtException("Invalid user ID format in token", e);
+        }
+        Object merchantIdObj = claims.get("merchantId");
+        Integer merchantId;
+        if (merchantIdObj == null) {
+            merchantId = null;
+        } else if (merchantIdObj instanceof Number number) {
+            merchantId = number.intValue();
+        } else {
+            throw new MalformedJwtException("Invalid merchantId type in token");
+        }
+        List<String> roles = extractStringList(claims, "roles");
+        List<String> permissions = extractStringList(claims, "permissions");
+        // Tokens issued before epochs existed carry no claim and count as epoch 0
+        Object epochObj = claims.get(CLAIM_TOKEN_EPOCH);
+        int epoch = epochObj instanceof Number number ? number.intValue() : 0;
         Date expiration = claims.getExpiration();
-        return expiration != null && expiration.before(new Date());
+        return new VerifiedToken(userId, merchantId, claims.get("type", String.class), claims.getId(),
+                expiration != null ? expiration.getTime() : Long.MAX_VALUE, epoch, roles, permissions,
+                authorityRegistry.toAuthoritySet(roles, permissions));
+    }
+
+    private static List<String> extractStringList(Claims claims, String key) {
+        if (!(claims.get(key) instanceof List<?> list)) {
+            return List.of();
+        }
+        List<String> values = new ArrayList<>(list.size());
+        for (Object item : list) {
+            if (item instanceof String value) {
+                values.add(value);
+            }
+        }
+        return List.copyOf(values);
     }
 
     private String generateJti() {
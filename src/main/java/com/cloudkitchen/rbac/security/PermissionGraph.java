@@ -0,0 +1,155 @@
+package com.cloudkitchen.rbac.security;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable snapshot of the role → permission mapping.
+ *
+ * Roles and permissions are addressed by dense int indexes; each role's
+ * permission set is a {@code long[]} bitset over permission indexes, so
+ * expanding a user's roles is a handful of OR operations. Resolved grants
+ * are memoized per distinct role combination, which in practice means a
+ * handful of entries (one per role a user can hold).
+ *
+ * Snapshots are never mutated; a change to roles or permissions produces a
+ * new snapshot that replaces this one.
+ */
+public final class PermissionGraph {
+
+    /** Roles and permissions a user holds. Lists are immutable and shared. */
+    public record Grant(List<String> roles, List<String> permissions) {
+    }
+
+    private static final Grant EMPTY_GRANT = new Grant(List.of(), List.of());
+
+    private final long version;
+    /** Sorted role ids; position is the role index. */
+    private final int[] roleIds;
+    private final String[] roleNames;
+    private final String[] permissionNames;
+    /** Permission bitset per role index. */
+    private final long[][] rolePermissions;
+    private final Map<Long, Grant> grantsByRoleMask = new ConcurrentHashMap<>();
+
+    private PermissionGraph(long version, int[] roleIds, String[] roleNames,
+                            String[] permissionNames, long[][] rolePermissions) {
+        this.version = version;
+        this.roleIds = roleIds;
+        this.roleNames = roleNames;
+        this.permissionNames = permissionNames;
+        this.rolePermissions = rolePermissions;
+    }
+
+    /**
+     * @param roles       role id → role name
+     * @param permissions permission id → permission name
+     * @param edges       {@code [roleId, permissionId]} pairs
+     */
+    public static PermissionGraph build(long version, Map<Integer, String> roles,
+                                        Map<Integer, String> permissions, Collection<int[]> edges) {
+        int[] roleIds = roles.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        String[] roleNames = new String[roleIds.length];
+        for (int i = 0; i < roleIds.length; i++) {
+            roleNames[i] = roles.get(roleIds[i]);
+        }
+
+        int[] permissionIds = permissions.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue())
+                .mapToInt(Map.Entry::getKey)
+                .toArray();
+        String[] permissionNames = new String[permissionIds.length];
+        Map<Integer, Integer> permissionIndex = new HashMap<>();
+        for (int i = 0; i < permissionIds.length; i++) {
+            permissionNames[i] = permissions.get(permissionIds[i]);
+            permissionIndex.put(permissionIds[i], i);
+        }
+
+        int words = (permissionNames.length + 63) >>> 6;
+        long[][] rolePermissions = new long[roleIds.length][words];
+        for (int[] edge : edges) {
+            int role = Arrays.binarySearch(roleIds, edge[0]);
+            Integer permission = permissionIndex.get(edge[1]);
+            if (role >= 0 && permission != null) {
+                rolePermissions[role][permission >>> 6] |= 1L << permission;
+            }
+        }
+        return new PermissionGraph(version, roleIds, roleNames, permissionNames, rolePermissions);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int roleCount() {
+        return roleIds.length;
+    }
+
+    public int permissionCount() {
+        return permissionNames.length;
+    }
+
+    /**
+     * Expand role ids into role and permission names. Unknown role ids are ignored.
+     */
+    public Grant resolve(Collection<Integer> userRoleIds) {
+        if (userRoleIds == null || userRoleIds.isEmpty()) {
+            return EMPTY_GRANT;
+        }
+        if (roleIds.length <= Long.SIZE) {
+            long mask = 0L;
+            for (Integer roleId : userRoleIds) {
+                int index = roleId != null ? Arrays.binarySearch(roleIds, roleId) : -1;
+                if (index >= 0) {
+                    mask |= 1L << index;
+                }
+            }
+            if (mask == 0L) {
+                return EMPTY_GRANT;
+            }
+            return grantsByRoleMask.computeIfAbsent(mask, this::expandMask);
+        }
+        return expand(userRoleIds.stream()
+                .filter(Objects::nonNull)
+                .mapToInt(id -> Arrays.binarySearch(roleIds, id))
+                .filter(index -> index >= 0)
+                .distinct()
+                .toArray());
+    }
+
+    private Grant expandMask(long mask) {
+        int[] indexes = new int[Long.bitCount(mask)];
+        int n = 0;
+        for (long m = mask; m != 0; m &= m - 1) {
+            indexes[n++] = Long.numberOfTrailingZeros(m);
+        }
+        return expand(indexes);
+    }
+
+    private Grant expand(int[] roleIndexes) {
+        int words = (permissionNames.length + 63) >>> 6;
+        long[] union = new long[words];
+        List<String> roles = new ArrayList<>(roleIndexes.length);
+        for (int index : roleIndexes) {
+            roles.add(roleNames[index]);
+            long[] bits = rolePermissions[index];
+            for (int w = 0; w < words; w++) {
+                union[w] |= bits[w];
+            }
+        }
+        List<String> permissions = new ArrayList<>();
+        for (int w = 0; w < words; w++) {
+            for (long bits = union[w]; bits != 0; bits &= bits - 1) {
+                permissions.add(permissionNames[(w << 6) + Long.numberOfTrailingZeros(bits)]);
+            }
+        }
+        return new Grant(Collections.unmodifiableList(roles), Collections.unmodifiableList(permissions));
+    }
+}
@@ -1,9 +1,13 @@
 package com.cloudkitchen.rbac.security;
 
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -15,15 +19,22 @@ import org.springframework.security.config.annotation.web.configuration.EnableWe
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer.FrameOptionsConfig;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import com.cloudkitchen.rbac.config.SecurityProperties;
 import com.cloudkitchen.rbac.filter.ContentTypeValidationFilter;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
@@ -93,6 +104,9 @@ public class SecurityConfig {
                             org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter.ReferrerPolicy.STRICT_ORIGIN_WHEN_CROSS_ORIGIN));
                 })
                 .authorizeHttpRequests(authz -> authz
+                        // Streamed exports finish on an async dispatch, which the JWT filter does not
+                        // re-run; the request was already authorized on its initial dispatch
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/", "/error", "/favicon.ico").permitAll()
                         .requestMatchers(AUTH_WHITELIST).permitAll()
                         .requestMatchers(SWAGGER_WHITELIST).permitAll()
@@ -149,9 +163,36 @@ public class SecurityConfig {
         return source;
     }
 
+    /**
+     * Hashes are stored as {@code {id}hash} so the algorithm and its cost
+     * travel with each one; hashes written before the prefix existed are
+     * BCrypt. Hashing runs on a bounded pool sized to the machine rather than
+     * on Tomcat workers, behind a short-lived cache of successful checks.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(12);
+    public PasswordEncoder passwordEncoder(SecurityProperties securityProperties,
+                                           ObjectProvider<MeterRegistry> meterRegistry) {
+        SecurityProperties.PasswordHashing hashing = securityProperties.getPasswordHashing();
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(hashing.getBcryptStrength());
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", bcrypt);
+        encoders.put("pbkdf2", Pbkdf2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        encoders.put("argon2", Argon2PasswordEncoder.defaultsForSpringSecurity_v5_8());
+        String algorithm = hashing.getAlgorithm().toLowerCase(Locale.ROOT);
+        if (!encoders.containsKey(algorithm)) {
+            throw new IllegalStateException("Unsupported app.security.password-hashing.algorithm: " + algorithm);
+        }
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(algorithm, encoders);
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        PasswordEncoder bounded = new BoundedPasswordEncoder(delegating, hashing.resolveThreads(),
+                hashing.getQueueCapacity(), hashing.getMaxWait(), meterRegistry.getIfAvailable());
+        logger.info("Password hashing: algorithm={}, verifiedCacheTtl={}", algorithm, hashing.getVerifiedCacheTtl());
+        if (hashing.getVerifiedCacheTtl().isZero()) {
+            return bounded;
+        }
+        return new CachingPasswordEncoder(bounded, hashing.getVerifiedCacheTtl(),
+                hashing.getVerifiedCacheMaximumSize());
     }
 
     @Bean
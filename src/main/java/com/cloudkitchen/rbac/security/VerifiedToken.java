@@ -0,0 +1,33 @@
+package com.cloudkitchen.rbac.security;
+
+import java.util.List;
+
+/**
+ * Principal data extracted from a JWT whose signature, issuer and expiry have
+ * been checked. Instances are immutable and shared through {@link VerifiedTokenCache}.
+ *
+ * @param userId      token subject
+ * @param merchantId  {@code merchantId} claim, may be null
+ * @param type        {@code access} or {@code refresh}
+ * @param jti         token id used for revocation
+ * @param expiresAt   expiry in epoch milliseconds
+ * @param epoch       user revocation epoch at issue time ({@code tep} claim)
+ * @param roles       role names (empty for refresh tokens)
+ * @param permissions permission names (empty for refresh tokens)
+ * @param authorities roles and permissions interned by {@link AuthorityRegistry}
+ */
+public record VerifiedToken(
+        Integer userId,
+        Integer merchantId,
+        String type,
+        String jti,
+        long expiresAt,
+        int epoch,
+        List<String> roles,
+        List<String> permissions,
+        AuthoritySet authorities) {
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAt <= nowMillis;
+    }
+}
@@ -0,0 +1,87 @@
+package com.cloudkitchen.rbac.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+/**
+ * Bounded cache of {@link VerifiedToken}s keyed by the SHA-256 digest of the
+ * compact token, so repeat requests with the same bearer token skip HMAC
+ * verification and JSON decoding. Each entry expires at the token's own
+ * {@code exp}. Revocation is not cached: callers must still check the
+ * blacklist on every hit.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final Cache<String, VerifiedToken> cache;
+
+    public VerifiedTokenCache(
+            @Value("${app.jwt.verified-token-cache.enabled:true}") boolean enabled,
+            @Value("${app.jwt.verified-token-cache.maximum-size:10000}") long maximumSize) {
+        this.cache = enabled ? Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ExpireAtTokenExpiry())
+                .build() : null;
+    }
+
+    public VerifiedToken get(String token) {
+        if (cache == null) {
+            return null;
+        }
+        VerifiedToken verified = cache.getIfPresent(digest(token));
+        return verified != null && !verified.isExpired(System.currentTimeMillis()) ? verified : null;
+    }
+
+    public void put(String token, VerifiedToken verified) {
+        if (cache != null && !verified.isExpired(System.currentTimeMillis())) {
+            cache.put(digest(token), verified);
+        }
+    }
+
+    public void invalidate(String token) {
+        if (cache != null) {
+            cache.invalidate(digest(token));
+        }
+    }
+
+    private static String digest(String token) {
+        return HexFormat.of().formatHex(SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static final class ExpireAtTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            long remainingMillis = value.expiresAt() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
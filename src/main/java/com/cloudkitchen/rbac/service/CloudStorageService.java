@@ -1,6 +1,8 @@
 package com.cloudkitchen.rbac.service;
 
 import java.io.InputStream;
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
 import com.cloudkitchen.rbac.dto.merchant.FolderCreationStatus;
@@ -37,6 +39,15 @@ public interface CloudStorageService {
      * @throws com.cloudkitchen.rbac.exception.BusinessExceptions.ServiceUnavailableException if S3 operation fails
      */
     void createCustomerFolderStructure(String merchantId, String customerId);
+
+    /**
+     * Creates customer-specific folder structure asynchronously.
+     *
+     * @param merchantId the merchant identifier (must be numeric)
+     * @param customerId the customer identifier (must be numeric)
+     * @return CompletableFuture that completes when folders are created
+     */
+    CompletableFuture<Void> createCustomerFolderStructureAsync(String merchantId, String customerId);
     
     /**
      * Uploads a file to cloud storage.
@@ -58,6 +69,15 @@ public interface CloudStorageService {
      */
     String generatePresignedUrl(String key);
 
+    /**
+     * Generates presigned URLs for several files at once, e.g. for a page of
+     * list results.
+     *
+     * @param keys the S3 object keys; duplicates are signed once
+     * @return presigned URL per key
+     */
+    Map<String, String> generatePresignedUrls(Collection<String> keys);
+
     /**
      * Gets the folder creation status for a merchant.
      *
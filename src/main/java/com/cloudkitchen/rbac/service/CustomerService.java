@@ -1,11 +1,14 @@
 package com.cloudkitchen.rbac.service;
 
+import java.io.InputStream;
 import java.util.List;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.cloudkitchen.rbac.dto.common.CursorPageResponse;
 import com.cloudkitchen.rbac.dto.common.PageRequest;
 import com.cloudkitchen.rbac.dto.common.PageResponse;
 import com.cloudkitchen.rbac.dto.customer.CustomerResponse;
@@ -44,6 +47,10 @@ public interface CustomerService {
      * List customers for a merchant with pagination.
      */
     PageResponse<CustomerResponse> getCustomersByMerchantId(Integer merchantId, PageRequest pageRequest);
+    /**
+     * List customers with cursor pagination and optional status/search filters; a null merchant ID lists all merchants.
+     */
+    CursorPageResponse<CustomerResponse> getCustomersPage(Integer merchantId, PageRequest pageRequest, String status, String search);
     /**
      * Fetch a customer by ID.
      */
@@ -121,7 +128,7 @@ public interface CustomerService {
     /**
      * Build the HTTP response for listing customers.
      */
-    ResponseEntity<Object> getAllCustomersResponse(int page, int size, String status, String search, Authentication authentication);
+    ResponseEntity<Object> getAllCustomersResponse(int page, int size, String status, String search, String cursor, boolean includeTotal, Authentication authentication);
     /**
      * Build the HTTP response for fetching a customer by ID.
      */
@@ -133,9 +140,17 @@ public interface CustomerService {
     /**
      * Build the HTTP response for listing customers by merchant ID.
      */
-    ResponseEntity<Object> getCustomersByMerchantIdResponse(Integer merchantId, int page, int size, Authentication authentication);
+    ResponseEntity<Object> getCustomersByMerchantIdResponse(Integer merchantId, int page, int size, String cursor, boolean includeTotal, Authentication authentication);
     /**
      * Build the HTTP response for deleting a customer.
      */
     ResponseEntity<Object> deleteCustomerResponse(Integer id, Authentication authentication);
+    /**
+     * Build the streaming download response for exporting customers as NDJSON or CSV.
+     */
+    ResponseEntity<StreamingResponseBody> exportCustomersResponse(String format, Integer merchantId, Authentication authentication);
+    /**
+     * Build the HTTP response for bulk-importing customers from an NDJSON or CSV upload.
+     */
+    ResponseEntity<Object> importCustomersResponse(Integer merchantId, String contentType, InputStream body, Authentication authentication);
 }
@@ -0,0 +1,98 @@
+package com.cloudkitchen.rbac.service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Write-behind buffer for {@code users.last_login_at} and
+ * {@code preferred_login_method}.
+ *
+ * Logins only record into an in-memory map keyed by user, so repeated logins
+ * by the same user within a flush window collapse into one row update, and
+ * every {@code app.security.last-login-flush-interval} the pending rows are
+ * written with a single JDBC batch of targeted UPDATEs. Login requests never
+ * take a row lock on {@code users} for this.
+ *
+ * Crash semantics: pending entries are flushed on orderly shutdown, but a
+ * crash loses at most one flush interval of last-login timestamps. That is
+ * acceptable because the columns are informational; anything that guards
+ * authentication (OTP attempts, OTP consumption) is written synchronously
+ * by the caller instead. A failed batch is logged and dropped.
+ */
+@Service
+public class LastLoginRecorder {
+
+    private static final Logger logger = LoggerFactory.getLogger(LastLoginRecorder.class);
+
+    private static final String UPDATE_SQL =
+            "UPDATE users SET last_login_at = ?, preferred_login_method = ? WHERE user_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final Map<Integer, LastLogin> pending = new ConcurrentHashMap<>();
+
+    public LastLoginRecorder(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+    }
+
+    public void record(Integer userId, String loginMethod) {
+        pending.put(userId, new LastLogin(userId, LocalDateTime.now(), loginMethod));
+    }
+
+    @Scheduled(fixedDelayString = "#{@securityProperties.lastLoginFlushInterval.toMillis()}",
+            initialDelayString = "#{@securityProperties.lastLoginFlushInterval.toMillis()}")
+    public void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<LastLogin> batch = new ArrayList<>(pending.size());
+        for (Integer userId : pending.keySet()) {
+            // remove() rather than clear(): a login recorded meanwhile stays for the next flush
+            LastLogin lastLogin = pending.remove(userId);
+            if (lastLogin != null) {
+                batch.add(lastLogin);
+            }
+        }
+        for (int from = 0; from < batch.size(); from += batchSize) {
+            List<LastLogin> chunk = batch.subList(from, Math.min(batch.size(), from + batchSize));
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_SQL, chunk,
+                        chunk.size(), (ps, lastLogin) -> {
+                            ps.setTimestamp(1, Timestamp.valueOf(lastLogin.at()));
+                            ps.setString(2, lastLogin.method());
+                            ps.setInt(3, lastLogin.userId());
+                        }));
+            } catch (RuntimeException e) {
+                logger.warn("Failed to record last login for {} users: {}", chunk.size(), e.getMessage());
+            }
+        }
+        logger.debug("Flushed last login for {} users", batch.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private record LastLogin(Integer userId, LocalDateTime at, String method) {
+    }
+}
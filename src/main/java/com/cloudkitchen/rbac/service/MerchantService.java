@@ -6,6 +6,7 @@ import java.util.Map;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 
+import com.cloudkitchen.rbac.dto.common.CursorPageResponse;
 import com.cloudkitchen.rbac.dto.common.PageRequest;
 import com.cloudkitchen.rbac.dto.common.PageResponse;
 import com.cloudkitchen.rbac.dto.merchant.MerchantRequest;
@@ -39,6 +40,10 @@ public interface MerchantService {
      * List merchants with pagination and optional filters.
      */
     PageResponse<MerchantResponse> getAllMerchants(PageRequest pageRequest, String status, String search);
+    /**
+     * List merchants with cursor pagination and optional filters.
+     */
+    CursorPageResponse<MerchantResponse> getMerchantsPage(PageRequest pageRequest, String status, String search);
     /**
      * Delete a merchant and its related users.
      */
@@ -63,7 +68,7 @@ public interface MerchantService {
     /**
      * Build the HTTP response for listing merchants.
      */
-    ResponseEntity<Map<String, Object>> getAllMerchantsResponse(int page, int size, String sortBy, String sortDirection, String status, String search, Authentication authentication);
+    ResponseEntity<Map<String, Object>> getAllMerchantsResponse(int page, int size, String sortBy, String sortDirection, String status, String search, String cursor, boolean includeTotal, Authentication authentication);
     /**
      * Build the HTTP response for merchant deletion.
      */
@@ -1,149 +1,179 @@
 package com.cloudkitchen.rbac.service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
-import com.cloudkitchen.rbac.domain.entity.Merchant;
-import com.cloudkitchen.rbac.domain.entity.OtpLog;
-import com.cloudkitchen.rbac.repository.OtpLogRepository;
+import com.cloudkitchen.rbac.audit.OtpAuditEvent;
+import com.cloudkitchen.rbac.audit.OtpAuditWriter;
+import com.cloudkitchen.rbac.sms.SmsDeliveryListener;
+import com.cloudkitchen.rbac.sms.SmsMessage;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.servlet.http.HttpServletRequest;
 
+/**
+ * Records the OTP lifecycle in {@code otp_logs}.
+ *
+ * Events are queued on the request thread and written by a single background
+ * thread every {@code app.otp.audit.flush-interval}, or sooner once
+ * {@code app.otp.audit.batch-size} events are waiting, so OTP endpoints no
+ * longer pay for audit round trips. When the queue is full the caller writes
+ * its event directly. Events still queued when the JVM dies abruptly (not a
+ * normal shutdown, which drains the queue) are lost.
+ *
+ * Also listens to the SMS pipeline: an OTP that could not be delivered has
+ * its row marked {@code send_failed}.
+ */
 @Service
-public class OtpAuditService {
+public class OtpAuditService implements SmsDeliveryListener {
     
     private static final Logger logger = LoggerFactory.getLogger(OtpAuditService.class);
-    private final OtpLogRepository otpLogRepository;
+    private final OtpAuditWriter writer;
+    private final BlockingQueue<OtpAuditEvent> queue;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final Object signal = new Object();
+    // Serializes writes; not synchronized, so virtual threads are not pinned during JDBC
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile boolean running = true;
+    private Thread flusher;
     
-    public OtpAuditService(OtpLogRepository otpLogRepository) {
-        this.otpLogRepository = otpLogRepository;
+    public OtpAuditService(OtpAuditWriter writer,
+                           @Value("${app.otp.audit.queue-capacity:10000}") int queueCapacity,
+                           @Value("${app.otp.audit.batch-size:50}") int batchSize,
+                           @Value("${app.otp.audit.flush-interval:5s}") Duration flushInterval) {
+        this.writer = writer;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
     }
     
-    public void logOtp(Integer merchantId, String phone, String otpCode, String otpType, String status, LocalDateTime expiresAt) {
-        try {
-            OtpLog otpLog = new OtpLog();
-            
-            if (merchantId != null) {
-                Merchant merchant = new Merchant();
-                merchant.setMerchantId(merchantId);
-                otpLog.setMerchant(merchant);
-            }
-            
-            otpLog.setPhone(phone);
-            otpLog.setOtpCode(otpCode); // Store actual OTP for development/testing
-            otpLog.setOtpType(otpType);
-            otpLog.setStatus(status);
-            
-            // Extract IP address and user agent from HTTP request
-            String ipAddress = getClientIpAddress();
-            String userAgent = getUserAgent();
-            
-            otpLog.setIpAddress(ipAddress);
-            otpLog.setUserAgent(userAgent);
-            otpLog.setAttemptsCount(0);
-            otpLog.setExpiresAt(expiresAt);
-            
-            otpLogRepository.save(otpLog);
-            String maskedPhone = maskPhoneNumber(phone);
-            logger.info("OTP audit log created for phone: {} with type: {} and status: {}", maskedPhone, otpType, status);
-
-        } catch (Exception e) {
-            String maskedPhone = maskPhoneNumber(phone);
-            logger.error("OTP audit logging failed for phone: {}, type: {}", maskedPhone, otpType, e);
+    @PostConstruct
+    void start() {
+        flusher = new Thread(this::runFlusher, "otp-audit-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+    
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        synchronized (signal) {
+            signal.notifyAll();
         }
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+        flush();
+    }
+    
+    public void logOtp(Integer merchantId, String phone, String otpCode, String otpType, String status, LocalDateTime expiresAt) {
+        // Store actual OTP for development/testing
+        enqueue(new OtpAuditEvent(OtpAuditEvent.Kind.SENT, phone, merchantId, otpCode, otpType, status, 0,
+                expiresAt, getClientIpAddress(), getUserAgent(), LocalDateTime.now()));
+        logger.info("OTP audit log queued for phone: {} with type: {} and status: {}", maskPhoneNumber(phone), otpType, status);
     }
     
     public void logOtpVerified(String phone, Integer merchantId) {
-        try {
-            otpLogRepository.findTopByPhoneAndStatusOrderByCreatedOnDesc(phone, "sent")
-                .ifPresentOrElse(otpLog -> {
-                    otpLog.setStatus("verified");
-                    otpLog.setVerifiedAt(LocalDateTime.now());
-                    otpLogRepository.save(otpLog);
-                    String maskedPhone = maskPhoneNumber(phone);
-                    logger.info("OTP verification logged for phone: {}", maskedPhone);
-                }, () -> {
-                    OtpLog otpLog = new OtpLog();
-                    
-                    if (merchantId != null) {
-                        Merchant merchant = new Merchant();
-                        merchant.setMerchantId(merchantId);
-                        otpLog.setMerchant(merchant);
-                    }
-                    
-                    otpLog.setPhone(phone);
-                    otpLog.setOtpCode("0000"); // 4 chars to satisfy column constraint
-                    otpLog.setOtpType("login"); // Fallback type for verification log
-                    otpLog.setStatus("verified");
-                    otpLog.setVerifiedAt(LocalDateTime.now());
-                    
-                    String ipAddress = getClientIpAddress();
-                    String userAgent = getUserAgent();
-                    
-                    otpLog.setIpAddress(ipAddress);
-                    otpLog.setUserAgent(userAgent);
-                    otpLog.setAttemptsCount(0);
-                    otpLog.setExpiresAt(LocalDateTime.now().plusMinutes(1)); // Short expiry for verification log
-                    
-                    otpLogRepository.save(otpLog);
-                    String maskedPhone = maskPhoneNumber(phone);
-                    logger.info("OTP verification logged for phone (no prior sent log): {}", maskedPhone);
-                });
-        } catch (Exception e) {
-            logger.warn("Failed to log OTP verification: {}", e.getMessage(), e);
-        }
+        enqueue(event(OtpAuditEvent.Kind.VERIFIED, phone, merchantId, 0));
+        logger.info("OTP verification logged for phone: {}", maskPhoneNumber(phone));
     }
     
     public void updateOtpFailed(String phone, int attemptCount) {
-        try {
-            otpLogRepository.findTopByPhoneAndStatusOrderByCreatedOnDesc(phone, "sent")
-                .ifPresent(otpLog -> {
-                    otpLog.setAttemptsCount(attemptCount);
-                    if (attemptCount >= 3) {
-                        otpLog.setStatus("failed");
-                    } else {
-                        otpLog.setStatus("invalid_attempt");
-                    }
-                    otpLogRepository.save(otpLog);
-                    String maskedPhone = maskPhoneNumber(phone);
-                    logger.info("OTP attempt count updated to {} for phone: {}, status: {}", 
-                               attemptCount, maskedPhone, otpLog.getStatus());
-                });
-        } catch (Exception e) {
-            logger.warn("Failed to update OTP failure audit: {}", e.getMessage(), e);
-        }
+        enqueue(event(OtpAuditEvent.Kind.FAILED, phone, null, attemptCount));
+        logger.info("OTP attempt count updated to {} for phone: {}", attemptCount, maskPhoneNumber(phone));
     }
     
     public void updateOtpExpired(String phone) {
+        enqueue(event(OtpAuditEvent.Kind.EXPIRED, phone, null, 0));
+        logger.info("OTP marked as expired for phone: {}", maskPhoneNumber(phone));
+    }
+    
+    public void updateOtpCancelled(String phone, String reason) {
+        enqueue(event(OtpAuditEvent.Kind.EXPIRED, phone, null, 0));
+        logger.info("OTP cancelled for phone: {}, reason: {}", maskPhoneNumber(phone), reason);
+    }
+    
+    public void updateOtpUndelivered(String phone, String reason) {
+        enqueue(event(OtpAuditEvent.Kind.UNDELIVERED, phone, null, 0));
+        logger.info("OTP delivery failed for phone: {}, reason: {}", maskPhoneNumber(phone), reason);
+    }
+    
+    @Override
+    public void onFailed(SmsMessage message, String reason) {
+        updateOtpUndelivered(message.phone(), reason);
+    }
+    
+    private OtpAuditEvent event(OtpAuditEvent.Kind kind, String phone, Integer merchantId, int attempts) {
+        return new OtpAuditEvent(kind, phone, merchantId, null, null, null, attempts, null,
+                getClientIpAddress(), getUserAgent(), LocalDateTime.now());
+    }
+    
+    private void enqueue(OtpAuditEvent event) {
+        if (running && queue.offer(event)) {
+            if (queue.size() >= batchSize) {
+                synchronized (signal) {
+                    signal.notifyAll();
+                }
+            }
+            return;
+        }
+        // Backlogged or shutting down: write on the caller rather than dropping
+        logger.warn("OTP audit queue full, writing synchronously");
+        writeLock.lock();
         try {
-            otpLogRepository.findTopByPhoneAndStatusOrderByCreatedOnDesc(phone, "sent")
-                .ifPresent(otpLog -> {
-                    otpLog.setStatus("expired");
-                    otpLogRepository.save(otpLog);
-                    String maskedPhone = maskPhoneNumber(phone);
-                    logger.info("OTP marked as expired for phone: {}", maskedPhone);
-                });
-        } catch (Exception e) {
-            logger.warn("Failed to update OTP expiry audit: {}", e.getMessage(), e);
+            List<OtpAuditEvent> pending = new ArrayList<>();
+            queue.drainTo(pending);
+            pending.add(event);
+            writer.write(pending);
+        } finally {
+            writeLock.unlock();
         }
     }
     
-    public void updateOtpCancelled(String phone, String reason) {
+    private void runFlusher() {
+        while (running) {
+            try {
+                synchronized (signal) {
+                    if (running && queue.size() < batchSize) {
+                        TimeUnit.NANOSECONDS.timedWait(signal, flushIntervalNanos);
+                    }
+                }
+                flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("OTP audit flush failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+    
+    /**
+     * Drain and write everything queued. Runs under the write lock so that
+     * per-phone event order is preserved between the flusher and callers
+     * writing directly.
+     */
+    private void flush() {
+        writeLock.lock();
         try {
-            otpLogRepository.findTopByPhoneAndStatusOrderByCreatedOnDesc(phone, "sent")
-                .ifPresent(otpLog -> {
-                    otpLog.setStatus("expired");
-                    otpLogRepository.save(otpLog);
-                    String maskedPhone = maskPhoneNumber(phone);
-                    logger.info("OTP cancelled for phone: {}, reason: {}", maskedPhone, reason);
-                });
-        } catch (Exception e) {
-            logger.warn("Failed to update OTP cancellation audit: {}", e.getMessage(), e);
+            List<OtpAuditEvent> pending = new ArrayList<>(Math.max(queue.size(), 16));
+            queue.drainTo(pending);
+            writer.write(pending);
+        } finally {
+            writeLock.unlock();
         }
     }
     
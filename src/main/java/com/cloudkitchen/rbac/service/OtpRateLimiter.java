@@ -0,0 +1,16 @@
+package com.cloudkitchen.rbac.service;
+
+/**
+ * Sliding-window limit on OTP requests per phone number and OTP type.
+ */
+public interface OtpRateLimiter {
+
+    /**
+     * Record an OTP request if the phone is still within its budget for the
+     * current window.
+     *
+     * @return {@code true} if the request is allowed (and has been counted),
+     *         {@code false} if the limit is already reached
+     */
+    boolean tryAcquire(String phone, String otpType);
+}
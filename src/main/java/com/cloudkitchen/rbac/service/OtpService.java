@@ -3,7 +3,14 @@ package com.cloudkitchen.rbac.service;
 public interface OtpService {
     String generateOtp();
 
-    // Production-ready methods for OTP security 
+    /**
+     * Form of the OTP to store when {@code app.security.hash-otp} is on.
+     */
     String hashOtp(String otp);
-    boolean verifyOtp(String plainOtp, String hashedOtp);
+
+    /**
+     * Constant-time check of a submitted code against a stored one, which
+     * may be either plain or produced by {@link #hashOtp}.
+     */
+    boolean verifyOtp(String plainOtp, String storedOtp);
 }
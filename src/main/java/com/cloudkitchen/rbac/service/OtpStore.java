@@ -0,0 +1,59 @@
+package com.cloudkitchen.rbac.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import com.cloudkitchen.rbac.constants.AppConstants;
+
+/**
+ * Short-lived OTP challenge state, one per user, kept out of the
+ * {@code users} table.
+ *
+ * Entries outlive {@link Challenge#expiresAt()} by a retention period so a
+ * late verification is still told the code expired rather than that none was
+ * requested; after that the store drops them on its own.
+ */
+public interface OtpStore {
+
+    /** How long an entry is kept after its code expires. */
+    Duration EXPIRED_RETENTION = Duration.ofMinutes(AppConstants.OTP_EXPIRY_MINUTES);
+
+    /** Wrong codes after which a challenge is dropped and can no longer be consumed. */
+    int MAX_ATTEMPTS = AppConstants.OTP_MAX_ATTEMPTS;
+
+    /**
+     * Store a new challenge for the user, replacing any earlier one.
+     */
+    void save(Integer userId, Challenge challenge);
+
+    Optional<Challenge> find(Integer userId);
+
+    /**
+     * Count a wrong code against the user's current challenge, removing it in
+     * the same step once {@link #MAX_ATTEMPTS} is reached, so concurrent
+     * guesses cannot all slip under the limit.
+     *
+     * @return attempts after this one ({@link #MAX_ATTEMPTS} or more means the
+     *         challenge is gone), or 0 if there is no challenge
+     */
+    int recordFailedAttempt(Integer userId);
+
+    /**
+     * Remove the challenge only if it still holds {@code otpCode} and has
+     * fewer than {@link #MAX_ATTEMPTS} wrong attempts.
+     *
+     * @return {@code false} if a concurrent request consumed, replaced or used up the challenge first
+     */
+    boolean consume(Integer userId, String otpCode);
+
+    void remove(Integer userId);
+
+    /**
+     * @param otpCode   code as stored
+     * @param expiresAt when the code stops being accepted
+     * @param attempts  wrong codes entered so far
+     */
+    record Challenge(String otpCode, LocalDateTime expiresAt, int attempts) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.cloudkitchen.rbac.service;
+
+import com.cloudkitchen.rbac.security.PermissionGraph;
+
+public interface PermissionGraphService {
+
+    /**
+     * Current snapshot of the role → permission mapping; loaded on first use.
+     */
+    PermissionGraph current();
+
+    /**
+     * Resolve a user's roles and effective permissions with one {@code user_roles}
+     * lookup and an in-memory expansion.
+     *
+     * @param merchantId merchant scope of the assignments, {@code null} for global roles
+     */
+    PermissionGraph.Grant resolve(Integer userId, Integer merchantId);
+
+    /**
+     * Rebuild the snapshot from the database and swap it in.
+     */
+    void refresh();
+}
@@ -1,41 +1,50 @@
 package com.cloudkitchen.rbac.service;
 
-import java.util.concurrent.CompletableFuture;
+import java.time.LocalDateTime;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import com.cloudkitchen.rbac.sms.SmsDispatcher;
+import com.cloudkitchen.rbac.sms.SmsMessage;
+
+/**
+ * Sends OTP texts. Fire-and-forget: the message goes on the
+ * {@link SmsDispatcher} outbox and this returns without waiting for the
+ * gateway. Delivery failures are reported to the OTP audit by the
+ * dispatcher.
+ */
 @Service
 public class SmsService {
     private static final Logger logger = LoggerFactory.getLogger(SmsService.class);
 
-    @Async("smsExecutor")
-    public CompletableFuture<Boolean> sendOtpAsync(String phone, String otp) {
-        try {
-            if (phone == null || phone.isBlank()) {
-                throw new IllegalArgumentException("Phone number cannot be null or empty");
-            }
-            if (otp == null || otp.isBlank()) {
-                throw new IllegalArgumentException("OTP cannot be null or empty");
-            }
-            String maskedPhone = phone.length() > 4 ? "****" + phone.substring(phone.length() - 4) : "****";
-            logger.info("OTP sent to {} - Code: **** (Valid: 5min)", maskedPhone);
-            return CompletableFuture.completedFuture(true);
-        } catch (Exception e) {
-            logger.error("Failed to send OTP: {}", e.getMessage());
-            return CompletableFuture.completedFuture(false);
-        }
+    private final SmsDispatcher dispatcher;
+
+    public SmsService(SmsDispatcher dispatcher) {
+        this.dispatcher = dispatcher;
     }
 
-    // Synchronous method for backward compatibility (delegates to async)
-    public boolean sendOtp(String phone, String otp) {
-        try {
-            return sendOtpAsync(phone, otp).get();
-        } catch (Exception e) {
-            logger.error("Failed to send OTP synchronously: {}", e.getMessage());
+    /**
+     * Queue an OTP for delivery.
+     *
+     * @param expiresAt OTP expiry; the message is not retried past it
+     * @return false if the message was not queued (invalid input or outbox full)
+     */
+    public boolean sendOtp(String phone, String otp, LocalDateTime expiresAt) {
+        if (phone == null || phone.isBlank()) {
+            logger.error("Failed to send OTP: Phone number cannot be null or empty");
+            return false;
+        }
+        if (otp == null || otp.isBlank()) {
+            logger.error("Failed to send OTP: OTP cannot be null or empty");
+            return false;
+        }
+        if (!dispatcher.enqueue(new SmsMessage(phone, otp, expiresAt))) {
+            String maskedPhone = phone.length() > 4 ? "****" + phone.substring(phone.length() - 4) : "****";
+            logger.warn("SMS outbox full, OTP for {} not queued", maskedPhone);
             return false;
         }
+        return true;
     }
-}
\ No newline at end of file
+}
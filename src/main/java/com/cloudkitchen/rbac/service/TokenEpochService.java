@@ -0,0 +1,16 @@
+package com.cloudkitchen.rbac.service;
+
+public interface TokenEpochService {
+
+    /**
+     * Current revocation epoch of a user; tokens issued with a lower epoch are
+     * no longer valid. Served from cache on the request path.
+     */
+    int currentEpoch(Integer userId);
+
+    /**
+     * Revoke every token issued to the user so far by bumping the epoch.
+     * The cached value is evicted on all nodes once the transaction commits.
+     */
+    void revokeAll(Integer userId);
+}
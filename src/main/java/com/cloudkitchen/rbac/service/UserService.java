@@ -4,7 +4,9 @@ import java.util.Map;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.cloudkitchen.rbac.dto.common.CursorPageResponse;
 import com.cloudkitchen.rbac.dto.common.PageRequest;
 import com.cloudkitchen.rbac.dto.common.PageResponse;
 import com.cloudkitchen.rbac.dto.user.UserResponse;
@@ -17,6 +19,10 @@ public interface UserService {
      * List users with pagination and optional filters.
      */
     PageResponse<UserResponse> getAllUsers(PageRequest pageRequest, String role, String search);
+    /**
+     * List users with cursor pagination and optional role/search filters.
+     */
+    CursorPageResponse<UserResponse> getUsersPage(PageRequest pageRequest, String role, String search);
     /**
      * Fetch a user by ID.
      */
@@ -24,9 +30,13 @@ public interface UserService {
     /**
      * Build the HTTP response for listing users.
      */
-    ResponseEntity<Map<String, Object>> getAllUsersResponse(String page, String size, String sortBy, String sortDirection, String role, String search, Authentication authentication);
+    ResponseEntity<Map<String, Object>> getAllUsersResponse(String page, String size, String sortBy, String sortDirection, String role, String search, String cursor, boolean includeTotal, Authentication authentication);
     /**
      * Build the HTTP response for fetching a user by ID.
      */
     ResponseEntity<Map<String, Object>> getUserByIdResponse(Integer id, Authentication authentication);
+    /**
+     * Build the streaming download response for exporting users as NDJSON or CSV.
+     */
+    ResponseEntity<StreamingResponseBody> exportUsersResponse(String format, String role, Authentication authentication);
 }
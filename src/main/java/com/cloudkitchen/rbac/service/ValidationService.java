@@ -23,6 +23,14 @@ public interface ValidationService {
      */
     void validatePhone(String phone);
 
+    /**
+     * Validates a person's first or last name.
+     * @param name the name to validate
+     * @param fieldName the field as it appears in messages, e.g. "First name"
+     * @throws IllegalArgumentException if name is missing or invalid
+     */
+    void validateName(String name, String fieldName);
+
     /**
      * Validates email address format and constraints.
      * @param email the email address to validate
@@ -3,6 +3,7 @@ package com.cloudkitchen.rbac.service.impl;
 import java.security.SecureRandom;
 import java.util.Base64;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import org.slf4j.Logger;
@@ -13,6 +14,9 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import com.cloudkitchen.rbac.cache.CacheInvalidationService;
+import com.cloudkitchen.rbac.cache.CacheKeys;
+import com.cloudkitchen.rbac.cache.CacheNames;
 import com.cloudkitchen.rbac.config.SecurityProperties;
 import com.cloudkitchen.rbac.constants.AppConstants;
 import com.cloudkitchen.rbac.constants.ResponseMessages;
@@ -23,6 +27,7 @@ import com.cloudkitchen.rbac.domain.entity.User;
 import com.cloudkitchen.rbac.domain.entity.UserRole;
 import com.cloudkitchen.rbac.dto.auth.AuthRequest;
 import com.cloudkitchen.rbac.dto.auth.AuthResponse;
+import com.cloudkitchen.rbac.dto.auth.LoginUserData;
 import com.cloudkitchen.rbac.dto.auth.OtpRequest;
 import com.cloudkitchen.rbac.dto.auth.OtpVerifyRequest;
 import com.cloudkitchen.rbac.dto.auth.PasswordResetRequest;
@@ -44,20 +49,25 @@ import com.cloudkitchen.rbac.exception.BusinessExceptions.UserNotFoundException;
 import com.cloudkitchen.rbac.exception.BusinessExceptions.ValidationException;
 import com.cloudkitchen.rbac.repository.CustomerRepository;
 import com.cloudkitchen.rbac.repository.MerchantRepository;
-import com.cloudkitchen.rbac.repository.OtpLogRepository;
 import com.cloudkitchen.rbac.repository.RoleRepository;
 import com.cloudkitchen.rbac.repository.UserRepository;
 import com.cloudkitchen.rbac.repository.UserRoleRepository;
 import com.cloudkitchen.rbac.security.JwtTokenProvider;
+import com.cloudkitchen.rbac.security.VerifiedToken;
+import com.cloudkitchen.rbac.security.PermissionGraph;
 import com.cloudkitchen.rbac.service.AuthService;
+import com.cloudkitchen.rbac.service.LastLoginRecorder;
 import com.cloudkitchen.rbac.service.OtpAuditService;
+import com.cloudkitchen.rbac.service.OtpRateLimiter;
 import com.cloudkitchen.rbac.service.OtpService;
+import com.cloudkitchen.rbac.service.OtpStore;
+import com.cloudkitchen.rbac.service.PermissionGraphService;
 import com.cloudkitchen.rbac.service.SmsService;
+import com.cloudkitchen.rbac.service.TokenEpochService;
 import com.cloudkitchen.rbac.service.ValidationService;
 import com.cloudkitchen.rbac.util.HttpResponseUtil;
 import com.cloudkitchen.rbac.util.ResponseBuilder;
 
-import io.jsonwebtoken.Claims;
 
 @Service
 public class AuthServiceImpl implements AuthService {
@@ -67,6 +77,7 @@ public class AuthServiceImpl implements AuthService {
     private static final String ROLE_SUPER_ADMIN = "super_admin";
     private static final String OTP_TYPE_PASSWORD_RESET = "password_reset";
     private static final String INVALID_OTP_ATTEMPT_LOG = "Invalid OTP attempt {} for phone: {}";
+    private static final String MASKED_OTP = "****";
     private static final int PASSWORD_RESET_TOKEN_BYTES = 32;
     private static final int PASSWORD_RESET_TOKEN_MINUTES = 10;
 
@@ -78,18 +89,25 @@ public class AuthServiceImpl implements AuthService {
     private final PasswordEncoder encoder;
     private final OtpService otpService;
     private final OtpAuditService otpAuditService;
-    private final OtpLogRepository otpLogRepository;
+    private final OtpRateLimiter otpRateLimiter;
+    private final OtpStore otpStore;
     private final SmsService smsService;
     private final JwtTokenProvider jwt;
     private final ValidationService validationService;
     private final SecurityProperties securityProperties;
+    private final PermissionGraphService permissionGraph;
+    private final TokenEpochService tokenEpochs;
+    private final LastLoginRecorder lastLogins;
+    private final CacheInvalidationService cacheInvalidation;
     private final AuthService authServiceProxy;
 
     public AuthServiceImpl(UserRepository users, MerchantRepository merchants, RoleRepository roles,
             UserRoleRepository userRoles, CustomerRepository customers, PasswordEncoder encoder, OtpService otpService,
             OtpAuditService otpAuditService, SmsService smsService, JwtTokenProvider jwt,
-            OtpLogRepository otpLogRepository, ValidationService validationService,
-            SecurityProperties securityProperties, @Lazy AuthService authServiceProxy) {
+            OtpRateLimiter otpRateLimiter, OtpStore otpStore, ValidationService validationService,
+            SecurityProperties securityProperties, PermissionGraphService permissionGraph,
+            TokenEpochService tokenEpochs, LastLoginRecorder lastLogins,
+            CacheInvalidationService cacheInvalidation, @Lazy AuthService authServiceProxy) {
         this.users = users;
         this.merchants = merchants;
         this.roles = roles;
@@ -100,9 +118,14 @@ public class AuthServiceImpl implements AuthService {
         this.otpAuditService = otpAuditService;
         this.smsService = smsService;
         this.jwt = jwt;
-        this.otpLogRepository = otpLogRepository;
+        this.otpRateLimiter = otpRateLimiter;
+        this.otpStore = otpStore;
         this.validationService = validationService;
         this.securityProperties = securityProperties;
+        this.permissionGraph = permissionGraph;
+        this.tokenEpochs = tokenEpochs;
+        this.lastLogins = lastLogins;
+        this.cacheInvalidation = cacheInvalidation;
         this.authServiceProxy = authServiceProxy;
     }
 
@@ -462,21 +485,17 @@ public class AuthServiceImpl implements AuthService {
         // 1. INPUT VALIDATION FIRST (before any business logic)
         validateLoginInputs(req);
 
-        // 2. BUSINESS VALIDATION
-        User user = findUserForLogin(req);
+        // 2. BUSINESS VALIDATION - one query returns everything the login needs
+        LoginUserData user = findUserForLogin(req);
 
         // 3. VERIFY PASSWORD
-        verifyPassword(user, req.getPassword());
+        verifyPassword(user, req);
 
-        // 4. UPDATE LAST LOGIN TIMESTAMP AND TRACK LOGIN METHOD
-        user.setLastLoginAt(LocalDateTime.now());
-        user.setPreferredLoginMethod("password"); // Track that password was used
-        users.save(user);
-
-        Integer customerId = getCustomerId(user, req.getMerchantId());
+        // 4. RECORD LAST LOGIN AND LOGIN METHOD (written asynchronously)
+        lastLogins.record(user.getUserId(), "password");
 
         log.info("Login successful for user: {} (type: {})", user.getUserId(), user.getUserType());
-        return buildTokens(user, req.getMerchantId(), customerId, true);
+        return buildTokens(user, req.getMerchantId());
     }
     
     private void validateLoginInputs(AuthRequest req) {
@@ -505,11 +524,11 @@ public class AuthServiceImpl implements AuthService {
         }
     }
 
-    private User findUserForLogin(AuthRequest req) {
+    private LoginUserData findUserForLogin(AuthRequest req) {
         if (Integer.valueOf(0).equals(req.getMerchantId())) {
             return findMerchantOrAdminUser(req.getUsername());
         } else if (req.getMerchantId() > 0) {
-            return users.findByPhoneAndMerchant_MerchantId(req.getUsername(), req.getMerchantId())
+            return users.findLoginUserData(req.getUsername(), req.getMerchantId())
                     .orElseThrow(() -> new MobileNotRegisteredException(
                             "Mobile number not registered"));
         } else {
@@ -517,9 +536,8 @@ public class AuthServiceImpl implements AuthService {
         }
     }
 
-    private User findMerchantOrAdminUser(String username) {
-        User user = users.findByUsername(username)
-                .filter(u -> ROLE_MERCHANT.equals(u.getUserType()) || ROLE_SUPER_ADMIN.equals(u.getUserType()))
+    private LoginUserData findMerchantOrAdminUser(String username) {
+        LoginUserData user = users.findAdminLoginUserData(username)
                 .orElseThrow(() -> new InvalidCredentialsException(
                         "Invalid username or password. Please check your credentials."));
 
@@ -529,13 +547,30 @@ public class AuthServiceImpl implements AuthService {
         return user;
     }
 
-    private void verifyPassword(User user, String password) {
-        if (user.getPasswordHash() == null || user.getPasswordHash().trim().isEmpty()) {
+    private void verifyPassword(LoginUserData user, AuthRequest req) {
+        String passwordHash = user.getPasswordHash();
+        if (passwordHash == null || passwordHash.trim().isEmpty()) {
             throw new ValidationException("Account setup incomplete. Please contact support.");
         }
-        if (!encoder.matches(password, user.getPasswordHash())) {
+        if (!encoder.matches(req.getPassword(), passwordHash)) {
             throw new InvalidCredentialsException("Invalid password. Please check your credentials.");
         }
+        // Move the stored hash to the configured algorithm/cost
+        if (encoder.upgradeEncoding(passwordHash)) {
+            try {
+                users.updatePasswordHash(user.getUserId(), encoder.encode(req.getPassword()));
+                cacheInvalidation.evict(CacheNames.LOGIN_USER_DATA, List.of(loginCacheKey(req)));
+                log.info("Password hash upgraded for user: {}", user.getUserId());
+            } catch (ServiceUnavailableException e) {
+                log.debug("Password hash upgrade deferred for user {}: {}", user.getUserId(), e.getMessage());
+            }
+        }
+    }
+
+    private String loginCacheKey(AuthRequest req) {
+        return Integer.valueOf(0).equals(req.getMerchantId())
+                ? CacheKeys.adminLogin(req.getUsername())
+                : CacheKeys.phoneLogin(req.getUsername(), req.getMerchantId());
     }
 
     private User findUserByPhoneAndMerchantId(String phone, Integer merchantId) {
@@ -556,9 +591,9 @@ public class AuthServiceImpl implements AuthService {
             if (jwt.isTokenBlacklisted(req.getRefreshToken())) {
                 throw new InvalidCredentialsException("Token has been revoked. Please login again.");
             }
-            Claims claims = jwt.parse(req.getRefreshToken());
-            Integer userId = Integer.valueOf(claims.getSubject());
-            Integer merchantId = (Integer) claims.get("merchantId");
+            VerifiedToken verified = jwt.verify(req.getRefreshToken());
+            Integer userId = verified.userId();
+            Integer merchantId = verified.merchantId();
             User user = users.findById(userId)
                     .orElseThrow(() -> new UserNotFoundException("User not found for token refresh."));
 
@@ -590,20 +625,64 @@ public class AuthServiceImpl implements AuthService {
                 : actualMerchantId;
         String firstName = includeFirstName ? resolveFirstName(user, customerId, actualMerchantId) : null;
 
-        List<String> roleNames;
-        List<String> permissionNames;
+        PermissionGraph.Grant grant;
         try {
-            roleNames = userRoles.findRoleNames(user.getUserId(), queryMerchantId);
-            permissionNames = userRoles.findPermissionNames(user.getUserId(), queryMerchantId);
+            grant = permissionGraph.resolve(user.getUserId(), queryMerchantId);
         } catch (Exception e) {
             log.warn("Error fetching roles/permissions for user {}: {}", user.getUserId(), e.getMessage());
-            roleNames = List.of(getDefaultRoleForUserType(user.getUserType()));
-            permissionNames = List.of();
+            grant = null;
+        }
+        int tokenEpoch = user.getTokenEpoch() != null ? user.getTokenEpoch() : 0;
+        return issueTokens(user.getUserId(), user.getUserType(), user.getPhone(), actualMerchantId, customerId,
+                firstName, grant, tokenEpoch);
+    }
+
+    /**
+     * Tokens for a password login, built from the login projection alone:
+     * role names and permissions come from the in-memory permission graph.
+     */
+    private AuthResponse buildTokens(LoginUserData user, Integer merchantId) {
+        Integer actualMerchantId = Integer.valueOf(0).equals(merchantId)
+                ? (user.getMerchantId() != null ? user.getMerchantId() : 0)
+                : merchantId;
+        Integer customerId = ROLE_CUSTOMER.equals(user.getUserType()) && merchantId != null && merchantId > 0
+                ? user.getCustomerId() : null;
+        String firstName = user.getFirstName();
+        if (isBlank(firstName) && customerId != null && user.getCustomerFirstName() != null) {
+            firstName = user.getCustomerFirstName();
+        }
+
+        PermissionGraph.Grant grant;
+        try {
+            grant = permissionGraph.current().resolve(parseRoleIds(user.getRoleIds()));
+        } catch (Exception e) {
+            log.warn("Error fetching roles/permissions for user {}: {}", user.getUserId(), e.getMessage());
+            grant = null;
         }
+        return issueTokens(user.getUserId(), user.getUserType(), user.getPhone(), actualMerchantId, customerId,
+                firstName, grant, tokenEpochs.currentEpoch(user.getUserId()));
+    }
+
+    private List<Integer> parseRoleIds(String roleIds) {
+        if (isBlank(roleIds)) {
+            return List.of();
+        }
+        List<Integer> ids = new ArrayList<>();
+        for (String id : roleIds.split(",")) {
+            ids.add(Integer.valueOf(id.trim()));
+        }
+        return ids;
+    }
+
+    private AuthResponse issueTokens(Integer userId, String userType, String phone, Integer actualMerchantId,
+                                     Integer customerId, String firstName, PermissionGraph.Grant grant,
+                                     int tokenEpoch) {
+        List<String> roleNames = grant != null ? grant.roles() : null;
+        List<String> permissionNames = grant != null ? grant.permissions() : null;
 
         // Handle users without roles - assign default role based on userType
         if (roleNames == null || roleNames.isEmpty()) {
-            String defaultRole = getDefaultRoleForUserType(user.getUserType());
+            String defaultRole = getDefaultRoleForUserType(userType);
             roleNames = List.of(defaultRole);
         }
 
@@ -612,18 +691,19 @@ public class AuthServiceImpl implements AuthService {
             permissionNames = List.of();
         }
 
-        String accessToken = jwt.createAccessToken(user.getUserId(), actualMerchantId, roleNames, permissionNames);
-        String refreshToken = jwt.createRefreshToken(user.getUserId(), actualMerchantId);
+        String accessToken = jwt.createAccessToken(userId, actualMerchantId, roleNames, permissionNames,
+                tokenEpoch);
+        String refreshToken = jwt.createRefreshToken(userId, actualMerchantId, tokenEpoch);
 
         AuthResponse response = new AuthResponse();
         response.setAccessToken(accessToken);
         response.setRefreshToken(refreshToken);
         response.setExpiresIn(86400);
-        response.setUserId(user.getUserId());
+        response.setUserId(userId);
         response.setMerchantId(actualMerchantId);
         response.setCustomerId(customerId);
         response.setFirstName(firstName);
-        response.setPhone(user.getPhone());
+        response.setPhone(phone);
         response.setRoles(roleNames);
         return response;
     }
@@ -665,30 +745,6 @@ public class AuthServiceImpl implements AuthService {
         }
         return user.getMerchant() != null ? user.getMerchant().getMerchantId() : null;
     }
-    private boolean isOtpValid(String inputOtp, String storedOtp) {
-        if (inputOtp == null || storedOtp == null)
-            return false;
-
-        // Constant-time comparison to prevent timing attacks
-        try {
-            // Normalize both OTPs to same format
-            int inputNum = Integer.parseInt(inputOtp);
-            int storedNum = Integer.parseInt(storedOtp);
-            String normalizedInput = String.format("%06d", inputNum);
-            String normalizedStored = String.format("%06d", storedNum);
-
-            // Use constant-time comparison
-            return java.security.MessageDigest.isEqual(
-                    normalizedInput.getBytes(java.nio.charset.StandardCharsets.UTF_8),
-                    normalizedStored.getBytes(java.nio.charset.StandardCharsets.UTF_8));
-        } catch (NumberFormatException e) {
-            // Fallback to constant-time string comparison
-            return java.security.MessageDigest.isEqual(
-                    inputOtp.getBytes(java.nio.charset.StandardCharsets.UTF_8),
-                    storedOtp.getBytes(java.nio.charset.StandardCharsets.UTF_8));
-        }
-    }
-
     private void validateUserRoleForOtp(User user, Integer merchantId) {
         if (merchantId == null || merchantId == 0) {
             if (log.isDebugEnabled()) {
@@ -733,13 +789,11 @@ public class AuthServiceImpl implements AuthService {
     }
 
     private void validateOtpRateLimit(String phone, String otpType) {
-        LocalDateTime timeLimit = LocalDateTime.now().minusMinutes(AppConstants.OTP_RATE_LIMIT_WINDOW_MINUTES);
-        int recentRequests = otpLogRepository.countByPhoneAndCreatedOnAfter(phone, timeLimit);
-
-        if (recentRequests >= AppConstants.OTP_RATE_LIMIT_REQUESTS) {
+        if (!otpRateLimiter.tryAcquire(phone, otpType)) {
             if (log.isWarnEnabled()) {
-                log.warn("Rate limit exceeded for phone: {}, type: {}, requests: {} in last {} minutes",
-                        maskPhone(phone), otpType, recentRequests, AppConstants.OTP_RATE_LIMIT_WINDOW_MINUTES);
+                log.warn("Rate limit exceeded for phone: {}, type: {}, limit: {} in {} minutes",
+                        maskPhone(phone), otpType, AppConstants.OTP_RATE_LIMIT_REQUESTS,
+                        AppConstants.OTP_RATE_LIMIT_WINDOW_MINUTES);
             }
 
             String errorMessage = String.format(
@@ -750,15 +804,6 @@ public class AuthServiceImpl implements AuthService {
         }
     }
 
-    private void invalidateExistingOtp(User user) {
-        if (user.getOtpCode() != null) {
-            clearOtpData(user);
-            if (log.isDebugEnabled()) {
-                log.debug("Cleared existing OTP for user: {}", user.getUserId());
-            }
-        }
-    }
-
     private String generateOtp() {
         return otpService.generateOtp();
     }
@@ -767,16 +812,40 @@ public class AuthServiceImpl implements AuthService {
         return LocalDateTime.now().plusMinutes(AppConstants.OTP_EXPIRY_MINUTES);
     }
 
-    private boolean sendOtpByType(String phone, String otpCode) {
-        return smsService.sendOtp(phone, otpCode);
+    private boolean sendOtpByType(String phone, String otpCode, LocalDateTime expiresAt) {
+        return smsService.sendOtp(phone, otpCode, expiresAt);
     }
 
     private void clearOtpData(User user) {
-        user.setOtpCode(null);
-        user.setOtpExpiresAt(null);
-        user.setOtpAttempts(0);
-        user.setOtpUsed(false);
-        users.save(user);
+        otpStore.remove(user.getUserId());
+    }
+
+    private int recordFailedOtpAttempt(User user) {
+        return otpStore.recordFailedAttempt(user.getUserId());
+    }
+
+    /**
+     * Single-use guard: of several concurrent verifications of the same code
+     * only the one that removes it from the store may proceed.
+     */
+    private void consumeOtp(User user, OtpStore.Challenge challenge, String maskedPhone) {
+        if (!otpStore.consume(user.getUserId(), challenge.otpCode())) {
+            log.warn("OTP replay attack detected for phone: {}", maskedPhone);
+            throw new OtpInvalidException("This OTP has already been used. Please request a new OTP.");
+        }
+    }
+
+    /**
+     * For checks that do not consume the code: concurrent wrong guesses may
+     * have used up the challenge while this one was being compared.
+     */
+    private void requireLiveChallenge(User user, OtpStore.Challenge challenge, String maskedPhone) {
+        OtpStore.Challenge current = otpStore.find(user.getUserId()).orElse(null);
+        if (current == null || !current.otpCode().equals(challenge.otpCode())
+                || current.attempts() >= AppConstants.OTP_MAX_ATTEMPTS) {
+            log.warn("OTP challenge used up during verification for phone: {}", maskedPhone);
+            throw new OtpAttemptsExceededException("OTP verification attempts exceeded");
+        }
     }
 
     private String generateRandomPassword() {
@@ -828,14 +897,8 @@ public class AuthServiceImpl implements AuthService {
     @Transactional
     public void logout(Integer userId) {
         try {
-            org.springframework.security.core.Authentication auth = org.springframework.security.core.context.SecurityContextHolder
-                    .getContext().getAuthentication();
-            if (auth != null && auth.getCredentials() instanceof String token) {
-                jwt.blacklistToken(token);
-                if (log.isDebugEnabled()) {
-                    log.debug("Token blacklisted for user: {}", userId);
-                }
-            }
+            // Bumping the epoch revokes every access and refresh token issued to the user
+            tokenEpochs.revokeAll(userId);
 
             org.springframework.security.core.context.SecurityContextHolder.clearContext();
 
@@ -872,7 +935,6 @@ public class AuthServiceImpl implements AuthService {
 
             checkPhoneBlockStatus(req.getPhone(), req.getMerchantId(), maskedPhone);
             validateOtpRateLimitForRequest(req.getPhone(), otpType);
-            invalidateExistingOtpSafely(user);
 
             String otpCode = generateOtp();
             LocalDateTime expiresAt = getExpiryByType();
@@ -882,44 +944,39 @@ public class AuthServiceImpl implements AuthService {
 
             // SECURITY: Environment-aware OTP storage
             // DEVELOPMENT MODE: Store plaintext OTP (for easier testing/debugging)
-            // PRODUCTION MODE: Should hash OTP before storage (future enhancement)
+            // PRODUCTION MODE: Store an HMAC of the OTP; the audit log gets no code either
+            String storedOtp;
+            String auditOtp;
             if (securityProperties.isHashOtp()) {
-                // TODO: Production mode - hash OTP before storage
-                // user.setOtpCode(encoder.encode(otpCode));
-                log.warn("OTP hashing is enabled but not yet implemented. Storing plaintext for now.");
-                user.setOtpCode(otpCode);
+                storedOtp = otpService.hashOtp(otpCode);
+                auditOtp = MASKED_OTP;
             } else {
-                // Development mode - store plaintext
                 if (securityProperties.isDevelopmentMode()) {
                     log.debug("DEVELOPMENT MODE: Storing OTP in plaintext for phone: {}", maskedPhone);
                 }
-                user.setOtpCode(otpCode);
+                storedOtp = otpCode;
+                auditOtp = otpCode;
             }
 
-            user.setOtpExpiresAt(expiresAt);
-            user.setOtpAttempts(0);
-            user.setOtpUsed(false);
-            users.save(user);
+            // Replaces any OTP issued earlier
+            otpStore.save(user.getUserId(), new OtpStore.Challenge(storedOtp, expiresAt, 0));
 
             if (log.isDebugEnabled()) {
                 log.debug("OTP stored successfully for user: {} (hashOtp={})",
                     user.getUserId(), securityProperties.isHashOtp());
             }
 
-            boolean smsSent = sendOtpByType(req.getPhone(), otpCode);
-            String status = smsSent ? "sent" : "send_failed";
-
-            if (log.isDebugEnabled()) {
-                log.debug("SMS send result for phone: {}, status: {}", maskedPhone, status);
-            }
+            // Audit first so a delivery failure reported by the SMS pipeline always
+            // finds the row to mark as send_failed
+            logOtpAudit(user, req, auditOtp, otpType, "sent", expiresAt, maskedPhone);
 
-            logOtpAudit(user, req, otpCode, otpType, status, expiresAt, maskedPhone);
-
-            if (!smsSent) {
+            // Only queues the message; delivery happens in the background
+            if (!sendOtpByType(req.getPhone(), otpCode, expiresAt)) {
+                otpAuditService.updateOtpUndelivered(req.getPhone(), "outbox full");
                 throw new ServiceUnavailableException("SMS service temporarily unavailable. Please try again.");
             }
 
-            log.info("OTP sent successfully to phone: {}, type: {}", maskedPhone, otpType);
+            log.info("OTP queued for delivery to phone: {}, type: {}", maskedPhone, otpType);
 
         } catch (RuntimeException e) {
             log.warn("OTP request failed for otpType: {}", otpType);
@@ -983,14 +1040,6 @@ public class AuthServiceImpl implements AuthService {
         }
     }
 
-    private void invalidateExistingOtpSafely(User user) {
-        try {
-            invalidateExistingOtp(user);
-        } catch (Exception e) {
-            log.warn("Failed to invalidate existing OTP, continuing with request");
-        }
-    }
-
     @Override
     @Transactional
     public String verifyOtpWithStatus(OtpVerifyRequest req) {
@@ -1024,13 +1073,14 @@ public class AuthServiceImpl implements AuthService {
         }
 
         // 3. CHECK IF OTP REQUEST EXISTS
-        if (user.getOtpCode() == null) {
+        OtpStore.Challenge challenge = otpStore.find(user.getUserId()).orElse(null);
+        if (challenge == null) {
             log.warn("No OTP request found for phone: {}", maskedPhone);
             throw new OtpNotFoundException("OTP not requested");
         }
 
         // 4. CHECK IF OTP IS EXPIRED (before checking attempts or validity)
-        if (user.getOtpExpiresAt() == null || user.getOtpExpiresAt().isBefore(LocalDateTime.now())) {
+        if (challenge.expiresAt().isBefore(LocalDateTime.now())) {
             log.warn("OTP expired for phone: {}", maskedPhone);
             otpAuditService.updateOtpExpired(req.getPhone());
             clearOtpData(user);
@@ -1038,8 +1088,7 @@ public class AuthServiceImpl implements AuthService {
         }
 
         // 5. CHECK ATTEMPT LIMIT
-        Integer otpAttempts = user.getOtpAttempts();
-        int currentAttempts = otpAttempts != null ? otpAttempts : 0;
+        int currentAttempts = challenge.attempts();
         if (currentAttempts >= AppConstants.OTP_MAX_ATTEMPTS) {
             log.warn("OTP attempts exceeded for phone: {}", maskedPhone);
             otpAuditService.updateOtpFailed(req.getPhone(), currentAttempts);
@@ -1048,16 +1097,20 @@ public class AuthServiceImpl implements AuthService {
         }
 
         // 6. VERIFY OTP
-        if (!isOtpValid(req.getOtp(), user.getOtpCode())) {
+        if (!otpService.verifyOtp(req.getOtp(), challenge.otpCode())) {
             // Increment attempt counter
-            user.setOtpAttempts(currentAttempts + 1);
-            users.save(user);
-            otpAuditService.updateOtpFailed(req.getPhone(), currentAttempts + 1);
-            log.warn(INVALID_OTP_ATTEMPT_LOG, currentAttempts + 1, maskedPhone);
+            int attempts = recordFailedOtpAttempt(user);
+            otpAuditService.updateOtpFailed(req.getPhone(), attempts);
+            log.warn(INVALID_OTP_ATTEMPT_LOG, attempts, maskedPhone);
+            if (attempts >= AppConstants.OTP_MAX_ATTEMPTS) {
+                // The store dropped the challenge on reaching the limit
+                throw new OtpAttemptsExceededException("OTP verification attempts exceeded");
+            }
             throw new InvalidOtpException("Invalid OTP");
         }
 
         // 7. SUCCESS - Mark as used but don't clear yet (verifyOtp will handle that)
+        requireLiveChallenge(user, challenge, maskedPhone);
         log.info("OTP verification successful for phone: {}", maskedPhone);
         return "SUCCESS";
     }
@@ -1074,29 +1127,23 @@ public class AuthServiceImpl implements AuthService {
         try {
             User user = findUserByPhoneAndMerchantId(req.getPhone(), req.getMerchantId());
 
-            // CHECK 1: OTP exists
-            if (user.getOtpCode() == null) {
+            // CHECK 1: OTP exists (a used OTP is removed, so replays fail here)
+            OtpStore.Challenge challenge = otpStore.find(user.getUserId()).orElse(null);
+            if (challenge == null) {
                 log.warn("No active OTP found for phone: {}", maskedPhone);
                 throw new OtpNotFoundException("No OTP found. Please request a new OTP.");
             }
 
-            // CHECK 2: OTP not already used (Replay attack protection)
-            if (Boolean.TRUE.equals(user.getOtpUsed())) {
-                log.warn("OTP replay attack detected for phone: {}", maskedPhone);
-                throw new OtpInvalidException("This OTP has already been used. Please request a new OTP.");
-            }
-
-            // CHECK 3: OTP not expired
-            if (user.getOtpExpiresAt() == null || user.getOtpExpiresAt().isBefore(LocalDateTime.now())) {
+            // CHECK 2: OTP not expired
+            if (challenge.expiresAt().isBefore(LocalDateTime.now())) {
                 otpAuditService.updateOtpExpired(req.getPhone());
                 clearOtpData(user);
                 log.warn("Expired OTP verification attempt for phone: {}", maskedPhone);
                 throw new OtpExpiredException("OTP has expired. Please request a new OTP.");
             }
 
-            // CHECK 4: Max attempts not exceeded
-            Integer otpAttempts = user.getOtpAttempts();
-            int currentAttempts = otpAttempts != null ? otpAttempts : 0;
+            // CHECK 3: Max attempts not exceeded
+            int currentAttempts = challenge.attempts();
             if (currentAttempts >= AppConstants.OTP_MAX_ATTEMPTS) {
                 otpAuditService.updateOtpFailed(req.getPhone(), currentAttempts);
                 clearOtpData(user);
@@ -1104,24 +1151,25 @@ public class AuthServiceImpl implements AuthService {
                 throw new OtpAttemptsExceededException("Too many failed attempts. Please request a new OTP.");
             }
 
-            // CHECK 5: OTP matches
-            if (!isOtpValid(req.getOtp(), user.getOtpCode())) {
-                user.setOtpAttempts(currentAttempts + 1);
-                users.save(user);
-                otpAuditService.updateOtpFailed(req.getPhone(), currentAttempts + 1);
-                log.warn(INVALID_OTP_ATTEMPT_LOG, currentAttempts + 1, maskedPhone);
+            // CHECK 4: OTP matches
+            if (!otpService.verifyOtp(req.getOtp(), challenge.otpCode())) {
+                int attempts = recordFailedOtpAttempt(user);
+                otpAuditService.updateOtpFailed(req.getPhone(), attempts);
+                log.warn(INVALID_OTP_ATTEMPT_LOG, attempts, maskedPhone);
+                if (attempts >= AppConstants.OTP_MAX_ATTEMPTS) {
+                    // The store dropped the challenge on reaching the limit
+                    throw new OtpAttemptsExceededException("Too many failed attempts. Please request a new OTP.");
+                }
                 throw new InvalidOtpException("Invalid OTP. Please try again.");
             }
 
+            consumeOtp(user, challenge, maskedPhone);
+
             Integer merchantId = user.getMerchant() != null ? user.getMerchant().getMerchantId() : req.getMerchantId();
             otpAuditService.logOtpVerified(req.getPhone(), merchantId);
 
-            // Mark OTP as used, update last login timestamp, and track login method
-            user.setOtpUsed(true);
-            user.setLastLoginAt(LocalDateTime.now());
-            user.setPreferredLoginMethod("otp"); // Track that OTP was used
-            users.save(user);
-            clearOtpData(user);
+            // Last login timestamp and login method are written behind
+            lastLogins.record(user.getUserId(), "otp");
 
             Integer customerId = getCustomerId(user, merchantId);
 
@@ -1194,13 +1242,14 @@ public class AuthServiceImpl implements AuthService {
         }
 
         // 3. CHECK IF OTP REQUEST EXISTS
-        if (user.getOtpCode() == null) {
+        OtpStore.Challenge challenge = otpStore.find(user.getUserId()).orElse(null);
+        if (challenge == null) {
             log.warn("No OTP request found for phone: {}", maskedPhone);
             throw new OtpNotFoundException("OTP not requested");
         }
 
         // 4. CHECK IF OTP IS EXPIRED (before checking attempts or validity)
-        if (user.getOtpExpiresAt() == null || user.getOtpExpiresAt().isBefore(LocalDateTime.now())) {
+        if (challenge.expiresAt().isBefore(LocalDateTime.now())) {
             log.warn("OTP expired for phone: {}", maskedPhone);
             otpAuditService.updateOtpExpired(req.getPhone());
             clearOtpData(user);
@@ -1208,8 +1257,7 @@ public class AuthServiceImpl implements AuthService {
         }
 
         // 5. CHECK ATTEMPT LIMIT
-        Integer otpAttempts = user.getOtpAttempts();
-        int currentAttempts = otpAttempts != null ? otpAttempts : 0;
+        int currentAttempts = challenge.attempts();
         if (currentAttempts >= AppConstants.OTP_MAX_ATTEMPTS) {
             log.warn("OTP attempts exceeded for phone: {}", maskedPhone);
             otpAuditService.updateOtpFailed(req.getPhone(), currentAttempts);
@@ -1218,24 +1266,24 @@ public class AuthServiceImpl implements AuthService {
         }
 
         // 6. VERIFY OTP
-        if (!isOtpValid(req.getOtp(), user.getOtpCode())) {
+        if (!otpService.verifyOtp(req.getOtp(), challenge.otpCode())) {
             // Increment attempt counter
-            user.setOtpAttempts(currentAttempts + 1);
-            users.save(user);
-            otpAuditService.updateOtpFailed(req.getPhone(), currentAttempts + 1);
-            log.warn(INVALID_OTP_ATTEMPT_LOG, currentAttempts + 1, maskedPhone);
+            int attempts = recordFailedOtpAttempt(user);
+            otpAuditService.updateOtpFailed(req.getPhone(), attempts);
+            log.warn(INVALID_OTP_ATTEMPT_LOG, attempts, maskedPhone);
+            if (attempts >= AppConstants.OTP_MAX_ATTEMPTS) {
+                // The store dropped the challenge on reaching the limit
+                throw new OtpAttemptsExceededException("OTP verification attempts exceeded");
+            }
             throw new InvalidOtpException("Invalid OTP");
         }
 
-        // 7. SUCCESS - Log audit and generate tokens
+        // 7. SUCCESS - Consume the OTP, log audit and generate tokens
+        consumeOtp(user, challenge, maskedPhone);
+
         Integer merchantId = user.getMerchant() != null ? user.getMerchant().getMerchantId() : req.getMerchantId();
         otpAuditService.logOtpVerified(req.getPhone(), merchantId);
 
-        // Mark OTP as used and clear
-        user.setOtpUsed(true);
-        users.save(user);
-        clearOtpData(user);
-
         Integer customerId = getCustomerId(user, merchantId);
 
         log.info("OTP verified successfully for phone: {}", maskedPhone);
@@ -1275,13 +1323,14 @@ public class AuthServiceImpl implements AuthService {
         }
 
         // 3. CHECK IF OTP REQUEST EXISTS
-        if (user.getOtpCode() == null) {
+        OtpStore.Challenge challenge = otpStore.find(user.getUserId()).orElse(null);
+        if (challenge == null) {
             log.warn("No OTP request found for password reset phone: {}", maskedPhone);
             throw new OtpNotFoundException("OTP not requested");
         }
 
         // 4. CHECK IF OTP IS EXPIRED (before checking attempts or validity)
-        if (user.getOtpExpiresAt() == null || user.getOtpExpiresAt().isBefore(LocalDateTime.now())) {
+        if (challenge.expiresAt().isBefore(LocalDateTime.now())) {
             log.warn("OTP expired for phone: {}", maskedPhone);
             otpAuditService.updateOtpExpired(req.getPhone());
             clearOtpData(user);
@@ -1289,8 +1338,7 @@ public class AuthServiceImpl implements AuthService {
         }
 
         // 5. CHECK ATTEMPT LIMIT
-        Integer otpAttempts = user.getOtpAttempts();
-        int currentAttempts = otpAttempts != null ? otpAttempts : 0;
+        int currentAttempts = challenge.attempts();
         if (currentAttempts >= AppConstants.OTP_MAX_ATTEMPTS) {
             log.warn("OTP attempts exceeded for phone: {}", maskedPhone);
             otpAuditService.updateOtpFailed(req.getPhone(), currentAttempts);
@@ -1299,21 +1347,24 @@ public class AuthServiceImpl implements AuthService {
         }
 
         // 6. VERIFY OTP
-        if (!isOtpValid(req.getOtp(), user.getOtpCode())) {
-            user.setOtpAttempts(currentAttempts + 1);
-            users.save(user);
-            otpAuditService.updateOtpFailed(req.getPhone(), currentAttempts + 1);
-            log.warn(INVALID_OTP_ATTEMPT_LOG, currentAttempts + 1, maskedPhone);
+        if (!otpService.verifyOtp(req.getOtp(), challenge.otpCode())) {
+            int attempts = recordFailedOtpAttempt(user);
+            otpAuditService.updateOtpFailed(req.getPhone(), attempts);
+            log.warn(INVALID_OTP_ATTEMPT_LOG, attempts, maskedPhone);
+            if (attempts >= AppConstants.OTP_MAX_ATTEMPTS) {
+                // The store dropped the challenge on reaching the limit
+                throw new OtpAttemptsExceededException("OTP verification attempts exceeded");
+            }
             throw new InvalidOtpException("Invalid OTP");
         }
 
+        consumeOtp(user, challenge, maskedPhone);
+
         Integer merchantId = user.getMerchant() != null ? user.getMerchant().getMerchantId() : req.getMerchantId();
         otpAuditService.logOtpVerified(req.getPhone(), merchantId);
 
-        user.setOtpUsed(true);
         issuePasswordResetToken(user);
         users.save(user);
-        clearOtpData(user);
 
         log.info("Password reset token issued for phone: {}", maskedPhone);
         return new PasswordResetTokenResponse(user.getPasswordResetToken(), user.getPasswordResetExpiresAt());
@@ -1356,6 +1407,8 @@ public class AuthServiceImpl implements AuthService {
         user.setPasswordResetToken(null);
         user.setPasswordResetExpiresAt(null);
         users.save(user);
+        // Sessions opened with the old password must not survive the reset
+        tokenEpochs.revokeAll(user.getUserId());
 
         return ResponseEntity.ok(ResponseBuilder.success(HttpResponseUtil.OK,
                 ResponseMessages.User.PASSWORD_CHANGED));
@@ -0,0 +1,252 @@
+package com.cloudkitchen.rbac.service.impl;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.cloudkitchen.rbac.dto.common.ExportFormat;
+import com.cloudkitchen.rbac.dto.customer.CustomerImportRow;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Reads customer records one at a time from an NDJSON or CSV upload, so an
+ * import never holds more than the current record in memory. Lines are read
+ * with a length cap: a line longer than {@link #MAX_RECORD_LENGTH} is skipped
+ * and reported as a row error rather than buffered.
+ *
+ * CSV input starts with a header row naming the columns ({@code phone},
+ * {@code firstName} or {@code first_name}, ...); unknown columns are ignored.
+ * Quoted values may contain commas, doubled quotes and line breaks. A
+ * leading quote that the customer export added to keep spreadsheets from
+ * evaluating a value as a formula is removed again.
+ */
+final class CustomerImportReader implements Closeable {
+
+    /**
+     * A record read from the upload, or the reason it could not be read.
+     *
+     * @param number line the record starts on, counting the CSV header
+     */
+    record Line(long number, CustomerImportRow row, String error) {
+    }
+
+    // Longest line or CSV record accepted; bounds memory when a newline or closing quote never comes
+    static final int MAX_RECORD_LENGTH = 64 * 1024;
+    private static final String TOO_LONG = "Record is longer than " + MAX_RECORD_LENGTH + " characters";
+
+    private final BufferedReader reader;
+    private final ExportFormat format;
+    private final ObjectReader jsonReader;
+    private final List<String> columns;
+    private final StringBuilder lineBuffer = new StringBuilder();
+    private long lineNumber;
+    private long recordStart;
+    // Set by readLine when the line exceeded MAX_RECORD_LENGTH; its text was discarded
+    private boolean lineTooLong;
+
+    /**
+     * @throws IllegalArgumentException if a CSV upload has no header with a phone column
+     */
+    CustomerImportReader(ExportFormat format, InputStream input, ObjectMapper objectMapper) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        this.format = format;
+        this.jsonReader = objectMapper.readerFor(CustomerImportRow.class);
+        this.columns = format == ExportFormat.CSV ? readHeader() : List.of();
+    }
+
+    /**
+     * @return the next record, or null at the end of the upload
+     * @throws IllegalArgumentException if a quoted CSV value runs past the maximum record length,
+     *                                  after which the rest of the upload cannot be split into records
+     */
+    Line next() throws IOException {
+        while (true) {
+            long start = lineNumber + 1;
+            recordStart = start;
+            if (format == ExportFormat.NDJSON) {
+                String text = readLine();
+                if (text == null) {
+                    return null;
+                }
+                lineNumber++;
+                if (lineTooLong) {
+                    return new Line(start, null, TOO_LONG);
+                }
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new Line(start, jsonReader.readValue(text), null);
+                } catch (JsonProcessingException e) {
+                    return new Line(start, null, "Malformed JSON");
+                }
+            }
+            List<String> values = readCsvRecord();
+            if (values == null) {
+                return null;
+            }
+            if (lineTooLong) {
+                return new Line(start, null, TOO_LONG);
+            }
+            if (values.size() == 1 && values.get(0).isBlank()) {
+                continue;
+            }
+            return new Line(start, toRow(values), null);
+        }
+    }
+
+    /**
+     * @return the line the record being read, or last read, starts on
+     */
+    long currentLine() {
+        return recordStart;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private List<String> readHeader() throws IOException {
+        List<String> header = readCsvRecord();
+        if (header == null) {
+            throw new IllegalArgumentException("CSV import is empty; expected a header row");
+        }
+        if (lineTooLong) {
+            throw new IllegalArgumentException("CSV header is longer than " + MAX_RECORD_LENGTH + " characters");
+        }
+        List<String> names = new ArrayList<>(header.size());
+        for (String name : header) {
+            // Drop a UTF-8 byte order mark and accept snake_case headers
+            names.add(name.replace("\uFEFF", "").replace("_", "").trim().toLowerCase(Locale.ROOT));
+        }
+        if (!names.contains("phone")) {
+            throw new IllegalArgumentException("CSV header must include a phone column");
+        }
+        return names;
+    }
+
+    private CustomerImportRow toRow(List<String> values) {
+        CustomerImportRow row = new CustomerImportRow();
+        for (int i = 0; i < Math.min(columns.size(), values.size()); i++) {
+            String value = unguard(values.get(i));
+            switch (columns.get(i)) {
+                case "phone" -> row.setPhone(value);
+                case "firstname" -> row.setFirstName(value);
+                case "lastname" -> row.setLastName(value);
+                case "email" -> row.setEmail(value);
+                case "address" -> row.setAddress(value);
+                case "city" -> row.setCity(value);
+                case "state" -> row.setState(value);
+                case "country" -> row.setCountry(value);
+                case "pincode" -> row.setPincode(value);
+                default -> {
+                    // Columns such as customerId or createdAt from an export are ignored
+                }
+            }
+        }
+        return row;
+    }
+
+    private static String unguard(String value) {
+        if (value.length() > 1 && value.charAt(0) == '\'' && "=+-@\t\r".indexOf(value.charAt(1)) >= 0) {
+            return value.substring(1);
+        }
+        return value;
+    }
+
+    /**
+     * @return the record's values, null at the end of the upload, or an empty list
+     *         with {@link #lineTooLong} set if its first line was too long
+     */
+    private List<String> readCsvRecord() throws IOException {
+        String text = readLine();
+        if (text == null) {
+            return null;
+        }
+        lineNumber++;
+        if (lineTooLong) {
+            return List.of();
+        }
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        int length = text.length();
+        boolean quoted = false;
+        int i = 0;
+        while (true) {
+            if (i == text.length()) {
+                String more = quoted ? readLine() : null;
+                if (more == null) {
+                    break;
+                }
+                // A quoted value continues on the next line
+                lineNumber++;
+                length += more.length() + 1;
+                if (lineTooLong || length > MAX_RECORD_LENGTH) {
+                    // The closing quote may never come, so the rest of the upload cannot be split into records
+                    throw new IllegalArgumentException("CSV record is longer than " + MAX_RECORD_LENGTH
+                            + " characters");
+                }
+                value.append('\n');
+                text = more;
+                i = 0;
+                continue;
+            }
+            char c = text.charAt(i++);
+            if (quoted) {
+                if (c != '"') {
+                    value.append(c);
+                } else if (i < text.length() && text.charAt(i) == '"') {
+                    value.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    /**
+     * Like {@link BufferedReader#readLine()}, but keeps at most
+     * {@link #MAX_RECORD_LENGTH} characters: the rest of a longer line is
+     * consumed and dropped, and {@link #lineTooLong} is set.
+     */
+    private String readLine() throws IOException {
+        lineBuffer.setLength(0);
+        lineTooLong = false;
+        int c = reader.read();
+        if (c < 0) {
+            return null;
+        }
+        while (c >= 0 && c != '\n') {
+            if (lineBuffer.length() < MAX_RECORD_LENGTH) {
+                lineBuffer.append((char) c);
+            } else if (c != '\r') {
+                lineTooLong = true;
+            }
+            c = reader.read();
+        }
+        int end = lineBuffer.length();
+        if (end > 0 && lineBuffer.charAt(end - 1) == '\r') {
+            lineBuffer.setLength(end - 1);
+        }
+        return lineTooLong ? "" : lineBuffer.toString();
+    }
+}
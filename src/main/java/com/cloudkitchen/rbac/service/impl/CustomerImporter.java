@@ -0,0 +1,317 @@
+package com.cloudkitchen.rbac.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cloudkitchen.rbac.domain.entity.Role;
+import com.cloudkitchen.rbac.dto.common.ExportFormat;
+import com.cloudkitchen.rbac.dto.customer.CustomerImportResult;
+import com.cloudkitchen.rbac.dto.customer.CustomerImportRow;
+import com.cloudkitchen.rbac.exception.BusinessExceptions.MerchantNotFoundException;
+import com.cloudkitchen.rbac.repository.CustomerRepository;
+import com.cloudkitchen.rbac.repository.MerchantRepository;
+import com.cloudkitchen.rbac.repository.RoleRepository;
+import com.cloudkitchen.rbac.service.ValidationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Bulk-creates customers for one merchant from an NDJSON or CSV upload.
+ *
+ * The upload is read as a stream and handled {@code app.import.chunk-size}
+ * rows at a time. Each chunk is validated in parallel with the same rules as
+ * registration, checked against the merchant's existing phones with one
+ * query, and written in its own transaction as three JDBC batches (users,
+ * user_roles, customers). The user ids for the second and third batch come
+ * back from the first as generated keys, so there are no per-row lookups.
+ *
+ * Imported customers get no password and sign in with OTP, as registration
+ * would need a BCrypt hash per row. New users have nothing cached yet (missed
+ * login lookups are not cached), so bypassing the entity listeners leaves no
+ * stale cache entries.
+ */
+@Component
+public class CustomerImporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerImporter.class);
+
+    private static final String ROLE_CUSTOMER = "customer";
+    // users.address is narrower than customers.address
+    private static final int MAX_USER_ADDRESS_LENGTH = 250;
+    private static final int MAX_LOCALITY_LENGTH = 100;
+    private static final int MAX_PINCODE_LENGTH = 10;
+
+    private static final String INSERT_USER_SQL = "INSERT INTO users (merchant_id, phone, username, first_name, "
+            + "last_name, address, user_type, is_active, is_verified, phone_verified, email_verified, is_guest, "
+            + "token_epoch, created_by) VALUES (?, ?, ?, ?, ?, ?, 'customer', true, false, false, false, false, 0, ?)";
+    private static final String INSERT_USER_ROLE_SQL = "INSERT INTO user_roles (user_id, role_id, merchant_id, "
+            + "assigned_at, created_by) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_CUSTOMER_SQL = "INSERT INTO customers (merchant_id, user_id, phone, email, "
+            + "first_name, last_name, address, city, state, country, pincode, is_active, created_by, created_on, "
+            + "updated_on) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, true, ?, ?, ?)";
+
+    private final ValidationService validationService;
+    private final CustomerRepository customerRepository;
+    private final MerchantRepository merchantRepository;
+    private final RoleRepository roleRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public CustomerImporter(ValidationService validationService, CustomerRepository customerRepository,
+                            MerchantRepository merchantRepository, RoleRepository roleRepository,
+                            JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            ObjectMapper objectMapper, @Value("${app.import.chunk-size:1000}") int chunkSize) {
+        this.validationService = validationService;
+        this.customerRepository = customerRepository;
+        this.merchantRepository = merchantRepository;
+        this.roleRepository = roleRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Import customers for a merchant. Rows that fail validation or whose
+     * phone is already registered with the merchant are skipped and reported.
+     * If the upload breaks off or cannot be split into records part way
+     * through, the records read so far are still imported and the result is
+     * returned marked as aborted, since earlier chunks are already committed.
+     *
+     * @param importedBy user recorded as the creator of the new rows
+     * @throws MerchantNotFoundException if the merchant does not exist
+     * @throws IllegalArgumentException  if the upload has no usable CSV header
+     */
+    public CustomerImportResult importCustomers(Integer merchantId, Integer importedBy, ExportFormat format,
+                                                InputStream input) throws IOException {
+        if (!merchantRepository.existsById(merchantId)) {
+            throw new MerchantNotFoundException("Merchant with ID " + merchantId + " not found.");
+        }
+        Integer roleId = roleRepository.findByRoleName(ROLE_CUSTOMER)
+                .map(Role::getRoleId)
+                .orElseThrow(() -> new IllegalStateException(
+                        ROLE_CUSTOMER + " role not found. Please ensure roles are properly initialized."));
+
+        CustomerImportResult result = new CustomerImportResult();
+        try (CustomerImportReader reader = new CustomerImportReader(format, input, objectMapper)) {
+            List<CustomerImportReader.Line> chunk = new ArrayList<>(chunkSize);
+            try {
+                for (CustomerImportReader.Line line = reader.next(); line != null; line = reader.next()) {
+                    chunk.add(line);
+                    if (chunk.size() == chunkSize) {
+                        importChunk(merchantId, roleId, importedBy, chunk, result);
+                        chunk.clear();
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                result.abort(reader.currentLine(), e.getMessage());
+            } catch (IOException e) {
+                logger.warn("Customer import for merchant {} stopped reading at line {}: {}",
+                        merchantId, reader.currentLine(), e.getMessage());
+                result.abort(reader.currentLine(), "Failed to read upload");
+            }
+            if (!chunk.isEmpty()) {
+                importChunk(merchantId, roleId, importedBy, chunk, result);
+            }
+        }
+        logger.info("Customer import for merchant {}: {} received, {} imported, {} duplicates, {} failed{}",
+                merchantId, result.getReceived(), result.getImported(), result.getDuplicates(), result.getFailed(),
+                result.isAborted() ? "; " + result.getAbortReason() : "");
+        return result;
+    }
+
+    private void importChunk(Integer merchantId, Integer roleId, Integer importedBy,
+                             List<CustomerImportReader.Line> chunk, CustomerImportResult result) {
+        result.addReceived(chunk.size());
+        // Validation is CPU-only, so the chunk is checked across cores
+        List<String> errors = chunk.parallelStream().map(this::validate).toList();
+
+        // Keyed by phone, which also drops repeats within the chunk; repeats across
+        // chunks are caught by the existing-phone check once the earlier chunk commits
+        Map<String, CustomerImportRow> rows = new LinkedHashMap<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            CustomerImportReader.Line line = chunk.get(i);
+            if (errors.get(i) != null) {
+                result.addError(line.number(), errors.get(i));
+            } else if (rows.putIfAbsent(line.row().getPhone(), line.row()) != null) {
+                result.addDuplicate();
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        int imported;
+        try {
+            imported = write(merchantId, roleId, importedBy, rows, result);
+        } catch (DuplicateKeyException e) {
+            // A phone was registered between the check and the insert; check again and retry once
+            logger.debug("Retrying customer import chunk for merchant {} after concurrent registration", merchantId);
+            imported = write(merchantId, roleId, importedBy, rows, result);
+        }
+        result.addImported(imported);
+    }
+
+    private int write(Integer merchantId, Integer roleId, Integer importedBy,
+                      Map<String, CustomerImportRow> rows, CustomerImportResult result) {
+        Integer written = transactionTemplate.execute(status -> {
+            for (String phone : customerRepository.findRegisteredPhones(merchantId, rows.keySet())) {
+                if (rows.remove(phone) != null) {
+                    result.addDuplicate();
+                }
+            }
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            List<CustomerImportRow> batch = List.copyOf(rows.values());
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            List<Integer> userIds = insertUsers(merchantId, importedBy, batch);
+            jdbcTemplate.batchUpdate(INSERT_USER_ROLE_SQL, userIds, userIds.size(), (ps, userId) -> {
+                ps.setInt(1, userId);
+                ps.setInt(2, roleId);
+                ps.setInt(3, merchantId);
+                ps.setTimestamp(4, now);
+                setInteger(ps, 5, importedBy);
+            });
+            jdbcTemplate.batchUpdate(INSERT_CUSTOMER_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    CustomerImportRow row = batch.get(i);
+                    ps.setInt(1, merchantId);
+                    ps.setInt(2, userIds.get(i));
+                    ps.setString(3, row.getPhone());
+                    ps.setString(4, row.getEmail());
+                    ps.setString(5, row.getFirstName());
+                    ps.setString(6, row.getLastName());
+                    ps.setString(7, row.getAddress());
+                    ps.setString(8, row.getCity());
+                    ps.setString(9, row.getState());
+                    ps.setString(10, row.getCountry() != null ? row.getCountry() : "India");
+                    ps.setString(11, row.getPincode());
+                    setInteger(ps, 12, importedBy);
+                    ps.setTimestamp(13, now);
+                    ps.setTimestamp(14, now);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return batch.size();
+                }
+            });
+            return batch.size();
+        });
+        return written != null ? written : 0;
+    }
+
+    private List<Integer> insertUsers(Integer merchantId, Integer importedBy, List<CustomerImportRow> batch) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_USER_SQL, new String[] {"user_id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        CustomerImportRow row = batch.get(i);
+                        ps.setInt(1, merchantId);
+                        ps.setString(2, row.getPhone());
+                        ps.setString(3, row.getPhone());
+                        ps.setString(4, row.getFirstName());
+                        ps.setString(5, row.getLastName());
+                        ps.setString(6, row.getAddress());
+                        setInteger(ps, 7, importedBy);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return batch.size();
+                    }
+                }, keys);
+        List<Integer> userIds = keys.getKeyList().stream()
+                .map(key -> ((Number) key.values().iterator().next()).intValue())
+                .toList();
+        if (userIds.size() != batch.size()) {
+            throw new IllegalStateException("Expected " + batch.size() + " generated user ids, got " + userIds.size());
+        }
+        return userIds;
+    }
+
+    /**
+     * Normalize the row in place and check it.
+     *
+     * @return the first validation error, or null if the row is valid
+     */
+    private String validate(CustomerImportReader.Line line) {
+        if (line.error() != null) {
+            return line.error();
+        }
+        CustomerImportRow row = line.row();
+        row.setPhone(trimToNull(row.getPhone()));
+        row.setFirstName(trimToNull(row.getFirstName()));
+        row.setLastName(trimToNull(row.getLastName()));
+        row.setEmail(trimToNull(row.getEmail()));
+        row.setAddress(trimToNull(row.getAddress()));
+        row.setCity(trimToNull(row.getCity()));
+        row.setState(trimToNull(row.getState()));
+        row.setCountry(trimToNull(row.getCountry()));
+        row.setPincode(trimToNull(row.getPincode()));
+        try {
+            validationService.validatePhone(row.getPhone());
+            validationService.validateName(row.getFirstName(), "First name");
+            validationService.validateName(row.getLastName(), "Last name");
+            if (row.getEmail() != null) {
+                validationService.validateEmail(row.getEmail());
+            }
+            validationService.validateAddress(row.getAddress());
+            if (row.getAddress() != null && row.getAddress().length() > MAX_USER_ADDRESS_LENGTH) {
+                throw new IllegalArgumentException("Address must not exceed 250 characters");
+            }
+            if (exceeds(row.getCity()) || exceeds(row.getState()) || exceeds(row.getCountry())) {
+                throw new IllegalArgumentException("City, state and country must not exceed 100 characters");
+            }
+            if (row.getPincode() != null && row.getPincode().length() > MAX_PINCODE_LENGTH) {
+                throw new IllegalArgumentException("Pincode cannot exceed 10 characters");
+            }
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static boolean exceeds(String value) {
+        return value != null && value.length() > MAX_LOCALITY_LENGTH;
+    }
+
+    private static String trimToNull(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        return value.trim();
+    }
+
+    private static void setInteger(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value != null) {
+            ps.setInt(index, value);
+        } else {
+            ps.setNull(index, Types.INTEGER);
+        }
+    }
+}
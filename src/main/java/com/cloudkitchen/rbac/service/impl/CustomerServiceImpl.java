@@ -1,22 +1,34 @@
 package com.cloudkitchen.rbac.service.impl;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.cloudkitchen.rbac.constants.ResponseMessages;
 import com.cloudkitchen.rbac.domain.entity.Customer;
+import com.cloudkitchen.rbac.dto.common.CursorPageResponse;
+import com.cloudkitchen.rbac.dto.common.ExportFormat;
 import com.cloudkitchen.rbac.dto.common.PageRequest;
 import com.cloudkitchen.rbac.dto.common.PageResponse;
+import com.cloudkitchen.rbac.dto.customer.CustomerImportResult;
 import com.cloudkitchen.rbac.dto.customer.CustomerResponse;
 import com.cloudkitchen.rbac.dto.customer.CustomerUpdateRequest;
 import com.cloudkitchen.rbac.exception.BusinessExceptions.AccessDeniedException;
@@ -29,6 +41,10 @@ import com.cloudkitchen.rbac.service.CustomerService;
 import com.cloudkitchen.rbac.util.AccessControlUtil;
 import com.cloudkitchen.rbac.util.HttpResponseUtil;
 import com.cloudkitchen.rbac.util.ResponseBuilder;
+import com.cloudkitchen.rbac.util.SearchPattern;
+
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
 
 /**
  * Service implementation for customer operations, including access checks,
@@ -37,17 +53,45 @@ import com.cloudkitchen.rbac.util.ResponseBuilder;
 @Service
 public class CustomerServiceImpl implements CustomerService {
 
+    private static final List<StreamingExporter.Column<CustomerResponse>> EXPORT_COLUMNS = List.of(
+            new StreamingExporter.Column<>("customerId", CustomerResponse::getCustomerId),
+            new StreamingExporter.Column<>("merchantId", CustomerResponse::getMerchantId),
+            new StreamingExporter.Column<>("merchantName", CustomerResponse::getMerchantName),
+            new StreamingExporter.Column<>("firstName", CustomerResponse::getFirstName),
+            new StreamingExporter.Column<>("lastName", CustomerResponse::getLastName),
+            new StreamingExporter.Column<>("phone", CustomerResponse::getPhone),
+            new StreamingExporter.Column<>("email", CustomerResponse::getEmail),
+            new StreamingExporter.Column<>("address", CustomerResponse::getAddress),
+            new StreamingExporter.Column<>("city", CustomerResponse::getCity),
+            new StreamingExporter.Column<>("state", CustomerResponse::getState),
+            new StreamingExporter.Column<>("country", CustomerResponse::getCountry),
+            new StreamingExporter.Column<>("pincode", CustomerResponse::getPincode),
+            new StreamingExporter.Column<>("dob", CustomerResponse::getDob),
+            new StreamingExporter.Column<>("favoriteFood", CustomerResponse::getFavoriteFood),
+            new StreamingExporter.Column<>("profileImageUrl", CustomerResponse::getProfileImageUrl),
+            new StreamingExporter.Column<>("active", CustomerResponse::getActive),
+            new StreamingExporter.Column<>("createdAt", CustomerResponse::getCreatedAt),
+            new StreamingExporter.Column<>("updatedAt", CustomerResponse::getUpdatedAt));
+
     private final CustomerRepository customerRepository;
     private final AccessControlUtil accessControlUtil;
     private final CloudStorageService cloudStorageService;
+    private final KeysetPager keysetPager;
+    private final StreamingExporter streamingExporter;
+    private final CustomerImporter customerImporter;
     
     /**
      * Construct the customer service with required repositories and helpers.
      */
-    public CustomerServiceImpl(CustomerRepository customerRepository, AccessControlUtil accessControlUtil, CloudStorageService cloudStorageService) {
+    public CustomerServiceImpl(CustomerRepository customerRepository, AccessControlUtil accessControlUtil,
+                               CloudStorageService cloudStorageService, KeysetPager keysetPager,
+                               StreamingExporter streamingExporter, CustomerImporter customerImporter) {
         this.customerRepository = customerRepository;
         this.accessControlUtil = accessControlUtil;
         this.cloudStorageService = cloudStorageService;
+        this.keysetPager = keysetPager;
+        this.streamingExporter = streamingExporter;
+        this.customerImporter = customerImporter;
     }
 
     /**
@@ -55,9 +99,7 @@ public class CustomerServiceImpl implements CustomerService {
      */
     @Override
     public List<CustomerResponse> getAllCustomers() {
-        return customerRepository.findAllByDeletedAtIsNull().stream()
-                .map(this::convertToResponse)
-                .toList();
+        return convertToResponses(customerRepository.findAllByDeletedAtIsNull());
     }
 
     /**
@@ -90,9 +132,9 @@ public class CustomerServiceImpl implements CustomerService {
         Pageable pageable = createPageable(pageRequest);
         Page<Customer> customerPage;
 
-        if (search != null && !search.trim().isEmpty()) {
-            String searchTerm = "%" + search.trim().toLowerCase() + "%";
-            customerPage = customerRepository.findBySearchAndDeletedAtIsNull(searchTerm, pageable);
+        SearchPattern searchPattern = SearchPattern.of(search);
+        if (searchPattern != null) {
+            customerPage = customerRepository.findBySearchAndDeletedAtIsNull(searchPattern.text(), searchPattern.phone(), pageable);
         } else if (status != null && !status.trim().isEmpty()) {
             boolean active = "active".equalsIgnoreCase(status.trim());
             customerPage = customerRepository.findByIsActiveAndDeletedAtIsNull(active, pageable);
@@ -100,9 +142,7 @@ public class CustomerServiceImpl implements CustomerService {
             customerPage = customerRepository.findByDeletedAtIsNull(pageable);
         }
 
-        List<CustomerResponse> content = customerPage.getContent().stream()
-                .map(this::convertToResponse)
-                .toList();
+        List<CustomerResponse> content = convertToResponses(customerPage.getContent());
 
         return new PageResponse<>(
                 content,
@@ -117,11 +157,14 @@ public class CustomerServiceImpl implements CustomerService {
      */
     @Override
     public PageResponse<CustomerResponse> getAllCustomers(PageRequest pageRequest, String status, String search, Authentication authentication) {
+        SearchPattern searchPattern = SearchPattern.of(search);
         if (accessControlUtil.isSuperAdmin(authentication)) {
-            return getAllCustomersWithFilters(pageRequest);
+            return searchPattern != null ? getAllCustomers(pageRequest, status, search) : getAllCustomersWithFilters(pageRequest);
         } else if (accessControlUtil.isMerchant(authentication)) {
             Integer merchantId = getMerchantIdFromAuth(authentication);
-            return getCustomersByMerchantIdWithFilters(merchantId, pageRequest);
+            return searchPattern != null
+                    ? searchCustomersByMerchantId(merchantId, searchPattern, pageRequest)
+                    : getCustomersByMerchantIdWithFilters(merchantId, pageRequest);
         } else if (accessControlUtil.isCustomer(authentication)) {
             throw new AccessDeniedException("Customers cannot access customer lists");
         }
@@ -134,9 +177,7 @@ public class CustomerServiceImpl implements CustomerService {
     @Override
     @Transactional(readOnly = true)
     public List<CustomerResponse> getCustomersByMerchantId(Integer merchantId) {
-        return customerRepository.findByMerchant_MerchantIdAndDeletedAtIsNull(merchantId).stream()
-                .map(this::convertToResponse)
-                .toList();
+        return convertToResponses(customerRepository.findByMerchant_MerchantIdAndDeletedAtIsNull(merchantId));
     }
 
     /**
@@ -148,6 +189,16 @@ public class CustomerServiceImpl implements CustomerService {
         return getCustomersByMerchantIdWithFilters(merchantId, pageRequest);
     }
 
+    /**
+     * Return a cursor page of customers, optionally scoped to a merchant.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<CustomerResponse> getCustomersPage(Integer merchantId, PageRequest pageRequest, String status, String search) {
+        return keysetPager.page(customerRepository, Customer.class, customerFilter(merchantId, status, search),
+                pageRequest, "customerId", Set.of(), this::convertToResponses);
+    }
+
     /**
      * Fetch a customer by ID or throw if not found.
      */
@@ -398,11 +449,25 @@ public class CustomerServiceImpl implements CustomerService {
      */
     @Override
     @Transactional(readOnly = true)
-    public ResponseEntity<Object> getAllCustomersResponse(int page, int size, String status, String search, Authentication authentication) {
+    public ResponseEntity<Object> getAllCustomersResponse(int page, int size, String status, String search, String cursor, boolean includeTotal, Authentication authentication) {
         if (!canAccessCustomers(authentication)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(ResponseBuilder.error(HttpResponseUtil.FORBIDDEN, ResponseMessages.Customer.ACCESS_DENIED_LIST));
         }
+        if (cursor != null) {
+            Integer merchantId = null;
+            if (!accessControlUtil.isSuperAdmin(authentication)) {
+                // A merchant token without a merchant ID must not fall through to the unscoped list
+                merchantId = getMerchantIdFromAuth(authentication);
+                if (merchantId == null) {
+                    return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                            .body(ResponseBuilder.error(HttpResponseUtil.FORBIDDEN, ResponseMessages.Customer.ACCESS_DENIED_LIST));
+                }
+            }
+            CursorPageResponse<CustomerResponse> customers = getCustomersPage(merchantId,
+                    keysetPageRequest(size, cursor, includeTotal), status, search);
+            return ResponseEntity.ok(ResponseBuilder.success(HttpResponseUtil.OK, ResponseMessages.Customer.LIST_SUCCESS, customers));
+        }
         PageResponse<CustomerResponse> customers = getAllCustomers(page, size, status, search, authentication);
         return ResponseEntity.ok(ResponseBuilder.success(HttpResponseUtil.OK, ResponseMessages.Customer.LIST_SUCCESS, customers));
     }
@@ -445,15 +510,85 @@ public class CustomerServiceImpl implements CustomerService {
      */
     @Override
     @Transactional(readOnly = true)
-    public ResponseEntity<Object> getCustomersByMerchantIdResponse(Integer merchantId, int page, int size, Authentication authentication) {
+    public ResponseEntity<Object> getCustomersByMerchantIdResponse(Integer merchantId, int page, int size, String cursor, boolean includeTotal, Authentication authentication) {
         if (!canAccessMerchantCustomers(authentication, merchantId)) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(ResponseBuilder.error(HttpResponseUtil.FORBIDDEN, ResponseMessages.Customer.ACCESS_DENIED_MERCHANT_CUSTOMERS));
         }
+        if (cursor != null) {
+            CursorPageResponse<CustomerResponse> customers = getCustomersPage(merchantId,
+                    keysetPageRequest(size, cursor, includeTotal), null, null);
+            return ResponseEntity.ok(ResponseBuilder.success(HttpResponseUtil.OK, ResponseMessages.Customer.MERCHANT_CUSTOMERS_SUCCESS, customers));
+        }
         PageResponse<CustomerResponse> customers = getCustomersByMerchantId(merchantId, page, size, authentication);
         return ResponseEntity.ok(ResponseBuilder.success(HttpResponseUtil.OK, ResponseMessages.Customer.MERCHANT_CUSTOMERS_SUCCESS, customers));
     }
 
+    /**
+     * Build the streaming export of active customers. Admins export every
+     * merchant's customers or, with {@code merchantId}, one merchant's;
+     * merchants always export their own.
+     */
+    @Override
+    public ResponseEntity<StreamingResponseBody> exportCustomersResponse(String format, Integer merchantId, Authentication authentication) {
+        ExportFormat exportFormat = ExportFormat.from(format);
+        if (!canAccessCustomers(authentication)) {
+            throw new AccessDeniedException(ResponseMessages.Customer.ACCESS_DENIED_LIST);
+        }
+        Integer scopeMerchantId = merchantId;
+        if (!accessControlUtil.isSuperAdmin(authentication)) {
+            scopeMerchantId = getMerchantIdFromAuth(authentication);
+            if (scopeMerchantId == null || (merchantId != null && !merchantId.equals(scopeMerchantId))) {
+                throw new AccessDeniedException(ResponseMessages.Customer.ACCESS_DENIED_LIST);
+            }
+        }
+        Integer exportMerchantId = scopeMerchantId;
+        return streamingExporter.export("customers", exportFormat,
+                () -> exportMerchantId == null
+                        ? customerRepository.streamByDeletedAtIsNull()
+                        : customerRepository.streamByMerchant_MerchantIdAndDeletedAtIsNull(exportMerchantId),
+                this::convertToResponses, EXPORT_COLUMNS);
+    }
+
+    /**
+     * Build the HTTP response for a bulk customer import. Admins import into
+     * the given merchant; merchants always import into their own. Not
+     * transactional: the importer commits each chunk on its own.
+     */
+    @Override
+    public ResponseEntity<Object> importCustomersResponse(Integer merchantId, String contentType, InputStream body, Authentication authentication) {
+        if (!canAccessCustomers(authentication)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ResponseBuilder.error(HttpResponseUtil.FORBIDDEN, ResponseMessages.Customer.ACCESS_DENIED_IMPORT));
+        }
+        Integer targetMerchantId = merchantId;
+        if (!accessControlUtil.isSuperAdmin(authentication)) {
+            targetMerchantId = getMerchantIdFromAuth(authentication);
+            if (targetMerchantId == null || (merchantId != null && !merchantId.equals(targetMerchantId))) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(ResponseBuilder.error(HttpResponseUtil.FORBIDDEN, ResponseMessages.Customer.ACCESS_DENIED_IMPORT));
+            }
+        } else if (merchantId == null) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ResponseBuilder.error(HttpResponseUtil.BAD_REQUEST, ResponseMessages.Customer.IMPORT_MERCHANT_REQUIRED));
+        }
+        try {
+            ExportFormat format = ExportFormat.from(MediaType.parseMediaType(contentType));
+            CustomerImportResult result = customerImporter.importCustomers(targetMerchantId,
+                    accessControlUtil.getUserId(authentication), format, body);
+            // An aborted import still reports what was committed before it stopped
+            String message = result.isAborted() ? ResponseMessages.Customer.IMPORT_ABORTED
+                    : ResponseMessages.Customer.IMPORT_SUCCESS;
+            return ResponseEntity.ok(ResponseBuilder.success(HttpResponseUtil.OK, message, result));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ResponseBuilder.error(HttpResponseUtil.BAD_REQUEST, e.getMessage()));
+        } catch (IOException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ResponseBuilder.error(HttpResponseUtil.BAD_REQUEST, ResponseMessages.Customer.IMPORT_READ_FAILED));
+        }
+    }
+
     /**
      * Build the HTTP response for customer deletion.
      */
@@ -481,9 +616,7 @@ public class CustomerServiceImpl implements CustomerService {
         Pageable pageable = createPageable(pageRequest);
         Page<Customer> customerPage = customerRepository.findByDeletedAtIsNull(pageable);
 
-        List<CustomerResponse> responses = customerPage.getContent().stream()
-                .map(this::convertToResponse)
-                .toList();
+        List<CustomerResponse> responses = convertToResponses(customerPage.getContent());
 
         return new PageResponse<>(
                 responses,
@@ -501,9 +634,7 @@ public class CustomerServiceImpl implements CustomerService {
         Pageable pageable = createPageable(pageRequest);
         Page<Customer> customerPage = customerRepository.findByMerchant_MerchantIdAndDeletedAtIsNull(merchantId, pageable);
 
-        List<CustomerResponse> responses = customerPage.getContent().stream()
-                .map(this::convertToResponse)
-                .toList();
+        List<CustomerResponse> responses = convertToResponses(customerPage.getContent());
 
         return new PageResponse<>(
                 responses,
@@ -513,6 +644,21 @@ public class CustomerServiceImpl implements CustomerService {
         );
     }
 
+    /**
+     * Apply pagination to a search within a merchant's customers.
+     */
+    private PageResponse<CustomerResponse> searchCustomersByMerchantId(Integer merchantId, SearchPattern searchPattern, PageRequest pageRequest) {
+        Page<Customer> customerPage = customerRepository.findByMerchantIdAndSearchAndDeletedAtIsNull(
+                merchantId, searchPattern.text(), searchPattern.phone(), createPageable(pageRequest));
+
+        return new PageResponse<>(
+                convertToResponses(customerPage.getContent()),
+                customerPage.getNumber(),
+                customerPage.getSize(),
+                customerPage.getTotalElements()
+        );
+    }
+
     /**
      * Build a pageable instance with optional sorting.
      */
@@ -527,10 +673,72 @@ public class CustomerServiceImpl implements CustomerService {
         return org.springframework.data.domain.PageRequest.of(pageRequest.getPage(), pageRequest.getSize());
     }
 
+    /**
+     * Build a cursor page request; customer lists read in insertion (ID) order.
+     */
+    private static PageRequest keysetPageRequest(int size, String cursor, boolean includeTotal) {
+        PageRequest pageRequest = new PageRequest();
+        pageRequest.setSize(size);
+        pageRequest.setCursor(cursor);
+        pageRequest.setIncludeTotal(includeTotal);
+        return pageRequest;
+    }
+
+    /**
+     * Match live customers, optionally by merchant, status and search term,
+     * with the merchant fetched in the same query.
+     */
+    private static Specification<Customer> customerFilter(Integer merchantId, String status, String search) {
+        return (root, query, cb) -> {
+            if (Customer.class.equals(query.getResultType())) {
+                root.fetch("merchant", JoinType.LEFT);
+            }
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.isNull(root.get("deletedAt")));
+            if (merchantId != null) {
+                predicates.add(cb.equal(root.get("merchant").get("merchantId"), merchantId));
+            }
+            SearchPattern searchPattern = SearchPattern.of(search);
+            if (searchPattern != null) {
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("firstName")), searchPattern.text(), '\\'),
+                        cb.like(cb.lower(root.get("lastName")), searchPattern.text(), '\\'),
+                        cb.like(root.get("phone"), searchPattern.phone(), '\\'),
+                        cb.like(cb.lower(root.get("email")), searchPattern.text(), '\\')));
+            } else if (status != null && !status.trim().isEmpty()) {
+                predicates.add(cb.equal(root.get("isActive"), "active".equalsIgnoreCase(status.trim())));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
     /**
      * Map a customer entity to its response DTO.
      */
     private CustomerResponse convertToResponse(Customer customer) {
+        String profileImageKey = customer.getProfileImageUrl();
+        return convertToResponse(customer,
+                profileImageKey != null ? cloudStorageService.generatePresignedUrl(profileImageKey) : null);
+    }
+
+    /**
+     * Map a page of customers, presigning all profile image URLs in one call.
+     */
+    private List<CustomerResponse> convertToResponses(List<Customer> customers) {
+        List<String> profileImageKeys = customers.stream()
+                .map(Customer::getProfileImageUrl)
+                .filter(Objects::nonNull)
+                .toList();
+        Map<String, String> presignedUrls = profileImageKeys.isEmpty()
+                ? Map.of()
+                : cloudStorageService.generatePresignedUrls(profileImageKeys);
+        return customers.stream()
+                .map(customer -> convertToResponse(customer,
+                        customer.getProfileImageUrl() != null ? presignedUrls.get(customer.getProfileImageUrl()) : null))
+                .toList();
+    }
+
+    private CustomerResponse convertToResponse(Customer customer, String presignedProfileImageUrl) {
         CustomerResponse response = new CustomerResponse();
         response.setCustomerId(customer.getCustomerId());
         response.setFirstName(customer.getFirstName());
@@ -545,10 +753,9 @@ public class CustomerServiceImpl implements CustomerService {
         response.setDob(customer.getDob());
         response.setFavoriteFood(customer.getFavoriteFood());
         
-        // Generate presigned URL if S3 key exists
-        if (customer.getProfileImageUrl() != null) {
-            String presignedUrl = cloudStorageService.generatePresignedUrl(customer.getProfileImageUrl());
-            response.setProfileImageUrl(presignedUrl);
+        // Presigned URL if an S3 key exists
+        if (presignedProfileImageUrl != null) {
+            response.setProfileImageUrl(presignedProfileImageUrl);
         }
         
         response.setActive(customer.getIsActive());
@@ -582,13 +789,15 @@ public class CustomerServiceImpl implements CustomerService {
             String customerId = customer.getCustomerId().toString();
             String s3Key = merchantId + "/customer/" + customerId + "/profile_img/profile" + extension;
             
-            // Upload to S3
-            cloudStorageService.uploadFile(
-                s3Key,
-                profileImage.getInputStream(),
-                profileImage.getSize(),
-                profileImage.getContentType()
-            );
+            // Upload to S3, streamed from the part's temp file
+            try (InputStream content = profileImage.getInputStream()) {
+                cloudStorageService.uploadFile(
+                    s3Key,
+                    content,
+                    profileImage.getSize(),
+                    profileImage.getContentType()
+                );
+            }
             
             return s3Key;
         } catch (Exception e) {
@@ -0,0 +1,107 @@
+package com.cloudkitchen.rbac.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.cloudkitchen.rbac.constants.AppConstants;
+import com.cloudkitchen.rbac.repository.OtpLogRepository;
+import com.cloudkitchen.rbac.service.OtpRateLimiter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Node-local OTP rate limiter keeping a sliding log of request times per
+ * phone and OTP type.
+ *
+ * The log is seeded from {@code otp_logs} at startup so a restart does not
+ * reset anyone's budget; after that the audit table is never read on the
+ * request path. A key whose newest entry is older than the window holds no
+ * information and is dropped by the cache.
+ */
+@Service
+@ConditionalOnProperty(name = "app.otp.rate-limit.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpRateLimiter implements OtpRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryOtpRateLimiter.class);
+
+    private final OtpLogRepository otpLogRepository;
+    private final int limit = AppConstants.OTP_RATE_LIMIT_REQUESTS;
+    private final long windowMillis = Duration.ofMinutes(AppConstants.OTP_RATE_LIMIT_WINDOW_MINUTES).toMillis();
+    private final Cache<String, SlidingLog> logs;
+
+    public InMemoryOtpRateLimiter(OtpLogRepository otpLogRepository) {
+        this.otpLogRepository = otpLogRepository;
+        this.logs = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(windowMillis))
+                .build();
+    }
+
+    @PostConstruct
+    public void hydrate() {
+        try {
+            LocalDateTime after = LocalDateTime.now().minusMinutes(AppConstants.OTP_RATE_LIMIT_WINDOW_MINUTES);
+            List<Object[]> rows = otpLogRepository.findRequestTimesSince(after);
+            ZoneId zone = ZoneId.systemDefault();
+            for (Object[] row : rows) {
+                long at = ((LocalDateTime) row[2]).atZone(zone).toInstant().toEpochMilli();
+                logs.get(key((String) row[0], (String) row[1]), k -> new SlidingLog(limit)).add(at);
+            }
+            logger.info("OTP rate limiter hydrated from {} recent otp_logs rows", rows.size());
+        } catch (RuntimeException e) {
+            logger.warn("Could not hydrate OTP rate limiter from otp_logs, starting empty: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public boolean tryAcquire(String phone, String otpType) {
+        String key = key(phone, otpType);
+        SlidingLog log = logs.get(key, k -> new SlidingLog(limit));
+        boolean allowed = log.tryAdd(System.currentTimeMillis(), windowMillis);
+        if (allowed) {
+            // Refresh the write time so the entry lives for a full window after the newest request
+            logs.put(key, log);
+        }
+        return allowed;
+    }
+
+    private static String key(String phone, String otpType) {
+        return phone + ":" + (otpType != null ? otpType : "login");
+    }
+
+    /**
+     * Ring buffer of the last {@code limit} request times for one key.
+     */
+    private static final class SlidingLog {
+        private final long[] times;
+        private int next;
+        private int size;
+
+        private SlidingLog(int limit) {
+            this.times = new long[limit];
+        }
+
+        synchronized boolean tryAdd(long now, long windowMillis) {
+            if (size == times.length && times[next] > now - windowMillis) {
+                // The oldest of the last 'limit' requests is still inside the window
+                return false;
+            }
+            add(now);
+            return true;
+        }
+
+        synchronized void add(long at) {
+            times[next] = at;
+            next = (next + 1) % times.length;
+            size = Math.min(size + 1, times.length);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.cloudkitchen.rbac.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import com.cloudkitchen.rbac.service.OtpStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+/**
+ * Node-local OTP store. Each entry expires on its own schedule (code expiry
+ * plus {@link OtpStore#EXPIRED_RETENTION}); attempt updates keep the
+ * remaining lifetime. Only suitable for a single node: a code requested on
+ * one node cannot be verified on another.
+ */
+@Service
+@ConditionalOnProperty(name = "app.otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+
+    private final Cache<Integer, Challenge> challenges = Caffeine.newBuilder()
+            .expireAfter(new Expiry<Integer, Challenge>() {
+                @Override
+                public long expireAfterCreate(Integer userId, Challenge challenge, long currentTime) {
+                    Duration ttl = Duration.between(LocalDateTime.now(), challenge.expiresAt())
+                            .plus(EXPIRED_RETENTION);
+                    return Math.max(0, ttl.toNanos());
+                }
+
+                @Override
+                public long expireAfterUpdate(Integer userId, Challenge challenge, long currentTime,
+                                              long currentDuration) {
+                    return currentDuration;
+                }
+
+                @Override
+                public long expireAfterRead(Integer userId, Challenge challenge, long currentTime,
+                                            long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+
+    @Override
+    public void save(Integer userId, Challenge challenge) {
+        // invalidate first so the replacement gets a fresh lifetime rather than the old one's remainder
+        challenges.invalidate(userId);
+        challenges.put(userId, challenge);
+    }
+
+    @Override
+    public Optional<Challenge> find(Integer userId) {
+        return Optional.ofNullable(challenges.getIfPresent(userId));
+    }
+
+    @Override
+    public int recordFailedAttempt(Integer userId) {
+        AtomicInteger attempts = new AtomicInteger();
+        challenges.asMap().computeIfPresent(userId, (id, challenge) -> {
+            attempts.set(challenge.attempts() + 1);
+            if (attempts.get() >= MAX_ATTEMPTS) {
+                return null;
+            }
+            return new Challenge(challenge.otpCode(), challenge.expiresAt(), attempts.get());
+        });
+        return attempts.get();
+    }
+
+    @Override
+    public boolean consume(Integer userId, String otpCode) {
+        AtomicBoolean consumed = new AtomicBoolean();
+        challenges.asMap().computeIfPresent(userId, (id, challenge) -> {
+            if (challenge.otpCode().equals(otpCode) && challenge.attempts() < MAX_ATTEMPTS) {
+                consumed.set(true);
+                return null;
+            }
+            return challenge;
+        });
+        return consumed.get();
+    }
+
+    @Override
+    public void remove(Integer userId) {
+        challenges.invalidate(userId);
+    }
+}
@@ -3,13 +3,19 @@ package com.cloudkitchen.rbac.service.impl;
 import com.cloudkitchen.rbac.service.TokenBlacklistService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Single-node token revocation store. Revocations are not shared with other
+ * instances; use the Redis store behind a load balancer.
+ */
 @Service
+@ConditionalOnProperty(name = "app.security.token-blacklist.store", havingValue = "memory", matchIfMissing = true)
 public class InMemoryTokenBlacklistService implements TokenBlacklistService {
 
     private static final Logger logger = LoggerFactory.getLogger(InMemoryTokenBlacklistService.class);
@@ -0,0 +1,154 @@
+package com.cloudkitchen.rbac.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.convert.ConversionException;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.stereotype.Component;
+
+import com.cloudkitchen.rbac.dto.common.CursorPageResponse;
+import com.cloudkitchen.rbac.dto.common.PageCursor;
+import com.cloudkitchen.rbac.dto.common.PageRequest;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Cursor (keyset) pagination for list endpoints. Each page is read with
+ * {@code WHERE (sort, id) > (last sort, last id) ORDER BY sort, id LIMIT size + 1},
+ * so the database seeks straight to the position in the index instead of
+ * scanning and discarding OFFSET rows, and page cost stays flat however deep
+ * the client reads. The extra row only tells whether a next page exists; no
+ * COUNT(*) runs unless the caller asks for a total.
+ *
+ * A requested total is counted up to {@code app.pagination.count-cap} rows;
+ * past that it is reported as capped rather than counting millions of rows.
+ *
+ * Only attributes that are never null may be used as sort keys, since rows
+ * with a null key would fall outside every seek predicate and be skipped.
+ */
+@Component
+public class KeysetPager {
+
+    private final EntityManager entityManager;
+    private final int countCap;
+
+    public KeysetPager(EntityManager entityManager,
+                       @Value("${app.pagination.count-cap:10000}") int countCap) {
+        this.entityManager = entityManager;
+        this.countCap = Math.max(1, countCap);
+    }
+
+    /**
+     * Read one keyset page.
+     *
+     * @param filter         rows to page through; may be null for all rows
+     * @param idAttribute    the entity's id attribute, always the tie-breaker
+     * @param sortAttributes non-null attributes allowed as {@code sortBy} besides the id
+     * @param mapper         maps the page's entities to response DTOs in one call
+     * @throws IllegalArgumentException if the sort is not allowed or the
+     *                                  cursor is invalid or was issued for a different sort
+     */
+    public <T, R> CursorPageResponse<R> page(JpaSpecificationExecutor<T> repository, Class<T> type,
+                                             Specification<T> filter, PageRequest request,
+                                             String idAttribute, Set<String> sortAttributes,
+                                             Function<List<T>, List<R>> mapper) {
+        String sortBy = request.getSortBy() == null || request.getSortBy().trim().isEmpty()
+                ? idAttribute
+                : request.getSortBy().trim();
+        if (!sortBy.equals(idAttribute) && !sortAttributes.contains(sortBy)) {
+            List<String> valid = new ArrayList<>(List.of(idAttribute));
+            sortAttributes.stream().sorted().forEach(valid::add);
+            throw new IllegalArgumentException("Invalid sortBy field for cursor pagination. Valid fields are: "
+                    + String.join(", ", valid));
+        }
+        boolean descending = "desc".equalsIgnoreCase(request.getSortDirection());
+        String direction = descending ? "desc" : "asc";
+
+        Specification<T> spec = Specification.where(filter);
+        String cursor = request.getCursor();
+        if (cursor != null && !cursor.trim().isEmpty()) {
+            PageCursor after = PageCursor.decode(cursor.trim());
+            if (!after.sortBy().equals(sortBy) || !after.sortDirection().equals(direction)) {
+                throw new IllegalArgumentException("Cursor does not match the requested sortBy and sortDirection");
+            }
+            spec = spec.and(after(after, idAttribute, descending));
+        }
+
+        Sort.Direction sortDirection = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = sortBy.equals(idAttribute)
+                ? Sort.by(sortDirection, idAttribute)
+                : Sort.by(sortDirection, sortBy, idAttribute);
+        int size = request.getSize();
+        List<T> rows = repository.findBy(spec, query -> query.sortBy(sort).limit(size + 1).all());
+
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            BeanWrapperImpl last = new BeanWrapperImpl(content.get(content.size() - 1));
+            nextCursor = new PageCursor(sortBy, direction,
+                    String.valueOf(last.getPropertyValue(sortBy)),
+                    (Integer) last.getPropertyValue(idAttribute)).encode();
+        }
+
+        CursorPageResponse<R> response = new CursorPageResponse<>(mapper.apply(content), size, nextCursor);
+        if (request.isIncludeTotal()) {
+            long counted = countUpTo(type, filter, idAttribute, countCap + 1);
+            response.setTotalElements(Math.min(counted, countCap));
+            response.setTotalElementsCapped(counted > countCap);
+        }
+        return response;
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Specification<T> after(PageCursor cursor, String idAttribute, boolean descending) {
+        return (root, query, cb) -> {
+            Path<Integer> id = root.get(idAttribute);
+            Predicate afterId = descending ? cb.lessThan(id, cursor.id()) : cb.greaterThan(id, cursor.id());
+            if (cursor.sortBy().equals(idAttribute)) {
+                return afterId;
+            }
+            Path<Comparable> key = root.get(cursor.sortBy());
+            Comparable value = toAttributeType(cursor.sortValue(), key.getJavaType());
+            Predicate afterKey = descending ? cb.lessThan(key, value) : cb.greaterThan(key, value);
+            return cb.or(afterKey, cb.and(cb.equal(key, value), afterId));
+        };
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Comparable toAttributeType(String value, Class<?> type) {
+        try {
+            return (Comparable) DefaultConversionService.getSharedInstance().convert(value, type);
+        } catch (ConversionException | ClassCastException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /** Count matching rows, reading at most {@code limit} ids. */
+    private <T> long countUpTo(Class<T> type, Specification<T> filter, String idAttribute, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Integer> query = cb.createQuery(Integer.class);
+        Root<T> root = query.from(type);
+        query.select(root.get(idAttribute));
+        if (filter != null) {
+            Predicate predicate = filter.toPredicate(root, query, cb);
+            if (predicate != null) {
+                query.where(predicate);
+            }
+        }
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList().size();
+    }
+}
@@ -1,7 +1,9 @@
 package com.cloudkitchen.rbac.service.impl;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
@@ -9,6 +11,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
@@ -18,6 +21,7 @@ import org.springframework.security.core.Authentication;
 import com.cloudkitchen.rbac.constants.ResponseMessages;
 import com.cloudkitchen.rbac.domain.entity.Merchant;
 import com.cloudkitchen.rbac.domain.entity.User;
+import com.cloudkitchen.rbac.dto.common.CursorPageResponse;
 import com.cloudkitchen.rbac.dto.common.PageRequest;
 import com.cloudkitchen.rbac.dto.common.PageResponse;
 import com.cloudkitchen.rbac.dto.merchant.MerchantRequest;
@@ -34,6 +38,8 @@ import com.cloudkitchen.rbac.exception.BusinessExceptions.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import jakarta.persistence.criteria.Predicate;
+
 /**
  * Service implementation for merchant operations, including validation,
  * access checks, and response assembly for controllers.
@@ -42,11 +48,14 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @Transactional
 public class MerchantServiceImpl implements MerchantService {
     private static final Logger log = LoggerFactory.getLogger(MerchantServiceImpl.class);
+    // Non-null columns that cursor pagination can sort by, besides merchantId
+    private static final Set<String> KEYSET_SORT_FIELDS = Set.of("merchantName", "businessName");
     private final MerchantRepository merchantRepository;
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final ValidationService validationService;
     private final AccessControlUtil accessControlUtil;
+    private final KeysetPager keysetPager;
 
     @Autowired(required = false)
     private CloudStorageService cloudStorageService;
@@ -56,12 +65,13 @@ public class MerchantServiceImpl implements MerchantService {
      */
     public MerchantServiceImpl(MerchantRepository merchantRepository, UserRepository userRepository,
                               PasswordEncoder passwordEncoder, ValidationService validationService,
-                              AccessControlUtil accessControlUtil) {
+                              AccessControlUtil accessControlUtil, KeysetPager keysetPager) {
         this.merchantRepository = merchantRepository;
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.validationService = validationService;
         this.accessControlUtil = accessControlUtil;
+        this.keysetPager = keysetPager;
     }
 
     /**
@@ -291,8 +301,32 @@ public class MerchantServiceImpl implements MerchantService {
             merchantPage = merchantRepository.findAll(pageable);
         }
 
+        List<MerchantResponse> content = mapToResponses(merchantPage.getContent());
+
+        return new PageResponse<>(
+                content,
+                merchantPage.getNumber(),
+                merchantPage.getSize(),
+                merchantPage.getTotalElements()
+        );
+    }
+
+    /**
+     * Return a cursor page of merchants with optional status/search filters.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPageResponse<MerchantResponse> getMerchantsPage(PageRequest pageRequest, String status, String search) {
+        return keysetPager.page(merchantRepository, Merchant.class, merchantFilter(status, search),
+                pageRequest, "merchantId", KEYSET_SORT_FIELDS, this::mapToResponses);
+    }
+
+    /**
+     * Map a page of merchants, loading their users in one query.
+     */
+    private List<MerchantResponse> mapToResponses(List<Merchant> merchants) {
         // Optimized: Fetch all merchants with their users in a single query to avoid N+1 problem
-        List<Integer> merchantIds = merchantPage.getContent().stream()
+        List<Integer> merchantIds = merchants.stream()
                 .map(Merchant::getMerchantId)
                 .collect(Collectors.toList());
 
@@ -306,16 +340,29 @@ public class MerchantServiceImpl implements MerchantService {
                 .collect(Collectors.toMap(Merchant::getMerchantId, m -> m));
 
         // Map to response DTOs using the pre-fetched data
-        List<MerchantResponse> content = merchantPage.getContent().stream()
+        return merchants.stream()
                 .map(merchant -> mapToResponseOptimized(merchantMap.getOrDefault(merchant.getMerchantId(), merchant)))
                 .collect(Collectors.toList());
+    }
 
-        return new PageResponse<>(
-                content,
-                merchantPage.getNumber(),
-                merchantPage.getSize(),
-                merchantPage.getTotalElements()
-        );
+    /**
+     * Match merchants by search term (name, email, phone) or else by status,
+     * the same precedence as the offset listing.
+     */
+    private static Specification<Merchant> merchantFilter(String status, String search) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (search != null && !search.trim().isEmpty()) {
+                String searchTerm = "%" + search.trim().toLowerCase() + "%";
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("merchantName")), searchTerm),
+                        cb.like(cb.lower(root.get("email")), searchTerm),
+                        cb.like(root.get("phone"), searchTerm)));
+            } else if (status != null && !status.trim().isEmpty()) {
+                predicates.add(cb.equal(root.get("active"), "active".equalsIgnoreCase(status.trim())));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
     }
 
     /**
@@ -390,13 +437,30 @@ public class MerchantServiceImpl implements MerchantService {
      * Build the HTTP response for listing merchants with pagination and filters.
      */
     @Override
-    public ResponseEntity<Map<String, Object>> getAllMerchantsResponse(int page, int size, String sortBy, String sortDirection, String status, String search, Authentication authentication) {
+    public ResponseEntity<Map<String, Object>> getAllMerchantsResponse(int page, int size, String sortBy, String sortDirection, String status, String search, String cursor, boolean includeTotal, Authentication authentication) {
         if (!accessControlUtil.isSuperAdmin(authentication) &&
                 !accessControlUtil.hasPermission(authentication, "merchants.read")) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(ResponseBuilder.error(HttpResponseUtil.FORBIDDEN, ResponseMessages.Auth.ACCESS_DENIED));
         }
 
+        if (cursor != null) {
+            PageRequest pageRequest = new PageRequest(0, size, sortBy, sortDirection);
+            pageRequest.setCursor(cursor);
+            pageRequest.setIncludeTotal(includeTotal);
+            try {
+                CursorPageResponse<MerchantResponse> response = getMerchantsPage(pageRequest, status, search);
+                return ResponseEntity.status(HttpStatus.OK)
+                        .body(ResponseBuilder.success(HttpResponseUtil.OK, "Merchants retrieved successfully", response));
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                        .body(ResponseBuilder.error(HttpResponseUtil.BAD_REQUEST, e.getMessage()));
+            } catch (RuntimeException e) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                        .body(ResponseBuilder.error(HttpResponseUtil.INTERNAL_SERVER_ERROR, "Internal server error while retrieving merchants"));
+            }
+        }
+
         try {
             PageRequest pageRequest = new PageRequest(page, size, sortBy, sortDirection);
             PageResponse<MerchantResponse> response = getAllMerchants(pageRequest, status, search);
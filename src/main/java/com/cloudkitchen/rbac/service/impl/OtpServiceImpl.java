@@ -1,28 +1,144 @@
 package com.cloudkitchen.rbac.service.impl;
 
+import com.cloudkitchen.rbac.config.SecurityProperties;
+import com.cloudkitchen.rbac.constants.AppConstants;
 import com.cloudkitchen.rbac.service.OtpService;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
+import java.util.Base64;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
 
+/**
+ * Generates OTPs from a set of independent {@link SecureRandom} stripes (the
+ * default NativePRNG serialises every caller on one lock) and writes the
+ * digits into the stripe's reusable buffer. Verification compares in
+ * constant time without allocating for plain codes.
+ *
+ * With {@code app.security.hash-otp} the stored form is an HMAC-SHA256 of the
+ * code under {@code app.security.otp-hash-key}. Stored values carry a prefix,
+ * so codes issued before hashing was switched on still verify. The key may
+ * only be left unset (random per process) with the in-memory OTP store
+ * outside production; otherwise startup fails, since codes hashed under a
+ * per-process key cannot be verified by another node or after a restart.
+ */
 @Service
 public class OtpServiceImpl implements OtpService {
-    
-    private static final SecureRandom RANDOM = new SecureRandom();
 
-    
+    private static final Logger logger = LoggerFactory.getLogger(OtpServiceImpl.class);
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String HASH_PREFIX = "h1:";
+    private static final int LENGTH = AppConstants.OTP_LENGTH;
+    private static final int BOUND = (int) Math.pow(10, LENGTH);
+
+    private final Stripe[] stripes;
+    private final SecretKeySpec hashKey;
+
+    public OtpServiceImpl(SecurityProperties securityProperties,
+                          @Value("${app.otp.store:memory}") String otpStore,
+                          @Value("${spring.profiles.active:dev}") String activeProfile) {
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2);
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe(newSecureRandom());
+        }
+        this.hashKey = new SecretKeySpec(hashKeyBytes(securityProperties, otpStore, activeProfile), HMAC_ALGORITHM);
+    }
+
     @Override
     public String generateOtp() {
-        return String.format("%04d", RANDOM.nextInt(10000));
+        Stripe stripe = stripes[(int) Thread.currentThread().threadId() & (stripes.length - 1)];
+        synchronized (stripe) {
+            int value = stripe.random.nextInt(BOUND);
+            char[] digits = stripe.digits;
+            for (int i = LENGTH - 1; i >= 0; i--) {
+                digits[i] = (char) ('0' + value % 10);
+                value /= 10;
+            }
+            return new String(digits);
+        }
     }
-    
+
     @Override
     public String hashOtp(String otp) {
-        return otp; // Plain text storage as requested
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(hashKey);
+            byte[] digest = mac.doFinal(otp.getBytes(StandardCharsets.US_ASCII));
+            return HASH_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 not available", e);
+        }
     }
-    
+
     @Override
     public boolean verifyOtp(String plainOtp, String storedOtp) {
-        return plainOtp != null && plainOtp.equals(storedOtp);
+        if (plainOtp == null || storedOtp == null) {
+            return false;
+        }
+        if (storedOtp.startsWith(HASH_PREFIX)) {
+            return constantTimeEquals(hashOtp(plainOtp), storedOtp);
+        }
+        return constantTimeEquals(plainOtp, storedOtp);
+    }
+
+    /**
+     * Runs in time that depends only on the length of {@code expected}.
+     */
+    static boolean constantTimeEquals(CharSequence actual, CharSequence expected) {
+        int actualLength = actual.length();
+        int diff = actualLength ^ expected.length();
+        for (int i = 0; i < expected.length(); i++) {
+            char c = i < actualLength ? actual.charAt(i) : 0;
+            diff |= c ^ expected.charAt(i);
+        }
+        return diff == 0;
+    }
+
+    private static SecureRandom newSecureRandom() {
+        try {
+            return SecureRandom.getInstance("DRBG");
+        } catch (NoSuchAlgorithmException e) {
+            return new SecureRandom();
+        }
+    }
+
+    private static byte[] hashKeyBytes(SecurityProperties securityProperties, String otpStore,
+                                       String activeProfile) {
+        String configured = securityProperties.getOtpHashKey();
+        if (configured != null && !configured.isBlank()) {
+            return configured.getBytes(StandardCharsets.UTF_8);
+        }
+        if (securityProperties.isHashOtp()) {
+            if ("redis".equalsIgnoreCase(otpStore) || "prod".equals(activeProfile)
+                    || securityProperties.isProductionMode()) {
+                throw new IllegalStateException("app.security.hash-otp=true requires app.security.otp-hash-key "
+                        + "with the redis OTP store or in production. Set OTP_HASH_KEY to the same value on every node.");
+            }
+            logger.warn("app.security.otp-hash-key is not set; using a per-process key, so hashed OTPs "
+                    + "cannot be verified by another node or after a restart");
+        }
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return key;
+    }
+
+    private static final class Stripe {
+        private final SecureRandom random;
+        private final char[] digits = new char[LENGTH];
+
+        Stripe(SecureRandom random) {
+            this.random = random;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,161 @@
+package com.cloudkitchen.rbac.service.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.cloudkitchen.rbac.cache.CacheInvalidationBus;
+import com.cloudkitchen.rbac.cache.CacheInvalidationMessage;
+import com.cloudkitchen.rbac.cache.CacheNames;
+import com.cloudkitchen.rbac.cache.RbacChangedEvent;
+import com.cloudkitchen.rbac.domain.entity.Permission;
+import com.cloudkitchen.rbac.domain.entity.Role;
+import com.cloudkitchen.rbac.repository.PermissionRepository;
+import com.cloudkitchen.rbac.repository.RolePermissionRepository;
+import com.cloudkitchen.rbac.repository.RoleRepository;
+import com.cloudkitchen.rbac.repository.UserRoleRepository;
+import com.cloudkitchen.rbac.security.PermissionGraph;
+import com.cloudkitchen.rbac.service.PermissionGraphService;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Holds the current {@link PermissionGraph} and swaps in a rebuilt snapshot
+ * whenever roles, permissions or role-permission links change. Readers never
+ * block: they see either the old or the new snapshot, never a partial one.
+ * Other nodes are told to rebuild through the cache invalidation bus.
+ */
+@Service
+public class PermissionGraphServiceImpl implements PermissionGraphService {
+
+    private static final Logger log = LoggerFactory.getLogger(PermissionGraphServiceImpl.class);
+
+    private final RoleRepository roles;
+    private final PermissionRepository permissions;
+    private final RolePermissionRepository rolePermissions;
+    private final UserRoleRepository userRoles;
+    private final CacheInvalidationBus invalidationBus;
+    private final TransactionTemplate readTransaction;
+
+    private final AtomicReference<PermissionGraph> snapshot = new AtomicReference<>();
+    // A lock rather than synchronized: load() does JDBC and must not pin a virtual thread
+    private final ReentrantLock refreshLock = new ReentrantLock();
+    private long nextVersion = 1;
+
+    public PermissionGraphServiceImpl(RoleRepository roles, PermissionRepository permissions,
+                                      RolePermissionRepository rolePermissions, UserRoleRepository userRoles,
+                                      CacheInvalidationBus invalidationBus,
+                                      PlatformTransactionManager transactionManager) {
+        this.roles = roles;
+        this.permissions = permissions;
+        this.rolePermissions = rolePermissions;
+        this.userRoles = userRoles;
+        this.invalidationBus = invalidationBus;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+    }
+
+    // Not in the constructor: a remote message must not reach a partially built instance
+    @PostConstruct
+    void subscribe() {
+        invalidationBus.subscribe(this::onRemoteInvalidation);
+    }
+
+    @Override
+    public PermissionGraph current() {
+        PermissionGraph graph = snapshot.get();
+        if (graph == null) {
+            refreshLock.lock();
+            try {
+                graph = snapshot.get();
+                if (graph == null) {
+                    graph = load();
+                    snapshot.set(graph);
+                }
+            } finally {
+                refreshLock.unlock();
+            }
+        }
+        return graph;
+    }
+
+    @Override
+    public PermissionGraph.Grant resolve(Integer userId, Integer merchantId) {
+        return current().resolve(userRoles.findRoleIds(userId, merchantId));
+    }
+
+    @Override
+    public void refresh() {
+        refreshLock.lock();
+        try {
+            snapshot.set(load());
+        } finally {
+            refreshLock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            current();
+        } catch (RuntimeException e) {
+            log.warn("Permission graph warm-up failed, will load on first use: {}", e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onRbacChanged(RbacChangedEvent event) {
+        if (event.roleIds().isEmpty() && event.permissionIds().isEmpty()) {
+            return; // user-role assignments do not change the graph
+        }
+        if (snapshot.get() != null) {
+            refresh();
+        }
+        // Peers rebuild too, whether or not this node had loaded a snapshot yet
+        invalidationBus.publish(new CacheInvalidationMessage(invalidationBus.nodeId(), Map.of(),
+                List.of(CacheNames.PERMISSION_GRAPH)));
+    }
+
+    private void onRemoteInvalidation(CacheInvalidationMessage message) {
+        if (message.clears() != null && message.clears().contains(CacheNames.PERMISSION_GRAPH)
+                && snapshot.get() != null) {
+            refresh();
+        }
+    }
+
+    /** Caller must hold {@link #refreshLock}. */
+    private PermissionGraph load() {
+        long version = nextVersion++;
+        PermissionGraph graph = readTransaction.execute(status -> {
+            Map<Integer, String> roleNames = new HashMap<>();
+            for (Role role : roles.findAll()) {
+                roleNames.put(role.getRoleId(), role.getRoleName());
+            }
+            Map<Integer, String> permissionNames = new HashMap<>();
+            for (Permission permission : permissions.findAll()) {
+                permissionNames.put(permission.getPermissionId(), permission.getPermissionName());
+            }
+            List<int[]> edges = new ArrayList<>();
+            for (Object[] row : rolePermissions.findAllRolePermissionIds()) {
+                edges.add(new int[] { ((Number) row[0]).intValue(), ((Number) row[1]).intValue() });
+            }
+            return PermissionGraph.build(version, roleNames, permissionNames, edges);
+        });
+        log.info("Permission graph v{} loaded: {} roles, {} permissions",
+                version, graph.roleCount(), graph.permissionCount());
+        return graph;
+    }
+}
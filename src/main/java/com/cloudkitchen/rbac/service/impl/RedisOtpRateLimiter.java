@@ -0,0 +1,63 @@
+package com.cloudkitchen.rbac.service.impl;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import com.cloudkitchen.rbac.constants.AppConstants;
+import com.cloudkitchen.rbac.service.OtpRateLimiter;
+
+/**
+ * OTP rate limiter shared by all nodes: one Redis sorted set per phone and
+ * OTP type holding request timestamps. Trimming, counting and recording run
+ * in a single Lua script so concurrent requests cannot both take the last
+ * slot. Sets expire one window after their newest entry.
+ *
+ * If Redis is unavailable the request is allowed; the endpoint is still
+ * covered by the per-IP API rate limit.
+ */
+@Service
+@ConditionalOnProperty(name = "app.otp.rate-limit.store", havingValue = "redis")
+public class RedisOtpRateLimiter implements OtpRateLimiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisOtpRateLimiter.class);
+    private static final String KEY_PREFIX = "rbac:otp-rl:";
+
+    private static final RedisScript<Long> SLIDING_WINDOW = new DefaultRedisScript<>(
+            "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', ARGV[1] - ARGV[2]) "
+            + "if redis.call('ZCARD', KEYS[1]) >= tonumber(ARGV[3]) then return 0 end "
+            + "redis.call('ZADD', KEYS[1], ARGV[1], ARGV[4]) "
+            + "redis.call('PEXPIRE', KEYS[1], ARGV[2]) "
+            + "return 1",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final long windowMillis = Duration.ofMinutes(AppConstants.OTP_RATE_LIMIT_WINDOW_MINUTES).toMillis();
+
+    public RedisOtpRateLimiter(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public boolean tryAcquire(String phone, String otpType) {
+        String key = KEY_PREFIX + phone + ":" + (otpType != null ? otpType : "login");
+        long now = System.currentTimeMillis();
+        try {
+            Long allowed = redisTemplate.execute(SLIDING_WINDOW, List.of(key),
+                    String.valueOf(now), String.valueOf(windowMillis),
+                    String.valueOf(AppConstants.OTP_RATE_LIMIT_REQUESTS), now + ":" + UUID.randomUUID());
+            return allowed == null || allowed == 1L;
+        } catch (RuntimeException e) {
+            logger.warn("OTP rate limit check unavailable, allowing request: {}", e.getMessage());
+            return true;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.cloudkitchen.rbac.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import com.cloudkitchen.rbac.exception.BusinessExceptions.ServiceUnavailableException;
+import com.cloudkitchen.rbac.service.OtpStore;
+
+/**
+ * OTP store shared by all nodes: one Redis hash per user with native TTL
+ * (code expiry plus {@link OtpStore#EXPIRED_RETENTION}). Replacing,
+ * counting attempts and consuming each run as a single script, so a
+ * challenge can neither be resurrected without a TTL, consumed twice, nor
+ * consumed after it reached the attempt limit.
+ *
+ * Unlike the rate limiter this cannot fail open: if Redis is unavailable
+ * OTP requests and verifications are rejected with 503.
+ */
+@Service
+@ConditionalOnProperty(name = "app.otp.store", havingValue = "redis")
+public class RedisOtpStore implements OtpStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisOtpStore.class);
+    private static final String KEY_PREFIX = "rbac:otp:";
+    private static final String CODE = "code";
+    private static final String EXPIRES_AT = "expiresAt";
+    private static final String ATTEMPTS = "attempts";
+
+    private static final RedisScript<Long> SAVE = new DefaultRedisScript<>(
+            "redis.call('DEL', KEYS[1]) "
+            + "redis.call('HSET', KEYS[1], '" + CODE + "', ARGV[1], '" + EXPIRES_AT + "', ARGV[2], '"
+            + ATTEMPTS + "', 0) "
+            + "redis.call('PEXPIRE', KEYS[1], ARGV[3]) "
+            + "return 1",
+            Long.class);
+
+    private static final RedisScript<Long> RECORD_FAILED_ATTEMPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end "
+            + "local attempts = redis.call('HINCRBY', KEYS[1], '" + ATTEMPTS + "', 1) "
+            + "if attempts >= tonumber(ARGV[1]) then redis.call('DEL', KEYS[1]) end "
+            + "return attempts",
+            Long.class);
+
+    private static final RedisScript<Long> CONSUME = new DefaultRedisScript<>(
+            "local fields = redis.call('HMGET', KEYS[1], '" + CODE + "', '" + ATTEMPTS + "') "
+            + "if fields[1] ~= ARGV[1] or tonumber(fields[2] or '0') >= tonumber(ARGV[2]) then return 0 end "
+            + "redis.call('DEL', KEYS[1]) "
+            + "return 1",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisOtpStore(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public void save(Integer userId, Challenge challenge) {
+        long ttlMillis = Math.max(1, Duration.between(LocalDateTime.now(), challenge.expiresAt())
+                .plus(EXPIRED_RETENTION).toMillis());
+        try {
+            redisTemplate.execute(SAVE, List.of(key(userId)), challenge.otpCode(),
+                    challenge.expiresAt().toString(), String.valueOf(ttlMillis));
+        } catch (RuntimeException e) {
+            throw unavailable(e);
+        }
+    }
+
+    @Override
+    public Optional<Challenge> find(Integer userId) {
+        Map<Object, Object> fields;
+        try {
+            fields = redisTemplate.opsForHash().entries(key(userId));
+        } catch (RuntimeException e) {
+            throw unavailable(e);
+        }
+        if (fields.isEmpty() || fields.get(CODE) == null) {
+            return Optional.empty();
+        }
+        Object attempts = fields.get(ATTEMPTS);
+        return Optional.of(new Challenge((String) fields.get(CODE),
+                LocalDateTime.parse((String) fields.get(EXPIRES_AT)),
+                attempts != null ? Integer.parseInt((String) attempts) : 0));
+    }
+
+    @Override
+    public int recordFailedAttempt(Integer userId) {
+        try {
+            Long attempts = redisTemplate.execute(RECORD_FAILED_ATTEMPT, List.of(key(userId)),
+                    String.valueOf(MAX_ATTEMPTS));
+            return attempts != null ? attempts.intValue() : 0;
+        } catch (RuntimeException e) {
+            throw unavailable(e);
+        }
+    }
+
+    @Override
+    public boolean consume(Integer userId, String otpCode) {
+        try {
+            Long consumed = redisTemplate.execute(CONSUME, List.of(key(userId)), otpCode,
+                    String.valueOf(MAX_ATTEMPTS));
+            return consumed != null && consumed == 1L;
+        } catch (RuntimeException e) {
+            throw unavailable(e);
+        }
+    }
+
+    @Override
+    public void remove(Integer userId) {
+        try {
+            redisTemplate.delete(key(userId));
+        } catch (RuntimeException e) {
+            throw unavailable(e);
+        }
+    }
+
+    private static String key(Integer userId) {
+        return KEY_PREFIX + userId;
+    }
+
+    private static ServiceUnavailableException unavailable(RuntimeException e) {
+        logger.warn("OTP store unavailable: {}", e.getMessage());
+        return new ServiceUnavailableException("OTP service temporarily unavailable. Please try again.");
+    }
+}
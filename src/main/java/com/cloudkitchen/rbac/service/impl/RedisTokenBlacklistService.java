@@ -0,0 +1,173 @@
+package com.cloudkitchen.rbac.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.cloudkitchen.rbac.config.SecurityProperties;
+import com.cloudkitchen.rbac.service.TokenBlacklistService;
+import com.cloudkitchen.rbac.util.BloomFilter;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Cluster-wide token revocation backed by Redis.
+ *
+ * Each revoked jti is stored as its own key with the token's remaining
+ * lifetime as TTL, so Redis expires entries by itself. Every node keeps a
+ * local Bloom filter of revoked ids: a miss answers "not revoked" without a
+ * network hop, and only filter hits (real revocations and rare false
+ * positives) are confirmed against Redis.
+ *
+ * The filter is fed by this node's own revocations and by peers through a
+ * pub/sub channel, and is rebuilt from a SCAN of the key space at startup and
+ * on a fixed interval. The rebuild drops expired ids and also repairs any
+ * pub/sub message lost while the connection was down, so a peer's revocation
+ * can be missed for at most one rebuild interval.
+ */
+@Service
+@ConditionalOnProperty(name = "app.security.token-blacklist.store", havingValue = "redis")
+public class RedisTokenBlacklistService implements TokenBlacklistService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisTokenBlacklistService.class);
+    private static final String REVOKED = "1";
+    private static final int SCAN_BATCH_SIZE = 1000;
+
+    private final StringRedisTemplate redisTemplate;
+    private final SecurityProperties.TokenBlacklist settings;
+
+    private volatile BloomFilter filter;
+    /** Filter being rebuilt; revocations seen during the rebuild go into both. */
+    private volatile BloomFilter rebuilding;
+    private volatile boolean hydrated;
+    private long lastCount;
+    // Held across a Redis SCAN; a lock so a virtual scheduler thread is not pinned
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public RedisTokenBlacklistService(StringRedisTemplate redisTemplate,
+                                      RedisMessageListenerContainer listenerContainer,
+                                      SecurityProperties securityProperties) {
+        this.redisTemplate = redisTemplate;
+        this.settings = securityProperties.getTokenBlacklist();
+        this.filter = newFilter();
+        listenerContainer.addMessageListener(
+                (message, pattern) -> addLocal(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(settings.getChannel()));
+    }
+
+    @PostConstruct
+    public void init() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.warn("Could not hydrate token blacklist filter, checking Redis directly until the next rebuild: {}",
+                    e.getMessage());
+        }
+    }
+
+    @Override
+    public void blacklist(String jti, long ttlMillis) {
+        if (jti == null || ttlMillis <= 0) {
+            return;
+        }
+        redisTemplate.opsForValue().set(key(jti), REVOKED, Duration.ofMillis(ttlMillis));
+        addLocal(jti);
+        try {
+            redisTemplate.convertAndSend(settings.getChannel(), jti);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to broadcast token revocation, peers will pick it up on rebuild: {}", e.getMessage());
+        }
+        logger.debug("Token blacklisted in Redis: {} for {} ms", jti, ttlMillis);
+    }
+
+    @Override
+    public boolean isBlacklisted(String jti) {
+        if (jti == null) {
+            return false;
+        }
+        if (hydrated && !filter.mightContain(jti)) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(redisTemplate.hasKey(key(jti)));
+        } catch (RuntimeException e) {
+            // A filter hit is most likely a real revocation, so fail closed; without
+            // a hydrated filter we cannot tell, and rejecting every token would be an outage
+            logger.warn("Token blacklist lookup failed for {}: {}", jti, e.getMessage());
+            return hydrated;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "#{@securityProperties.tokenBlacklist.rebuildInterval.toMillis()}",
+            initialDelayString = "#{@securityProperties.tokenBlacklist.rebuildInterval.toMillis()}")
+    public void scheduledRebuild() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            logger.warn("Token blacklist filter rebuild failed, keeping the current filter: {}", e.getMessage());
+        }
+    }
+
+    private void rebuild() {
+        rebuildLock.lock();
+        try {
+            doRebuild();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void doRebuild() {
+        BloomFilter next = newFilter();
+        rebuilding = next;
+        long count = 0;
+        try {
+            String prefix = settings.getKeyPrefix();
+            ScanOptions options = ScanOptions.scanOptions().match(prefix + "*").count(SCAN_BATCH_SIZE).build();
+            try (Cursor<String> cursor = redisTemplate.scan(options)) {
+                while (cursor.hasNext()) {
+                    next.put(cursor.next().substring(prefix.length()));
+                    count++;
+                }
+            }
+            filter = next;
+            hydrated = true;
+            lastCount = count;
+        } finally {
+            rebuilding = null;
+        }
+        logger.debug("Token blacklist filter rebuilt with {} revoked ids", count);
+    }
+
+    private void addLocal(String jti) {
+        // Read 'rebuilding' before 'filter': if no rebuild is in flight yet, its SCAN will
+        // still see the key (written before we get here); if one just finished, 'filter'
+        // already holds the new instance
+        BloomFilter next = rebuilding;
+        if (next != null) {
+            next.put(jti);
+        }
+        filter.put(jti);
+    }
+
+    private BloomFilter newFilter() {
+        // Leave headroom over the last observed size so the false-positive rate holds between rebuilds
+        long expected = Math.max(settings.getExpectedInsertions(), lastCount * 2);
+        return BloomFilter.create(expected, settings.getFalsePositiveRate());
+    }
+
+    private String key(String jti) {
+        return settings.getKeyPrefix() + jti;
+    }
+}
@@ -1,27 +1,32 @@
 package com.cloudkitchen.rbac.service.impl;
 
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 import com.cloudkitchen.rbac.config.S3Properties;
 import com.cloudkitchen.rbac.dto.merchant.FolderCreationStatus;
 import com.cloudkitchen.rbac.exception.BusinessExceptions.ServiceUnavailableException;
 import com.cloudkitchen.rbac.service.CloudStorageService;
-import com.cloudkitchen.rbac.util.FilenameSanitizer;
 
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
 import software.amazon.awssdk.services.s3.model.GetObjectRequest;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
 import software.amazon.awssdk.services.s3.model.S3Exception;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
@@ -34,128 +39,140 @@ public class S3CloudStorageServiceImpl implements CloudStorageService {
 
     private static final Logger logger = LoggerFactory.getLogger(S3CloudStorageServiceImpl.class);
     private static final Pattern VALID_ID = Pattern.compile("^[a-zA-Z0-9_-]+$");
-    private static final String FOLDER_PLACEHOLDER = "# folder placeholder";
-    private static final byte[] PLACEHOLDER_BYTES = FOLDER_PLACEHOLDER.getBytes(StandardCharsets.UTF_8);
 
-    private final S3Client s3Client;
+    // Shared by all merchants (root level)
+    private static final List<String> GLOBAL_FOLDERS = List.of("offers/", "ads/");
+    private static final List<String> MERCHANT_FOLDERS = List.of(
+        "banners/", "logos/", "profile_image/", "product_image/", "menu_card/", "offers/");
+    private static final List<String> CUSTOMER_FOLDERS = List.of("profile_img/", "reviews/");
+
     private final S3Presigner s3Presigner;
     private final S3Properties properties;
+    private final S3FolderProvisioner folderProvisioner;
+    private final S3StreamingUploader streamingUploader;
 
     // In-memory status tracker (consider using Redis for production)
     private final ConcurrentHashMap<Integer, FolderCreationStatus> statusTracker = new ConcurrentHashMap<>();
+
+    // S3 key -> presigned GET URL
+    private final Cache<String, String> presignedUrls;
     
-    public S3CloudStorageServiceImpl(S3Client s3Client, S3Presigner s3Presigner, S3Properties properties) {
-        this.s3Client = s3Client;
+    public S3CloudStorageServiceImpl(S3Presigner s3Presigner, S3Properties properties,
+                                     S3FolderProvisioner folderProvisioner, S3StreamingUploader streamingUploader) {
         this.s3Presigner = s3Presigner;
         this.properties = properties;
+        this.folderProvisioner = folderProvisioner;
+        this.streamingUploader = streamingUploader;
+
+        Duration cacheTtl = properties.getPresignedUrlCacheTtl();
+        Duration maxTtl = properties.getPresignedUrlDuration().dividedBy(2);
+        if (cacheTtl.compareTo(maxTtl) > 0) {
+            logger.warn("Presigned URL cache TTL {} is too close to the signature lifetime {}, using {}",
+                cacheTtl, properties.getPresignedUrlDuration(), maxTtl);
+            cacheTtl = maxTtl;
+        }
+        this.presignedUrls = Caffeine.newBuilder()
+            .maximumSize(properties.getPresignedUrlCacheMaximumSize())
+            .expireAfterWrite(cacheTtl)
+            .build();
     }
     
     @Override
     public void createMerchantFolderStructure(String merchantId) {
-        validateId(merchantId, "merchantId");
+        join(createMerchantFolderStructureAsync(merchantId));
+    }
+
+    /**
+     * Puts all placeholders concurrently through {@link S3FolderProvisioner};
+     * no thread waits for S3 while they are in flight. The shared
+     * {@code offers/} and {@code ads/} folders are only written once per
+     * process.
+     */
+    @Override
+    public CompletableFuture<Void> createMerchantFolderStructureAsync(String merchantId) {
+        try {
+            validateId(merchantId, "merchantId");
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
         Integer merchantIdInt = Integer.valueOf(merchantId);
 
         // Initialize status
         FolderCreationStatus status = new FolderCreationStatus(merchantIdInt, FolderCreationStatus.Status.IN_PROGRESS);
         status.setStartedAt(LocalDateTime.now());
+        status.setCreatedFolders(0);
         statusTracker.put(merchantIdInt, status);
 
-        // Global folders (root level)
-        String[] globalFolders = {"offers/", "ads/"};
-
-        // Merchant-specific folders
-        String[] merchantFolders = {
-            "banners/", "logos/", "profile_image/", "product_image/",
-            "menu_card/", "offers/"
-        };
-
-        int totalFolders = globalFolders.length + merchantFolders.length;
+        List<String> merchantFolders = new ArrayList<>(MERCHANT_FOLDERS.size());
+        for (String folder : MERCHANT_FOLDERS) {
+            merchantFolders.add(merchantId + "/" + folder);
+        }
+        int totalFolders = GLOBAL_FOLDERS.size() + merchantFolders.size();
         status.setTotalFolders(totalFolders);
 
         long start = System.currentTimeMillis();
-        int success = 0;
-        int failed = 0;
-
-        // Create global folders (only once, idempotent)
-        for (String folder : globalFolders) {
-            try {
-                createFolder(folder);
-                success++;
-                status.setCreatedFolders(success);
-            } catch (Exception e) {
-                failed++;
-                logger.error("Failed to create global folder {}: {}", folder, e.getMessage());
-            }
-        }
-
-        // Create merchant-specific folders
-        for (String folder : merchantFolders) {
-            try {
-                createFolder(merchantId + "/" + folder);
-                success++;
-                status.setCreatedFolders(success);
-            } catch (Exception e) {
-                failed++;
-                logger.error("Failed to create folder {}/{}: {}", merchantId, folder, e.getMessage());
-            }
-        }
+        return folderProvisioner.provision(GLOBAL_FOLDERS, merchantFolders, status::setCreatedFolders)
+            .thenAccept(failed -> {
+                long duration = System.currentTimeMillis() - start;
+                status.setDurationMs(duration);
+                status.setCompletedAt(LocalDateTime.now());
 
-        long duration = System.currentTimeMillis() - start;
-        status.setDurationMs(duration);
-        status.setCompletedAt(LocalDateTime.now());
+                if (!failed.isEmpty()) {
+                    status.setStatus(FolderCreationStatus.Status.FAILED);
+                    status.setErrorMessage(String.format("Failed to create %d/%d folders", failed.size(), totalFolders));
+                    logger.warn("S3 folder creation failed for merchant {}: {}", merchantId, failed);
+                    throw new ServiceUnavailableException(
+                        String.format("Failed to create %d/%d folders for merchant %s", failed.size(), totalFolders, merchantId)
+                    );
+                }
 
-        if (failed > 0) {
-            status.setStatus(FolderCreationStatus.Status.FAILED);
-            status.setErrorMessage(String.format("Failed to create %d/%d folders", failed, totalFolders));
-            throw new ServiceUnavailableException(
-                String.format("Failed to create %d/%d folders for merchant %s", failed, totalFolders, merchantId)
-            );
-        }
+                status.setStatus(FolderCreationStatus.Status.COMPLETED);
+                logger.info("✅ Merchant folders created - merchantId: {}, folders: {}, duration: {}ms",
+                    merchantId, totalFolders, duration);
+            });
+    }
 
-        status.setStatus(FolderCreationStatus.Status.COMPLETED);
-        logger.info("✅ Merchant folders created - merchantId: {}, folders: {}, duration: {}ms",
-            merchantId, success, duration);
+    @Override
+    public void createCustomerFolderStructure(String merchantId, String customerId) {
+        join(createCustomerFolderStructureAsync(merchantId, customerId));
     }
 
-    @Async("s3Executor")
     @Override
-    public CompletableFuture<Void> createMerchantFolderStructureAsync(String merchantId) {
+    public CompletableFuture<Void> createCustomerFolderStructureAsync(String merchantId, String customerId) {
         try {
-            createMerchantFolderStructure(merchantId);
-            return CompletableFuture.completedFuture(null);
-        } catch (Exception e) {
-            logger.warn("Async S3 folder creation failed for merchant {}: {}", merchantId, e.getMessage());
+            validateId(merchantId, "merchantId");
+            validateId(customerId, "customerId");
+        } catch (IllegalArgumentException e) {
             return CompletableFuture.failedFuture(e);
         }
-    }
 
-    @Override
-    public void createCustomerFolderStructure(String merchantId, String customerId) {
-        validateId(merchantId, "merchantId");
-        validateId(customerId, "customerId");
-        
-        String[] folders = {"profile_img/", "reviews/"};
-        
+        List<String> folders = new ArrayList<>(CUSTOMER_FOLDERS.size());
+        for (String folder : CUSTOMER_FOLDERS) {
+            folders.add(merchantId + "/customer/" + customerId + "/" + folder);
+        }
+
         long start = System.currentTimeMillis();
-        int failed = 0;
-        
-        for (String folder : folders) {
-            try {
-                createFolder(merchantId + "/customer/" + customerId + "/" + folder);
-            } catch (Exception e) {
-                failed++;
-                logger.error("Failed to create customer folder: {}", e.getMessage());
+        return folderProvisioner.provision(List.of(), folders, done -> { })
+            .thenAccept(failed -> {
+                if (!failed.isEmpty()) {
+                    throw new ServiceUnavailableException(
+                        String.format("Failed to create %d/%d customer folders", failed.size(), folders.size())
+                    );
+                }
+                logger.info("✅ Customer folders created - merchantId: {}, customerId: {}, folders: {}, duration: {}ms",
+                    merchantId, customerId, folders.size(), System.currentTimeMillis() - start);
+            });
+    }
+
+    private static void join(CompletableFuture<Void> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
             }
+            throw e;
         }
-        
-        if (failed > 0) {
-            throw new ServiceUnavailableException(
-                String.format("Failed to create %d/%d customer folders", failed, folders.length)
-            );
-        }
-        
-        logger.info("✅ Customer folders created - merchantId: {}, customerId: {}, folders: {}, duration: {}ms",
-            merchantId, customerId, folders.length, System.currentTimeMillis() - start);
     }
     
     @Override
@@ -172,44 +189,26 @@ public class S3CloudStorageServiceImpl implements CloudStorageService {
         }
         
         try {
-            PutObjectRequest request = PutObjectRequest.builder()
-                .bucket(properties.getBucket())
-                .key(key)
-                .contentType(contentType)
-                .contentLength(contentLength)
-                .build();
-            
-            s3Client.putObject(request, RequestBody.fromInputStream(inputStream, contentLength));
+            streamingUploader.upload(key, inputStream, contentLength, contentType);
+            presignedUrls.invalidate(key);
             logger.info("✅ File uploaded - key: {}, size: {} bytes", key, contentLength);
             
-        } catch (S3Exception e) {
-            logger.error("❌ S3 upload failed - key: {}, error: {}", key, e.awsErrorDetails().errorMessage(), e);
-            throw new ServiceUnavailableException("S3 upload failed: " + e.awsErrorDetails().errorMessage());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof S3Exception s3 && s3.awsErrorDetails() != null) {
+                logger.error("❌ S3 upload failed - key: {}, error: {}", key, s3.awsErrorDetails().errorMessage(), s3);
+                throw new ServiceUnavailableException("S3 upload failed: " + s3.awsErrorDetails().errorMessage());
+            }
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            logger.error("❌ Upload failed - key: {}, error: {}", key, cause.getMessage(), cause);
+            throw new ServiceUnavailableException("Upload failed: " + cause.getMessage());
+        } catch (IllegalArgumentException | ServiceUnavailableException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("❌ Upload failed - key: {}, error: {}", key, e.getMessage(), e);
             throw new ServiceUnavailableException("Upload failed: " + e.getMessage());
         }
     }
     
-    private void createFolder(String path) {
-        String key = FilenameSanitizer.sanitizePath(path) + ".keep";
-        
-        try {
-            PutObjectRequest request = PutObjectRequest.builder()
-                .bucket(properties.getBucket())
-                .key(key)
-                .contentType("text/plain")
-                .contentLength((long) PLACEHOLDER_BYTES.length)
-                .build();
-            
-            s3Client.putObject(request, RequestBody.fromBytes(PLACEHOLDER_BYTES));
-            
-        } catch (S3Exception e) {
-            logger.error("S3 folder creation failed - path: {}, error: {}", path, e.awsErrorDetails().errorMessage(), e);
-            throw new ServiceUnavailableException("Folder creation failed: " + e.awsErrorDetails().errorMessage());
-        }
-    }
-    
     private void validateId(String id, String field) {
         if (id == null || id.isBlank()) {
             throw new IllegalArgumentException(field + " cannot be null or empty");
@@ -237,10 +236,34 @@ public class S3CloudStorageServiceImpl implements CloudStorageService {
         }
     }
     
+    /**
+     * Signed URLs are reused for {@code aws.s3.presigned-url-cache-ttl}, which
+     * is kept well below the signature lifetime so a cached URL is always
+     * valid for at least the remaining difference. Uploading to a key drops
+     * its cached URL.
+     */
     @Override
     public String generatePresignedUrl(String key) {
         validateKey(key);
+        return presignedUrls.get(key, this::presign);
+    }
+
+    @Override
+    public Map<String, String> generatePresignedUrls(Collection<String> keys) {
+        Set<String> distinct = new LinkedHashSet<>(keys);
+        for (String key : distinct) {
+            validateKey(key);
+        }
+        return presignedUrls.getAll(distinct, missing -> {
+            Map<String, String> signed = new HashMap<>();
+            for (String key : missing) {
+                signed.put(key, presign(key));
+            }
+            return signed;
+        });
+    }
 
+    private String presign(String key) {
         try {
             GetObjectRequest getObjectRequest = GetObjectRequest.builder()
                 .bucket(properties.getBucket())
@@ -248,7 +271,7 @@ public class S3CloudStorageServiceImpl implements CloudStorageService {
                 .build();
 
             GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
-                .signatureDuration(Duration.ofHours(24))
+                .signatureDuration(properties.getPresignedUrlDuration())
                 .getObjectRequest(getObjectRequest)
                 .build();
 
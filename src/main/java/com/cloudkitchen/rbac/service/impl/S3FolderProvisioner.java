@@ -0,0 +1,174 @@
+package com.cloudkitchen.rbac.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.cloudkitchen.rbac.config.S3Properties;
+import com.cloudkitchen.rbac.util.FilenameSanitizer;
+
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+
+/**
+ * Creates folder placeholders ({@code <folder>.keep}) with the async S3
+ * client. All puts of a request are issued at once, and at most
+ * {@code aws.s3.max-in-flight-requests} are outstanding across the whole
+ * service; the rest wait in a queue without holding a thread.
+ *
+ * Shared folders (e.g. {@code offers/}) only need to exist once. They are
+ * written the first time any request asks for them and remembered for the
+ * life of the process, so provisioning many merchants puts them once
+ * instead of once per merchant. A failed write is forgotten and retried by
+ * the next request.
+ */
+@Component
+public class S3FolderProvisioner {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3FolderProvisioner.class);
+    private static final byte[] PLACEHOLDER_BYTES = "# folder placeholder".getBytes(StandardCharsets.UTF_8);
+
+    private final S3AsyncClient s3AsyncClient;
+    private final S3Properties properties;
+    private final Semaphore inFlight;
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> sharedFolders = new ConcurrentHashMap<>();
+
+    public S3FolderProvisioner(S3AsyncClient s3AsyncClient, S3Properties properties) {
+        this.s3AsyncClient = s3AsyncClient;
+        this.properties = properties;
+        this.inFlight = new Semaphore(Math.max(1, properties.getMaxInFlightRequests()));
+    }
+
+    /**
+     * Create the given folders.
+     *
+     * @param sharedFolders folders shared by every merchant; skipped if this
+     *                      process already created them
+     * @param folders       folders owned by the caller; always written
+     * @param progress      called with the number of folders done so far,
+     *                      after each one completes
+     * @return completes when every folder is done, with the folders that
+     *         could not be created (empty on success); never completes
+     *         exceptionally
+     */
+    public CompletableFuture<List<String>> provision(List<String> sharedFolders, List<String> folders,
+                                                     IntConsumer progress) {
+        List<String> failed = new ArrayList<>();
+        AtomicInteger done = new AtomicInteger();
+        List<CompletableFuture<Void>> puts = new ArrayList<>(sharedFolders.size() + folders.size());
+        for (String folder : sharedFolders) {
+            puts.add(track(folder, ensureShared(folder), failed, done, progress));
+        }
+        for (String folder : folders) {
+            puts.add(track(folder, limited(() -> put(folder)), failed, done, progress));
+        }
+        return CompletableFuture.allOf(puts.toArray(CompletableFuture[]::new))
+                .handle((ignored, e) -> {
+                    synchronized (failed) {
+                        return List.copyOf(failed);
+                    }
+                });
+    }
+
+    private CompletableFuture<Void> track(String folder, CompletableFuture<Void> put, List<String> failed,
+                                          AtomicInteger done, IntConsumer progress) {
+        return put.whenComplete((ignored, e) -> {
+            if (e != null) {
+                logger.error("S3 folder creation failed - path: {}, error: {}", folder, describe(e));
+                synchronized (failed) {
+                    failed.add(folder);
+                }
+            } else {
+                progress.accept(done.incrementAndGet());
+            }
+        });
+    }
+
+    private CompletableFuture<Void> ensureShared(String folder) {
+        CompletableFuture<Void> created = new CompletableFuture<>();
+        CompletableFuture<Void> existing = sharedFolders.putIfAbsent(folder, created);
+        if (existing != null) {
+            return existing;
+        }
+        limited(() -> put(folder)).whenComplete((ignored, e) -> {
+            if (e != null) {
+                sharedFolders.remove(folder, created);
+                created.completeExceptionally(e);
+            } else {
+                created.complete(null);
+            }
+        });
+        return created;
+    }
+
+    private CompletableFuture<Void> put(String folder) {
+        PutObjectRequest request = PutObjectRequest.builder()
+                .bucket(properties.getBucket())
+                .key(FilenameSanitizer.sanitizePath(folder) + ".keep")
+                .contentType("text/plain")
+                .contentLength((long) PLACEHOLDER_BYTES.length)
+                .build();
+        return s3AsyncClient.putObject(request, AsyncRequestBody.fromBytes(PLACEHOLDER_BYTES))
+                .thenApply(response -> null);
+    }
+
+    /** Run {@code call} once an in-flight slot is free. */
+    private CompletableFuture<Void> limited(Supplier<CompletableFuture<Void>> call) {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        waiting.add(() -> {
+            CompletableFuture<Void> started;
+            try {
+                started = call.get();
+            } catch (RuntimeException e) {
+                started = CompletableFuture.failedFuture(e);
+            }
+            started.whenComplete((value, e) -> {
+                inFlight.release();
+                startWaiting();
+                if (e != null) {
+                    result.completeExceptionally(e);
+                } else {
+                    result.complete(value);
+                }
+            });
+        });
+        startWaiting();
+        return result;
+    }
+
+    // Whoever adds work or frees a slot calls this, so no queued put is left behind
+    private void startWaiting() {
+        while (!waiting.isEmpty() && inFlight.tryAcquire()) {
+            Runnable next = waiting.poll();
+            if (next == null) {
+                inFlight.release();
+                return;
+            }
+            next.run();
+        }
+    }
+
+    private static String describe(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof S3Exception s3 && s3.awsErrorDetails() != null) {
+            return s3.awsErrorDetails().errorMessage();
+        }
+        return cause.getMessage();
+    }
+}
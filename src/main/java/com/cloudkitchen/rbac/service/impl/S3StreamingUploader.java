@@ -0,0 +1,266 @@
+package com.cloudkitchen.rbac.service.impl;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Deque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.cloudkitchen.rbac.config.S3Properties;
+import com.cloudkitchen.rbac.exception.BusinessExceptions.ServiceUnavailableException;
+
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+
+/**
+ * Streams uploads to S3 through a fixed budget of direct memory
+ * ({@code aws.s3.upload-buffers} x {@code aws.s3.upload-part-size}) handed
+ * out in {@value #SLAB_SIZE}-byte slabs. Content that fits in one part is a
+ * single PUT holding only the slabs it needs, so a small image costs about
+ * its own size; larger content becomes a multipart upload that reads the
+ * next part while the previous one is being sent. Slabs are not copied onto
+ * the heap on the way to the HTTP client, so heap use per upload does not
+ * grow with the file size.
+ *
+ * The budget is the backpressure: an upload that cannot get the slabs for
+ * its next part within {@code aws.s3.upload-buffer-wait} fails with 503.
+ * Slabs are granted fairly, so a waiting multipart part is not overtaken
+ * forever by small uploads.
+ *
+ * Every PUT carries a Content-MD5 computed while the slabs are filled, so S3
+ * rejects a part that was corrupted in transit, and the declared content
+ * length must match the bytes actually read.
+ */
+@Component
+public class S3StreamingUploader {
+
+    private static final Logger logger = LoggerFactory.getLogger(S3StreamingUploader.class);
+
+    // Parts of one upload in flight while the next is read
+    private static final int PARTS_IN_FLIGHT_PER_UPLOAD = 2;
+    // Unit of the direct memory budget; a part is a run of slabs
+    private static final int SLAB_SIZE = 256 * 1024;
+
+    private final S3AsyncClient s3AsyncClient;
+    private final S3Properties properties;
+    private final int partSize;
+    private final long bufferWaitNanos;
+    private final Semaphore slabPermits;
+    private final Queue<ByteBuffer> freeSlabs;
+
+    public S3StreamingUploader(S3AsyncClient s3AsyncClient, S3Properties properties) {
+        this.s3AsyncClient = s3AsyncClient;
+        this.properties = properties;
+        // S3 requires at least 5MB for every part but the last
+        this.partSize = (int) Math.max(5L * 1024 * 1024, properties.getUploadPartSize().toBytes());
+        this.bufferWaitNanos = properties.getUploadBufferWait().toNanos();
+        this.slabPermits = new Semaphore(Math.max(1, properties.getUploadBuffers()) * slabCount(partSize), true);
+        this.freeSlabs = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Upload {@code contentLength} bytes from {@code input} to {@code key}.
+     * Blocks until S3 has acknowledged the object; does not close the stream.
+     *
+     * @throws IllegalArgumentException if the stream is shorter or longer than {@code contentLength}
+     * @throws ServiceUnavailableException if no upload memory became free in time
+     * @throws CompletionException wrapping the S3 client error if a request failed
+     */
+    public void upload(String key, InputStream input, long contentLength, String contentType) throws IOException {
+        ReadableByteChannel channel = Channels.newChannel(input);
+        if (contentLength <= partSize) {
+            uploadSingle(key, channel, contentLength, contentType);
+        } else {
+            uploadMultipart(key, channel, contentLength, contentType);
+        }
+    }
+
+    private void uploadSingle(String key, ReadableByteChannel channel, long contentLength, String contentType)
+            throws IOException {
+        ByteBuffer[] slabs = acquire((int) contentLength);
+        try {
+            String md5 = fill(channel, slabs, (int) contentLength);
+            expectEnd(channel, contentLength);
+            PutObjectRequest request = PutObjectRequest.builder()
+                    .bucket(properties.getBucket())
+                    .key(key)
+                    .contentType(contentType)
+                    .contentLength(contentLength)
+                    .contentMD5(md5)
+                    .build();
+            s3AsyncClient.putObject(request, AsyncRequestBody.fromRemainingByteBuffersUnsafe(slabs)).join();
+        } finally {
+            release(slabs);
+        }
+    }
+
+    private void uploadMultipart(String key, ReadableByteChannel channel, long contentLength, String contentType)
+            throws IOException {
+        String uploadId = s3AsyncClient.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(properties.getBucket())
+                .key(key)
+                .contentType(contentType)
+                .build()).join().uploadId();
+        Deque<CompletableFuture<CompletedPart>> inFlight = new ArrayDeque<>();
+        List<CompletedPart> parts = new ArrayList<>();
+        try {
+            long remaining = contentLength;
+            int partNumber = 1;
+            while (remaining > 0) {
+                if (inFlight.size() >= PARTS_IN_FLIGHT_PER_UPLOAD) {
+                    parts.add(inFlight.removeFirst().join());
+                }
+                int size = (int) Math.min(partSize, remaining);
+                inFlight.addLast(uploadPart(key, uploadId, partNumber++, channel, size));
+                remaining -= size;
+            }
+            expectEnd(channel, contentLength);
+            while (!inFlight.isEmpty()) {
+                parts.add(inFlight.removeFirst().join());
+            }
+            s3AsyncClient.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(properties.getBucket())
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                    .build()).join();
+        } catch (IOException | RuntimeException e) {
+            // Let parts still being sent settle, or they may outlive the abort
+            for (CompletableFuture<CompletedPart> part : inFlight) {
+                part.exceptionally(ignored -> null).join();
+            }
+            abort(key, uploadId);
+            throw e;
+        }
+    }
+
+    private CompletableFuture<CompletedPart> uploadPart(String key, String uploadId, int partNumber,
+                                                        ReadableByteChannel channel, int size) throws IOException {
+        ByteBuffer[] slabs = acquire(size);
+        try {
+            String md5 = fill(channel, slabs, size);
+            UploadPartRequest request = UploadPartRequest.builder()
+                    .bucket(properties.getBucket())
+                    .key(key)
+                    .uploadId(uploadId)
+                    .partNumber(partNumber)
+                    .contentLength((long) size)
+                    .contentMD5(md5)
+                    .build();
+            return s3AsyncClient.uploadPart(request, AsyncRequestBody.fromRemainingByteBuffersUnsafe(slabs))
+                    .whenComplete((response, e) -> release(slabs))
+                    .thenApply(response -> CompletedPart.builder()
+                            .partNumber(partNumber)
+                            .eTag(response.eTag())
+                            .build());
+        } catch (IOException | RuntimeException e) {
+            release(slabs);
+            throw e;
+        }
+    }
+
+    private void abort(String key, String uploadId) {
+        try {
+            s3AsyncClient.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(properties.getBucket())
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build()).join();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to abort multipart upload {} for key {}: {}", uploadId, key, e.getMessage());
+        }
+    }
+
+    /** Read exactly {@code size} bytes into {@code slabs}, flipped for reading; returns their base64 MD5. */
+    private static String fill(ReadableByteChannel channel, ByteBuffer[] slabs, int size) throws IOException {
+        MessageDigest md5 = md5();
+        int remaining = size;
+        for (ByteBuffer slab : slabs) {
+            slab.clear().limit(Math.min(SLAB_SIZE, remaining));
+            remaining -= slab.limit();
+            while (slab.hasRemaining()) {
+                if (channel.read(slab) < 0) {
+                    throw new IllegalArgumentException("Upload ended before the declared content length");
+                }
+            }
+            slab.flip();
+            md5.update(slab.duplicate());
+        }
+        return Base64.getEncoder().encodeToString(md5.digest());
+    }
+
+    private static void expectEnd(ReadableByteChannel channel, long contentLength) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(1);
+        int read;
+        do {
+            read = channel.read(probe);
+        } while (read == 0);
+        if (read > 0) {
+            throw new IllegalArgumentException("Upload is larger than the declared content length of "
+                    + contentLength + " bytes");
+        }
+    }
+
+    private static int slabCount(long bytes) {
+        return (int) ((bytes + SLAB_SIZE - 1) / SLAB_SIZE);
+    }
+
+    /** Take the slabs for {@code size} bytes, waiting up to the buffer wait for them to free up. */
+    private ByteBuffer[] acquire(int size) {
+        int count = slabCount(size);
+        boolean granted = false;
+        try {
+            granted = slabPermits.tryAcquire(count, bufferWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!granted) {
+            throw new ServiceUnavailableException("Upload capacity exhausted. Please try again.");
+        }
+        ByteBuffer[] slabs = new ByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            // The permits bound how many slabs exist, so allocating on a miss stays within the budget
+            ByteBuffer slab = freeSlabs.poll();
+            slabs[i] = slab != null ? slab : ByteBuffer.allocateDirect(SLAB_SIZE);
+        }
+        return slabs;
+    }
+
+    private void release(ByteBuffer[] slabs) {
+        freeSlabs.addAll(Arrays.asList(slabs));
+        slabPermits.release(slabs.length);
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 not available", e);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.cloudkitchen.rbac.service.impl;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.cloudkitchen.rbac.constants.AppConstants;
+import com.cloudkitchen.rbac.dto.common.ExportFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Streams bulk exports to the client as NDJSON or CSV in constant memory.
+ *
+ * Rows are read from a repository {@code Stream} query carrying a JDBC fetch
+ * size, so PostgreSQL hands them over through a server-side cursor rather
+ * than materializing the whole result set. The cursor only exists inside a
+ * transaction, so the stream is opened in a read-only transaction on the
+ * thread that writes the response. Every {@link AppConstants.Export#FETCH_SIZE}
+ * rows the chunk is mapped in one call, written and flushed, and the
+ * persistence context is cleared so it does not grow with the export.
+ */
+@Component
+public class StreamingExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamingExporter.class);
+
+    private static final int CHUNK_SIZE = Integer.parseInt(AppConstants.Export.FETCH_SIZE);
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    public StreamingExporter(EntityManager entityManager, PlatformTransactionManager transactionManager,
+                             ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * A CSV column: its header and how to read its value from a row.
+     */
+    public record Column<R>(String header, Function<R, ?> value) {
+    }
+
+    /**
+     * Build the download response for an export.
+     *
+     * @param filename base name of the downloaded file, without extension
+     * @param rows     opens the entity stream; called on the response thread inside the transaction
+     * @param mapper   maps a chunk of entities to response rows in one call
+     * @param columns  CSV columns, in order; NDJSON writes the whole response row
+     */
+    public <T, R> ResponseEntity<StreamingResponseBody> export(String filename, ExportFormat format,
+                                                               Supplier<Stream<T>> rows,
+                                                               Function<List<T>, List<R>> mapper,
+                                                               List<Column<R>> columns) {
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            try {
+                long exported = transactionTemplate.execute(status -> {
+                    try (Stream<T> stream = rows.get()) {
+                        return write(stream, mapper, format, columns, writer);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                logger.debug("Exported {} rows to {}.{}", exported, filename, format.getExtension());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(filename + "." + format.getExtension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
+
+    private <T, R> long write(Stream<T> stream, Function<List<T>, List<R>> mapper, ExportFormat format,
+                              List<Column<R>> columns, Writer writer) throws IOException {
+        if (format == ExportFormat.CSV) {
+            writeCsvRow(columns.stream().map(Column::header).toList(), writer);
+        }
+        long exported = 0;
+        List<T> chunk = new ArrayList<>(CHUNK_SIZE);
+        Iterator<T> iterator = stream.iterator();
+        while (iterator.hasNext()) {
+            chunk.add(iterator.next());
+            if (chunk.size() == CHUNK_SIZE || !iterator.hasNext()) {
+                for (R row : mapper.apply(chunk)) {
+                    if (format == ExportFormat.CSV) {
+                        writeCsvRow(columns.stream().map(column -> column.value().apply(row)).toList(), writer);
+                    } else {
+                        writeJsonLine(row, writer);
+                    }
+                }
+                exported += chunk.size();
+                chunk.clear();
+                // Detach the chunk so the persistence context holds at most one chunk
+                entityManager.clear();
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return exported;
+    }
+
+    private void writeJsonLine(Object row, Writer writer) throws IOException {
+        writer.write(objectMapper.writeValueAsString(row));
+        writer.write('\n');
+    }
+
+    private static void writeCsvRow(List<?> values, Writer writer) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(csvCell(values.get(i)));
+        }
+        writer.write("\r\n");
+    }
+
+    private static String csvCell(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value.toString();
+        // Keep spreadsheets from evaluating user-entered text as a formula
+        if (value instanceof CharSequence && !text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.indexOf(',') >= 0 || text.indexOf('"') >= 0 || text.indexOf('\n') >= 0 || text.indexOf('\r') >= 0) {
+            text = "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
@@ -0,0 +1,70 @@
+package com.cloudkitchen.rbac.service.impl;
+
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.cloudkitchen.rbac.cache.CacheInvalidationService;
+import com.cloudkitchen.rbac.cache.CacheNames;
+import com.cloudkitchen.rbac.repository.UserRepository;
+import com.cloudkitchen.rbac.service.TokenEpochService;
+
+/**
+ * Per-user token revocation. A single integer per active user replaces one
+ * blacklist entry per outstanding token, and "log out everywhere" is one
+ * UPDATE plus a cache eviction.
+ */
+@Service
+public class TokenEpochServiceImpl implements TokenEpochService {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenEpochServiceImpl.class);
+
+    private final UserRepository users;
+    private final CacheManager cacheManager;
+    private final CacheInvalidationService cacheInvalidation;
+
+    public TokenEpochServiceImpl(UserRepository users, CacheManager cacheManager,
+                                 CacheInvalidationService cacheInvalidation) {
+        this.users = users;
+        this.cacheManager = cacheManager;
+        this.cacheInvalidation = cacheInvalidation;
+    }
+
+    @Override
+    public int currentEpoch(Integer userId) {
+        Cache cache = cacheManager.getCache(CacheNames.TOKEN_EPOCH);
+        Integer epoch = cache != null
+                ? cache.get(String.valueOf(userId), () -> users.findTokenEpoch(userId))
+                : users.findTokenEpoch(userId);
+        // Unknown users keep the pre-epoch behaviour of accepting any epoch-0 token
+        return epoch != null ? epoch : 0;
+    }
+
+    @Override
+    @Transactional
+    public void revokeAll(Integer userId) {
+        if (users.incrementTokenEpoch(userId) == 0) {
+            return;
+        }
+        List<String> keys = List.of(String.valueOf(userId));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Evicting before commit would let a concurrent reader re-cache the old epoch
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cacheInvalidation.evict(CacheNames.TOKEN_EPOCH, keys);
+                }
+            });
+        } else {
+            cacheInvalidation.evict(CacheNames.TOKEN_EPOCH, keys);
+        }
+        log.info("Revoked all tokens for user {}", userId);
+    }
+}
@@ -1,5 +1,6 @@
 package com.cloudkitchen.rbac.service.impl;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
@@ -10,14 +11,19 @@ import java.util.stream.Collectors;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.security.core.Authentication;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.cloudkitchen.rbac.constants.ResponseMessages;
 import com.cloudkitchen.rbac.domain.entity.User;
+import com.cloudkitchen.rbac.dto.common.CursorPageResponse;
+import com.cloudkitchen.rbac.dto.common.ExportFormat;
 import com.cloudkitchen.rbac.dto.common.PageRequest;
 import com.cloudkitchen.rbac.dto.common.PageResponse;
 import com.cloudkitchen.rbac.dto.user.UserResponse;
@@ -26,8 +32,11 @@ import com.cloudkitchen.rbac.service.UserService;
 import com.cloudkitchen.rbac.util.AccessControlUtil;
 import com.cloudkitchen.rbac.util.HttpResponseUtil;
 import com.cloudkitchen.rbac.util.ResponseBuilder;
+import com.cloudkitchen.rbac.util.SearchPattern;
 import com.cloudkitchen.rbac.exception.BusinessExceptions.*;
 
+import jakarta.persistence.criteria.Predicate;
+
 /**
  * Service implementation for user listing and lookup, including access checks
  * and response assembly for controllers.
@@ -37,6 +46,8 @@ import com.cloudkitchen.rbac.exception.BusinessExceptions.*;
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
     private final AccessControlUtil accessControlUtil;
+    private final KeysetPager keysetPager;
+    private final StreamingExporter streamingExporter;
 
     // Valid sortable fields for User entity
     private static final Set<String> VALID_SORT_FIELDS = new HashSet<>(Arrays.asList(
@@ -44,17 +55,38 @@ public class UserServiceImpl implements UserService {
         "userType", "active", "verified", "createdOn", "lastLoginAt"
     ));
 
+    // Non-null columns that cursor pagination can sort by, besides userId
+    private static final Set<String> KEYSET_SORT_FIELDS = Set.of("phone");
+
     // Valid user roles
     private static final Set<String> VALID_USER_ROLES = new HashSet<>(Arrays.asList(
         "customer", "merchant", "admin", "super_admin"
     ));
 
+    private static final List<StreamingExporter.Column<UserResponse>> EXPORT_COLUMNS = List.of(
+            new StreamingExporter.Column<>("id", UserResponse::getId),
+            new StreamingExporter.Column<>("userType", UserResponse::getUserType),
+            new StreamingExporter.Column<>("merchantId", UserResponse::getMerchantId),
+            new StreamingExporter.Column<>("merchantName", UserResponse::getMerchantName),
+            new StreamingExporter.Column<>("username", UserResponse::getUsername),
+            new StreamingExporter.Column<>("firstName", UserResponse::getFirstName),
+            new StreamingExporter.Column<>("lastName", UserResponse::getLastName),
+            new StreamingExporter.Column<>("phone", UserResponse::getPhone),
+            new StreamingExporter.Column<>("email", UserResponse::getEmail),
+            new StreamingExporter.Column<>("active", UserResponse::getActive),
+            new StreamingExporter.Column<>("verified", UserResponse::getVerified),
+            new StreamingExporter.Column<>("createdAt", UserResponse::getCreatedAt),
+            new StreamingExporter.Column<>("lastLogin", UserResponse::getLastLogin));
+
     /**
      * Construct the user service with repository and access control helper.
      */
-    public UserServiceImpl(UserRepository userRepository, AccessControlUtil accessControlUtil) {
+    public UserServiceImpl(UserRepository userRepository, AccessControlUtil accessControlUtil, KeysetPager keysetPager,
+                           StreamingExporter streamingExporter) {
         this.userRepository = userRepository;
         this.accessControlUtil = accessControlUtil;
+        this.keysetPager = keysetPager;
+        this.streamingExporter = streamingExporter;
     }
 
     /**
@@ -62,10 +94,7 @@ public class UserServiceImpl implements UserService {
      */
     @Override
     public PageResponse<UserResponse> getAllUsers(PageRequest pageRequest, String role, String search) {
-        // Validate role parameter
-        if (role != null && !role.trim().isEmpty() && !VALID_USER_ROLES.contains(role.trim().toLowerCase())) {
-            throw new IllegalArgumentException("Invalid role. Valid roles are: customer, merchant, admin, super_admin");
-        }
+        validateRole(role);
 
         // Validate sortBy field
         if (pageRequest.getSortBy() != null && !pageRequest.getSortBy().trim().isEmpty()) {
@@ -77,9 +106,11 @@ public class UserServiceImpl implements UserService {
         Pageable pageable = createPageable(pageRequest);
 
         String roleFilter = (role != null && !role.trim().isEmpty()) ? role.trim().toLowerCase() : null;
-        String searchFilter = (search != null && !search.trim().isEmpty()) ? search.trim() : null;
+        SearchPattern searchPattern = SearchPattern.of(search);
 
-        Page<User> userPage = userRepository.findAllUsersWithFilters(roleFilter, searchFilter, pageable);
+        Page<User> userPage = searchPattern == null
+                ? userRepository.findAllUsersWithFilters(roleFilter, pageable)
+                : userRepository.findAllUsersWithFilters(roleFilter, searchPattern.text(), searchPattern.phone(), pageable);
 
         List<UserResponse> content = userPage.getContent().stream()
                 .map(this::mapToUserResponse)
@@ -93,6 +124,18 @@ public class UserServiceImpl implements UserService {
         );
     }
 
+    /**
+     * Return a cursor page of users with optional role and search filters.
+     */
+    @Override
+    public CursorPageResponse<UserResponse> getUsersPage(PageRequest pageRequest, String role, String search) {
+        validateRole(role);
+        String roleFilter = (role != null && !role.trim().isEmpty()) ? role.trim().toLowerCase() : null;
+        return keysetPager.page(userRepository, User.class, userFilter(roleFilter, SearchPattern.of(search)),
+                pageRequest, "userId", KEYSET_SORT_FIELDS,
+                users -> users.stream().map(this::mapToUserResponse).collect(Collectors.toList()));
+    }
+
     /**
      * Fetch a user by ID or throw if not found.
      */
@@ -107,7 +150,7 @@ public class UserServiceImpl implements UserService {
      * Build the HTTP response for listing users with access checks.
      */
     @Override
-    public ResponseEntity<Map<String, Object>> getAllUsersResponse(String page, String size, String sortBy, String sortDirection, String role, String search, Authentication authentication) {
+    public ResponseEntity<Map<String, Object>> getAllUsersResponse(String page, String size, String sortBy, String sortDirection, String role, String search, String cursor, boolean includeTotal, Authentication authentication) {
         if (!accessControlUtil.isSuperAdmin(authentication)) {
             throw new AccessDeniedException(ResponseMessages.Auth.ACCESS_DENIED);
         }
@@ -141,6 +184,13 @@ public class UserServiceImpl implements UserService {
         }
 
         PageRequest pageRequest = new PageRequest(pageNum, sizeNum, sortBy, sortDirection);
+        if (cursor != null) {
+            pageRequest.setCursor(cursor);
+            pageRequest.setIncludeTotal(includeTotal);
+            CursorPageResponse<UserResponse> users = getUsersPage(pageRequest, role, search);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .body(ResponseBuilder.success(HttpResponseUtil.OK, "Users retrieved successfully", users));
+        }
         PageResponse<UserResponse> response = getAllUsers(pageRequest, role, search);
 
         String message = String.format(
@@ -175,6 +225,55 @@ public class UserServiceImpl implements UserService {
                 .body(ResponseBuilder.success(HttpResponseUtil.OK, "User retrieved successfully", response));
     }
 
+    /**
+     * Build the streaming export of users, optionally filtered by role. The
+     * rows are read on the response thread in the exporter's own transaction.
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ResponseEntity<StreamingResponseBody> exportUsersResponse(String format, String role, Authentication authentication) {
+        if (!accessControlUtil.isSuperAdmin(authentication)) {
+            throw new AccessDeniedException(ResponseMessages.Auth.ACCESS_DENIED);
+        }
+        ExportFormat exportFormat = ExportFormat.from(format);
+        validateRole(role);
+        String roleFilter = (role != null && !role.trim().isEmpty()) ? role.trim().toLowerCase() : null;
+        return streamingExporter.export("users", exportFormat,
+                () -> userRepository.streamAllUsersWithFilters(roleFilter),
+                users -> users.stream().map(this::mapToUserResponse).collect(Collectors.toList()),
+                EXPORT_COLUMNS);
+    }
+
+    /**
+     * Reject role filters outside the known user types.
+     */
+    private static void validateRole(String role) {
+        if (role != null && !role.trim().isEmpty() && !VALID_USER_ROLES.contains(role.trim().toLowerCase())) {
+            throw new IllegalArgumentException("Invalid role. Valid roles are: customer, merchant, admin, super_admin");
+        }
+    }
+
+    /**
+     * Match users by role and search term, the same filters as findAllUsersWithFilters.
+     */
+    private static Specification<User> userFilter(String role, SearchPattern search) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            if (role != null) {
+                predicates.add(cb.equal(root.get("userType"), role));
+            }
+            if (search != null) {
+                predicates.add(cb.or(
+                        cb.like(cb.lower(root.get("firstName")), search.text(), '\\'),
+                        cb.like(cb.lower(root.get("lastName")), search.text(), '\\'),
+                        cb.like(cb.lower(root.get("email")), search.text(), '\\'),
+                        cb.like(cb.lower(root.get("username")), search.text(), '\\'),
+                        cb.like(root.get("phone"), search.phone(), '\\')));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
     /**
      * Build a pageable instance with optional sorting.
      */
@@ -1,5 +1,6 @@
 package com.cloudkitchen.rbac.service.impl;
 
+import java.util.Locale;
 import java.util.regex.Pattern;
 
 import org.springframework.stereotype.Service;
@@ -16,7 +17,9 @@ public class ValidationServiceImpl implements ValidationService {
     private static final Pattern PASSWORD_PATTERN = Pattern.compile("^(?=.*[a-z])(?=.*[A-Z])(?=.*\\d)(?=.*[@$!%*?&])[A-Za-z\\d@$!%*?&]{8,}$");
     private static final Pattern GSTIN_PATTERN = Pattern.compile("^[0-9]{2}[A-Z]{5}[0-9]{4}[A-Z]{1}[1-9A-Z]{1}Z[0-9A-Z]{1}$");
     private static final Pattern FSSAI_PATTERN = Pattern.compile("^\\d{14}$");
+    private static final Pattern NAME_PATTERN = Pattern.compile("^[a-zA-Z\\s-]+$");
 
+    private static final int MAX_NAME_LENGTH = 100;
     private static final int MAX_ADDRESS_LENGTH = 255;
     private static final int MAX_MERCHANT_NAME_LENGTH = 100;
     
@@ -29,48 +32,8 @@ public class ValidationServiceImpl implements ValidationService {
         validatePhone(request.getPhone());
         validatePassword(request.getPassword());
         
-        // Validate firstName
-        if (request.getFirstName() == null) {
-            throw new IllegalArgumentException("First name is required");
-        }
-        
-        if (request.getFirstName().trim().isEmpty()) {
-            if (request.getFirstName().length() > 0) {
-                throw new IllegalArgumentException("First name cannot be empty or whitespace only");
-            } else {
-                throw new IllegalArgumentException("First name is required");
-            }
-        }
-        
-        // Validate name contains only valid characters
-        if (!request.getFirstName().trim().matches("^[a-zA-Z\\s-]+$")) {
-            throw new IllegalArgumentException("Invalid characters in first name");
-        }
-        
-        if (request.getFirstName().trim().length() > 100) {
-            throw new IllegalArgumentException("First name too long");
-        }
-        
-        // Validate lastName - now mandatory
-        if (request.getLastName() == null) {
-            throw new IllegalArgumentException("Last name is required");
-        }
-        
-        if (request.getLastName().trim().isEmpty()) {
-            if (request.getLastName().length() > 0) {
-                throw new IllegalArgumentException("Last name cannot be empty or whitespace only");
-            } else {
-                throw new IllegalArgumentException("Last name is required");
-            }
-        }
-        
-        if (!request.getLastName().trim().matches("^[a-zA-Z\\s-]+$")) {
-            throw new IllegalArgumentException("Invalid characters in last name");
-        }
-        
-        if (request.getLastName().trim().length() > 100) {
-            throw new IllegalArgumentException("Last name too long");
-        }
+        validateName(request.getFirstName(), "First name");
+        validateName(request.getLastName(), "Last name");
     }
     
     @Override
@@ -102,6 +65,30 @@ public class ValidationServiceImpl implements ValidationService {
         }
     }
     
+    @Override
+    public void validateName(String name, String fieldName) {
+        if (name == null) {
+            throw new IllegalArgumentException(fieldName + " is required");
+        }
+
+        if (name.trim().isEmpty()) {
+            if (name.length() > 0) {
+                throw new IllegalArgumentException(fieldName + " cannot be empty or whitespace only");
+            } else {
+                throw new IllegalArgumentException(fieldName + " is required");
+            }
+        }
+
+        // Validate name contains only valid characters
+        if (!NAME_PATTERN.matcher(name.trim()).matches()) {
+            throw new IllegalArgumentException("Invalid characters in " + fieldName.toLowerCase(Locale.ROOT));
+        }
+
+        if (name.trim().length() > MAX_NAME_LENGTH) {
+            throw new IllegalArgumentException(fieldName + " too long");
+        }
+    }
+
     @Override
     public void validateEmail(String email) {
         if (email == null || email.trim().isEmpty()) {
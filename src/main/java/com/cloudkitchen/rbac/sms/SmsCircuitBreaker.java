@@ -0,0 +1,73 @@
+package com.cloudkitchen.rbac.sms;
+
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Stops calling a failing gateway. After {@code failureThreshold}
+ * consecutive failed batches the breaker opens for {@code openDuration};
+ * then a single batch is let through, and its outcome closes or re-opens it.
+ */
+class SmsCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(SmsCircuitBreaker.class);
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private int consecutiveFailures;
+    private boolean open;
+    private boolean probing;
+    private long openUntil;
+
+    SmsCircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * @return 0 if a batch may be sent now, otherwise how long to hold it back
+     */
+    synchronized long tryAcquire() {
+        if (!open) {
+            return 0;
+        }
+        long remaining = openUntil - System.nanoTime();
+        if (remaining > 0) {
+            return remaining;
+        }
+        if (probing) {
+            // A trial batch is in flight; check again after another open period
+            return openNanos;
+        }
+        probing = true;
+        return 0;
+    }
+
+    synchronized void onSuccess() {
+        if (open) {
+            logger.info("SMS gateway recovered, circuit closed");
+        }
+        open = false;
+        probing = false;
+        consecutiveFailures = 0;
+    }
+
+    synchronized void onFailure() {
+        probing = false;
+        if (open || ++consecutiveFailures >= failureThreshold) {
+            if (!open) {
+                logger.warn("SMS gateway failed {} batches in a row, circuit open for {} ms", consecutiveFailures,
+                        openNanos / 1_000_000);
+            }
+            open = true;
+            consecutiveFailures = 0;
+            openUntil = System.nanoTime() + openNanos;
+        }
+    }
+
+    synchronized boolean isOpen() {
+        return open;
+    }
+}
@@ -0,0 +1,17 @@
+package com.cloudkitchen.rbac.sms;
+
+/**
+ * Receives the final outcome of each queued message, on a dispatcher thread.
+ */
+public interface SmsDeliveryListener {
+
+    default void onDelivered(SmsMessage message) {
+    }
+
+    /**
+     * The message was rejected, ran out of attempts or expired before it
+     * could be delivered.
+     */
+    default void onFailed(SmsMessage message, String reason) {
+    }
+}
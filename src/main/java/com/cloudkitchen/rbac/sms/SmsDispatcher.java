@@ -0,0 +1,276 @@
+package com.cloudkitchen.rbac.sms;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.cloudkitchen.rbac.config.SmsProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Outbox for OTP texts. {@link #enqueue} only puts the message on an
+ * in-process queue, so callers never wait for the gateway. A dispatcher
+ * thread takes up to {@code app.sms.batch-size} due messages at a time and
+ * hands each batch to the {@code smsExecutor} pool, which calls the
+ * {@link SmsProvider}.
+ *
+ * Failed messages are re-queued with exponential backoff and full jitter
+ * until {@code app.sms.retry.max-attempts} is reached or the OTP expires.
+ * While the {@link SmsCircuitBreaker} is open, batches are held back instead
+ * of being sent. Final outcomes go to every {@link SmsDeliveryListener}.
+ *
+ * The outbox lives in memory: a normal shutdown makes one last delivery
+ * attempt for everything still queued, but messages are lost if the JVM dies
+ * abruptly. The user can request a new OTP in that case.
+ */
+@Component
+public class SmsDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(SmsDispatcher.class);
+
+    private final SmsProvider provider;
+    private final Executor executor;
+    private final List<SmsDeliveryListener> listeners;
+    private final SmsCircuitBreaker circuitBreaker;
+    private final DelayQueue<Outgoing> outbox = new DelayQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final int capacity;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final Counter delivered;
+    private final Counter failed;
+    private final Counter retried;
+    private final Counter rejected;
+    private volatile boolean running = true;
+    private Thread dispatcher;
+
+    public SmsDispatcher(SmsProvider provider,
+                         @Qualifier("smsExecutor") Executor executor,
+                         List<SmsDeliveryListener> listeners,
+                         SmsProperties properties,
+                         ObjectProvider<MeterRegistry> meterRegistry) {
+        this.provider = provider;
+        this.executor = executor;
+        this.listeners = listeners;
+        this.circuitBreaker = new SmsCircuitBreaker(properties.getCircuitBreaker().getFailureThreshold(),
+                properties.getCircuitBreaker().getOpenDuration());
+        this.capacity = properties.getOutboxCapacity();
+        this.batchSize = Math.max(1, properties.getBatchSize());
+        this.maxAttempts = Math.max(1, properties.getRetry().getMaxAttempts());
+        this.initialBackoffNanos = properties.getRetry().getInitialBackoff().toNanos();
+        this.maxBackoffNanos = properties.getRetry().getMaxBackoff().toNanos();
+
+        MeterRegistry meters = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        this.delivered = Counter.builder("sms.messages").tag("result", "delivered")
+                .description("OTP texts by final delivery outcome").register(meters);
+        this.failed = Counter.builder("sms.messages").tag("result", "failed")
+                .description("OTP texts by final delivery outcome").register(meters);
+        this.retried = Counter.builder("sms.messages.retried")
+                .description("OTP text delivery attempts that were scheduled for retry").register(meters);
+        this.rejected = Counter.builder("sms.outbox.rejected")
+                .description("OTP texts refused because the outbox was full").register(meters);
+        Gauge.builder("sms.outbox.pending", pending, AtomicInteger::get)
+                .description("OTP texts queued or in flight").register(meters);
+    }
+
+    @PostConstruct
+    void start() {
+        dispatcher = new Thread(this::runDispatcher, "sms-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        dispatcher.interrupt();
+        dispatcher.join(TimeUnit.SECONDS.toMillis(10));
+        List<Outgoing> remaining = new ArrayList<>(outbox);
+        outbox.clear();
+        if (!remaining.isEmpty()) {
+            logger.info("Sending {} queued SMS before shutdown", remaining.size());
+        }
+        for (int from = 0; from < remaining.size(); from += batchSize) {
+            List<Outgoing> batch = remaining.subList(from, Math.min(remaining.size(), from + batchSize));
+            send(new ArrayList<>(batch));
+        }
+    }
+
+    /**
+     * Queue a message for delivery.
+     *
+     * @return false if the outbox is full or shutting down
+     */
+    public boolean enqueue(SmsMessage message) {
+        if (!running || pending.incrementAndGet() > capacity) {
+            if (running) {
+                pending.decrementAndGet();
+            }
+            rejected.increment();
+            return false;
+        }
+        outbox.put(new Outgoing(message, 1, System.nanoTime()));
+        return true;
+    }
+
+    private void runDispatcher() {
+        while (running) {
+            try {
+                List<Outgoing> batch = new ArrayList<>(batchSize);
+                batch.add(outbox.take());
+                outbox.drainTo(batch, batchSize - 1);
+
+                long holdNanos = circuitBreaker.tryAcquire();
+                if (holdNanos > 0) {
+                    long dueAt = System.nanoTime() + holdNanos;
+                    for (Outgoing message : batch) {
+                        outbox.put(message.deferredTo(dueAt));
+                    }
+                    continue;
+                }
+                executor.execute(() -> send(batch));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("SMS dispatch failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void send(List<Outgoing> batch) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Outgoing> live = new ArrayList<>(batch.size());
+        for (Outgoing message : batch) {
+            if (isExpired(message, now)) {
+                fail(message, "expired before delivery");
+            } else {
+                live.add(message);
+            }
+        }
+        if (live.isEmpty()) {
+            return;
+        }
+
+        List<SmsProvider.Result> results;
+        try {
+            results = provider.send(live.stream().map(Outgoing::message).toList());
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            logger.warn("SMS gateway call failed for {} messages: {}", live.size(), e.getMessage());
+            for (Outgoing message : live) {
+                retryOrFail(message, e.getMessage());
+            }
+            return;
+        }
+        circuitBreaker.onSuccess();
+
+        for (int i = 0; i < live.size(); i++) {
+            Outgoing message = live.get(i);
+            SmsProvider.Result result = i < results.size() ? results.get(i) : SmsProvider.Result.RETRY;
+            switch (result) {
+                case DELIVERED -> complete(message);
+                case RETRY -> retryOrFail(message, "gateway asked to retry");
+                case REJECTED -> fail(message, "rejected by gateway");
+            }
+        }
+    }
+
+    private void retryOrFail(Outgoing message, String reason) {
+        if (!running || message.attempt() >= maxAttempts) {
+            fail(message, reason);
+            return;
+        }
+        long backoff = backoffNanos(message.attempt());
+        if (message.message().expiresAt() != null
+                && LocalDateTime.now().plusNanos(backoff).isAfter(message.message().expiresAt())) {
+            fail(message, reason);
+            return;
+        }
+        retried.increment();
+        outbox.put(new Outgoing(message.message(), message.attempt() + 1, System.nanoTime() + backoff));
+    }
+
+    /** Full jitter: uniform in [0, min(max, initial * 2^(attempt - 1))]. */
+    private long backoffNanos(int attempt) {
+        long ceiling = initialBackoffNanos << Math.min(attempt - 1, 30);
+        if (ceiling <= 0 || ceiling > maxBackoffNanos) {
+            ceiling = maxBackoffNanos;
+        }
+        return ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0;
+    }
+
+    private void complete(Outgoing message) {
+        pending.decrementAndGet();
+        delivered.increment();
+        for (SmsDeliveryListener listener : listeners) {
+            try {
+                listener.onDelivered(message.message());
+            } catch (RuntimeException e) {
+                logger.error("SMS delivery listener failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void fail(Outgoing message, String reason) {
+        pending.decrementAndGet();
+        failed.increment();
+        logger.warn("SMS to {} not delivered after {} attempt(s): {}", mask(message.message().phone()),
+                message.attempt(), reason);
+        for (SmsDeliveryListener listener : listeners) {
+            try {
+                listener.onFailed(message.message(), reason);
+            } catch (RuntimeException e) {
+                logger.error("SMS delivery listener failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private static boolean isExpired(Outgoing message, LocalDateTime now) {
+        LocalDateTime expiresAt = message.message().expiresAt();
+        return expiresAt != null && !now.isBefore(expiresAt);
+    }
+
+    private static String mask(String phone) {
+        if (phone == null || phone.length() < 4) return "****";
+        return "****" + phone.substring(phone.length() - 4);
+    }
+
+    /** A queued message and the attempt it is due for. */
+    private record Outgoing(SmsMessage message, int attempt, long dueAtNanos) implements Delayed {
+
+        Outgoing deferredTo(long dueAt) {
+            return new Outgoing(message, attempt, dueAt);
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(dueAtNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(dueAtNanos, ((Outgoing) other).dueAtNanos);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.cloudkitchen.rbac.sms;
+
+import java.time.LocalDateTime;
+
+/**
+ * An OTP text waiting to be delivered.
+ *
+ * @param phone     destination number
+ * @param otp       code to send
+ * @param expiresAt when the code stops being accepted; undelivered messages
+ *                  are dropped after this instead of being retried
+ */
+public record SmsMessage(String phone, String otp, LocalDateTime expiresAt) {
+}
@@ -0,0 +1,29 @@
+package com.cloudkitchen.rbac.sms;
+
+import java.util.List;
+
+/**
+ * SMS gateway client. Called from the dispatcher's worker threads, never
+ * from request threads, so implementations may block.
+ */
+public interface SmsProvider {
+
+    /**
+     * Send a batch of messages.
+     *
+     * @return one result per message, in batch order
+     * @throws RuntimeException if the gateway could not be reached at all;
+     *         the whole batch is retried and the failure counts towards the
+     *         circuit breaker
+     */
+    List<Result> send(List<SmsMessage> batch);
+
+    enum Result {
+        /** Accepted by the gateway. */
+        DELIVERED,
+        /** Transient failure for this message; try again later. */
+        RETRY,
+        /** Permanent failure (e.g. invalid number); do not retry. */
+        REJECTED
+    }
+}
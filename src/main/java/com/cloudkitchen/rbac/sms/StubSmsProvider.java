@@ -0,0 +1,50 @@
+package com.cloudkitchen.rbac.sms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.cloudkitchen.rbac.config.SmsProperties;
+
+/**
+ * Provider that only logs. {@code app.sms.stub.latency} delays every batch
+ * and {@code app.sms.stub.failure-rate} fails that fraction of batches as if
+ * the gateway were unreachable, for exercising retries and the circuit
+ * breaker locally.
+ */
+public class StubSmsProvider implements SmsProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(StubSmsProvider.class);
+
+    private final SmsProperties.Stub settings;
+
+    public StubSmsProvider(SmsProperties.Stub settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public List<Result> send(List<SmsMessage> batch) {
+        if (!settings.getLatency().isZero()) {
+            try {
+                Thread.sleep(settings.getLatency());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while sending SMS", e);
+            }
+        }
+        if (settings.getFailureRate() > 0 && ThreadLocalRandom.current().nextDouble() < settings.getFailureRate()) {
+            throw new IllegalStateException("Injected SMS gateway failure");
+        }
+        List<Result> results = new ArrayList<>(batch.size());
+        for (SmsMessage message : batch) {
+            String phone = message.phone();
+            String maskedPhone = phone.length() > 4 ? "****" + phone.substring(phone.length() - 4) : "****";
+            logger.info("OTP sent to {} - Code: **** (Valid: 5min)", maskedPhone);
+            results.add(Result.DELIVERED);
+        }
+        return results;
+    }
+}
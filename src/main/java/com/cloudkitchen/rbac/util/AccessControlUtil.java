@@ -3,8 +3,15 @@ package com.cloudkitchen.rbac.util;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
+import com.cloudkitchen.rbac.security.AuthorityRegistry;
+import com.cloudkitchen.rbac.security.JwtAuthentication;
+
 /**
- * Centralized utility for role-based and ownership-based access control
+ * Centralized utility for role-based and ownership-based access control.
+ *
+ * For a {@link JwtAuthentication} every check is a bit test against its
+ * authority set; other authentication types fall back to scanning
+ * {@link Authentication#getAuthorities()}.
  */
 @Component
 public class AccessControlUtil {
@@ -12,41 +19,46 @@ public class AccessControlUtil {
     private static final String ROLE_SUPER_ADMIN = "ROLE_SUPER_ADMIN";
     private static final String ROLE_MERCHANT = "ROLE_MERCHANT";
     private static final String ROLE_CUSTOMER = "ROLE_CUSTOMER";
+
+    private final AuthorityRegistry authorityRegistry;
+    private final int superAdminOrdinal;
+    private final int merchantOrdinal;
+    private final int customerOrdinal;
+
+    public AccessControlUtil(AuthorityRegistry authorityRegistry) {
+        this.authorityRegistry = authorityRegistry;
+        this.superAdminOrdinal = authorityRegistry.ordinal(ROLE_SUPER_ADMIN);
+        this.merchantOrdinal = authorityRegistry.ordinal(ROLE_MERCHANT);
+        this.customerOrdinal = authorityRegistry.ordinal(ROLE_CUSTOMER);
+    }
     
     /**
      * Check if authenticated user is Super Admin
      */
     public boolean isSuperAdmin(Authentication authentication) {
-        if (authentication == null) return false;
-        return authentication.getAuthorities().stream()
-                .anyMatch(auth -> ROLE_SUPER_ADMIN.equals(auth.getAuthority()));
+        return hasAuthority(authentication, superAdminOrdinal, ROLE_SUPER_ADMIN);
     }
     
     /**
      * Check if authenticated user is Merchant
      */
     public boolean isMerchant(Authentication authentication) {
-        if (authentication == null) return false;
-        return authentication.getAuthorities().stream()
-                .anyMatch(auth -> ROLE_MERCHANT.equals(auth.getAuthority()));
+        return hasAuthority(authentication, merchantOrdinal, ROLE_MERCHANT);
     }
     
     /**
      * Check if authenticated user is Customer
      */
     public boolean isCustomer(Authentication authentication) {
-        if (authentication == null) return false;
-        return authentication.getAuthorities().stream()
-                .anyMatch(auth -> ROLE_CUSTOMER.equals(auth.getAuthority()));
+        return hasAuthority(authentication, customerOrdinal, ROLE_CUSTOMER);
     }
     
     /**
      * Check if user has specific permission
      */
     public boolean hasPermission(Authentication authentication, String permission) {
-        if (authentication == null || permission == null) return false;
-        return authentication.getAuthorities().stream()
-                .anyMatch(auth -> permission.equals(auth.getAuthority()));
+        if (permission == null) return false;
+        return hasAuthority(authentication, authorityRegistry.find(permission), permission);
     }
     
     /**
@@ -54,10 +66,22 @@ public class AccessControlUtil {
      */
     public Integer getUserId(Authentication authentication) {
         if (authentication == null) return null;
+        if (authentication instanceof JwtAuthentication jwt) {
+            return jwt.getUserId();
+        }
         try {
             return Integer.valueOf(authentication.getName());
         } catch (NumberFormatException e) {
             return null;
         }
     }
+
+    private boolean hasAuthority(Authentication authentication, int ordinal, String authority) {
+        if (authentication == null) return false;
+        if (authentication instanceof JwtAuthentication jwt) {
+            return jwt.hasAuthority(ordinal);
+        }
+        return authentication.getAuthorities().stream()
+                .anyMatch(auth -> authority.equals(auth.getAuthority()));
+    }
 }
@@ -0,0 +1,60 @@
+package com.cloudkitchen.rbac.util;
+
+import java.util.Locale;
+
+/**
+ * LIKE patterns for customer and user search, matched with {@code ESCAPE '\'}.
+ *
+ * Text columns are searched as {@code LOWER(column) LIKE '%term%'}, which the
+ * pg_trgm GIN indexes on {@code lower(column)} serve once the term has at
+ * least three characters. Phone numbers are matched on their digits, so
+ * "98765 43210" finds "9876543210"; a phone term of one or two digits is
+ * too short for trigrams and is matched as a prefix instead, which the
+ * {@code varchar_pattern_ops} B-tree index on phone serves.
+ */
+public final class SearchPattern {
+
+    // Shortest term a trigram index can narrow down
+    private static final int TRIGRAM_LENGTH = 3;
+
+    private final String text;
+    private final String phone;
+
+    private SearchPattern(String text, String phone) {
+        this.text = text;
+        this.phone = phone;
+    }
+
+    /**
+     * @return the patterns for {@code search}, or null if it is blank
+     */
+    public static SearchPattern of(String search) {
+        if (search == null || search.isBlank()) {
+            return null;
+        }
+        String term = search.trim();
+        String text = "%" + escape(term.toLowerCase(Locale.ROOT)) + "%";
+        String digits = term.replaceAll("[\\s()+-]", "");
+        String phone;
+        if (!digits.isEmpty() && digits.chars().allMatch(Character::isDigit)) {
+            phone = digits.length() < TRIGRAM_LENGTH ? digits + "%" : "%" + digits + "%";
+        } else {
+            phone = "%" + escape(term) + "%";
+        }
+        return new SearchPattern(text, phone);
+    }
+
+    /** Pattern for {@code LOWER(column) LIKE ...} on text columns. */
+    public String text() {
+        return text;
+    }
+
+    /** Pattern for {@code phone LIKE ...}. */
+    public String phone() {
+        return phone;
+    }
+
+    private static String escape(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
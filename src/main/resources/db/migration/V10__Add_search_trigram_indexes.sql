@@ -0,0 +1,47 @@
+-- Customer and user search match LOWER(column) LIKE '%term%' (see SearchPattern),
+-- which no B-tree can serve, so every search was a sequential scan. pg_trgm GIN
+-- indexes on the same expressions let each OR branch become a bitmap index scan.
+--
+-- Creating the extension needs CREATE privilege on the database. Where it is not
+-- available the trigram indexes are skipped and search keeps working unindexed.
+DO $$
+BEGIN
+    CREATE EXTENSION IF NOT EXISTS pg_trgm;
+EXCEPTION WHEN insufficient_privilege OR undefined_file THEN
+    RAISE NOTICE 'pg_trgm unavailable (%), skipping trigram search indexes', SQLERRM;
+END
+$$;
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm') THEN
+        CREATE INDEX IF NOT EXISTS idx_customers_first_name_trgm
+            ON customers USING gin (lower(first_name) gin_trgm_ops) WHERE deleted_at IS NULL;
+        CREATE INDEX IF NOT EXISTS idx_customers_last_name_trgm
+            ON customers USING gin (lower(last_name) gin_trgm_ops) WHERE deleted_at IS NULL;
+        CREATE INDEX IF NOT EXISTS idx_customers_email_trgm
+            ON customers USING gin (lower(email) gin_trgm_ops) WHERE deleted_at IS NULL;
+        CREATE INDEX IF NOT EXISTS idx_customers_phone_trgm
+            ON customers USING gin (phone gin_trgm_ops) WHERE deleted_at IS NULL;
+
+        CREATE INDEX IF NOT EXISTS idx_users_first_name_trgm
+            ON users USING gin (lower(first_name) gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_users_last_name_trgm
+            ON users USING gin (lower(last_name) gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_users_email_trgm
+            ON users USING gin (lower(email) gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_users_username_trgm
+            ON users USING gin (lower(username) gin_trgm_ops);
+        CREATE INDEX IF NOT EXISTS idx_users_phone_trgm
+            ON users USING gin (phone gin_trgm_ops);
+    END IF;
+END
+$$;
+
+-- Phone terms of one or two digits are too short for trigrams and are matched
+-- as a prefix (phone LIKE '98%'). The existing phone B-trees use the database
+-- collation and cannot serve LIKE; pattern_ops ones can.
+CREATE INDEX IF NOT EXISTS idx_customers_phone_prefix
+    ON customers (phone varchar_pattern_ops) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_users_phone_prefix
+    ON users (phone varchar_pattern_ops);
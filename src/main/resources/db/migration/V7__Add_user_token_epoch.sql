@@ -0,0 +1,3 @@
+-- Per-user revocation epoch. Every issued JWT carries the value current at
+-- issue time (claim "tep"); bumping it invalidates all of the user's tokens.
+ALTER TABLE users ADD COLUMN IF NOT EXISTS token_epoch INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,5 @@
+-- OTP challenges moved to OtpStore (memory or Redis), so users no longer takes
+-- a write per OTP request/verification and the expiry index has no readers.
+-- otp_code, otp_expires_at, otp_attempts and otp_used are no longer written;
+-- drop them once no older build is running.
+DROP INDEX IF EXISTS idx_users_otp_expires;
@@ -0,0 +1,6 @@
+-- Cursor pagination reads a merchant's live customers with
+-- WHERE merchant_id = ? AND deleted_at IS NULL AND customer_id > ?
+-- ORDER BY customer_id LIMIT n. This index lets it seek straight to the
+-- cursor position and stop after n rows, however deep the page.
+CREATE INDEX IF NOT EXISTS idx_customers_merchant_keyset
+    ON customers (merchant_id, customer_id) WHERE deleted_at IS NULL;